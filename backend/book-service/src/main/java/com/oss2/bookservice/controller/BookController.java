@@ -2,17 +2,30 @@ package com.oss2.bookservice.controller;
 
 import com.oss2.common.form.client.FormServiceClient;
 import com.oss2.common.form.dto.FormSubmissionDTO;
+import com.oss2.common.form.dto.SubmissionPageDTO;
+import com.oss2.common.form.schema.CacheStats;
+import com.oss2.common.page.KeysetParams;
+import com.oss2.common.search.Suggestion;
 import com.oss2.bookservice.model.Book;
+import com.oss2.bookservice.service.BookImportService;
 import com.oss2.bookservice.service.BookService;
 import com.oss2.bookservice.service.FormFieldMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+@Slf4j
 @RestController
 @RequestMapping("/books")
 public class BookController {
@@ -20,21 +33,54 @@ public class BookController {
     private final BookService bookService;
     private final FormServiceClient formServiceClient;
     private final FormFieldMapper formFieldMapper;
+    private final BookImportService bookImportService;
 
-    public BookController(BookService bookService, FormServiceClient formServiceClient, FormFieldMapper formFieldMapper) {
+    public BookController(BookService bookService, FormServiceClient formServiceClient, FormFieldMapper formFieldMapper,
+                          BookImportService bookImportService) {
         this.bookService = bookService;
         this.formServiceClient = formServiceClient;
         this.formFieldMapper = formFieldMapper;
+        this.bookImportService = bookImportService;
     }
 
+    // Without paging parameters: every book, as before. With any of limit, cursor, sort (title, author, price, stock)
+    // or fields: one keyset page {items, nextCursor} of just those fields; pass nextCursor back for the next page.
+    // Example: GET /books?limit=50&sort=title&fields=id,title,author
     @GetMapping
-    public List<Book> getAllBooks() {
-        return bookService.getAllBooks();
+    public ResponseEntity<?> getAllBooks(KeysetParams paging) {
+        if (!paging.isPaged()) {
+            return ResponseEntity.ok(bookService.getAllBooks());
+        }
+        return ResponseEntity.ok(bookService.pageBooks(paging.sort(), paging.fields(),
+                paging.limitOrDefault(), paging.cursor()));
+    }
+
+    // Example: GET /books/batch?ids=1,2,3 (at most 100 ids)
+    @GetMapping("/batch")
+    public List<Book> getBooksByIds(@RequestParam List<Long> ids) {
+        return bookService.getBooksByIds(ids);
+    }
+
+    // Autocomplete on book titles, most popular first
+    // Example: GET /books/suggest?prefix=hobb&limit=10
+    @GetMapping("/suggest")
+    public List<Suggestion> suggestBooks(@RequestParam String prefix,
+                                         @RequestParam(defaultValue = "10") int limit) {
+        return bookService.suggestBooks(prefix, limit);
+    }
+
+    // Hits, misses and hit rate of the book-by-id cache
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public CacheStats getCacheStats() {
+        return bookService.cacheStats();
     }
 
     @GetMapping("/{id}")
     public Book getBookById(@PathVariable Long id) {
-        return bookService.getBookById(id);
+        Book book = bookService.getBookById(id);
+        bookService.recordView(id);
+        return book;
     }
 
     @PostMapping
@@ -85,11 +131,14 @@ public class BookController {
         return ResponseEntity.ok(submission);
     }
     @GetMapping("/{bookId}/reviews")
-    public ResponseEntity<FormSubmissionDTO[]> getBookReviews(
+    public ResponseEntity<SubmissionPageDTO> getBookReviews(
             @PathVariable Long bookId,
-            @RequestParam Long formId) {
+            @RequestParam Long formId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor) {
         
-        FormSubmissionDTO[] submissions = formServiceClient.getFormSubmissions(formId);
+        // Only this book's submissions, one keyset page at a time; pass nextCursor back to continue
+        SubmissionPageDTO submissions = formServiceClient.getFormSubmissionsPage(formId, "bookId", bookId, limit, cursor);
         return ResponseEntity.ok(submissions);
     }
     @PostMapping("/from-form")
@@ -98,17 +147,18 @@ public class BookController {
             @RequestParam Long formId,
             @RequestBody Map<String, Object> formData) {
         
-        System.out.println("DEBUG: Entering createBookFromForm with formId: " + formId);
+        log.debug("Entering createBookFromForm with formId: {}", formId);
         
         
         try {
             // First check if schema was provided in the request body
             String schemaJson = null;
+            String schemaVersion = null;
             if (formData.containsKey("_schemaJson")) {
                 Object schemaObj = formData.get("_schemaJson");
                 if (schemaObj != null) {
                     schemaJson = schemaObj.toString();
-                    System.out.println("DEBUG: Using frontend-provided schema");
+                    log.debug("Using frontend-provided schema");
                 }
                 // Remove from map to avoid interfering with field mapping
                 formData.remove("_schemaJson");
@@ -120,23 +170,24 @@ public class BookController {
                     com.oss2.common.form.dto.FormSchemaDTO formSchema = formServiceClient.getForm(formId);
                     if (formSchema != null) {
                         schemaJson = formSchema.getSchemaJson();
-                        System.out.println("DEBUG: Fetched schema for form " + formId);
+                        schemaVersion = formSchema.getSchemaVersion();
+                        log.debug("Fetched schema for form {}", formId);
                     }
                 } catch (Exception e) {
-                    System.err.println("WARN: Could not fetch form schema for formId " + formId + ": " + e.getMessage());
+                    log.warn("Could not fetch form schema for formId {}: {}", formId, e.getMessage());
                     // Continue without schema (will use fallback mapping)
                 }
             } else {
-                System.out.println("DEBUG: Using schema provided in payload");
+                log.debug("Using schema provided in payload");
             }
 
             // Map form data to Book entity using schema for label lookup
-            Book book = formFieldMapper.mapToBook(formData, schemaJson);
+            Book book = formFieldMapper.mapToBook(formData, formId, schemaVersion, schemaJson);
             
             // Validate required fields (Optional: We now allow partial data with defaults)
             java.util.List<String> errors = formFieldMapper.getValidationErrors(book);
             if (!errors.isEmpty()) {
-                System.out.println("WARN: Missing fields: " + errors + ". Using defaults for Book creation.");
+                log.warn("Missing fields: {}. Using defaults for Book creation.", errors);
                 // We proceed to save even if fields are missing, because FormFieldMapper has applied defaults.
             }
             
@@ -146,21 +197,51 @@ public class BookController {
             return ResponseEntity.ok(savedBook);
             
         } catch (IllegalArgumentException e) {
-            System.err.println("ERROR: Bad Request in createBookFromForm: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Bad Request in createBookFromForm: {}", e.getMessage(), e);
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to create book from form {}", formId, e);
             return ResponseEntity.internalServerError()
                 .body(Map.of("error", "Failed to create book: " + e.getMessage()));
         }
     }
 
+    /**
+     * Create many books from form submissions sent as NDJSON (one JSON object per line)
+     * Example: POST /books/from-form/batch?formId=5
+     * Response: one NDJSON line per record, in input order: {"line":1,"id":42} or {"line":2,"errors":["price"]}
+     * If a chunk cannot be saved, a last line {"error":"...","line":501} says where the import stopped
+     */
+    @PostMapping(value = "/from-form/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> createBooksFromFormBatch(
+            @RequestParam Long formId,
+            HttpServletRequest request) throws IOException {
+
+        // Resolve the schema once for the whole batch, on the request thread (Feign needs the caller's token)
+        String schemaJson = null;
+        try {
+            com.oss2.common.form.dto.FormSchemaDTO formSchema = formServiceClient.getForm(formId);
+            if (formSchema != null) {
+                schemaJson = formSchema.getSchemaJson();
+            }
+        } catch (Exception e) {
+            log.warn("Could not fetch form schema for formId {}: {}", formId, e.getMessage());
+        }
+
+        String resolvedSchema = schemaJson;
+        InputStream body = request.getInputStream();
+        StreamingResponseBody results = out -> bookImportService.importNdjson(formId, resolvedSchema, body, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(results);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleException(Exception e) {
-        System.out.println("DEBUG: Global Exception Handler caught: " + e.getMessage());
-        e.printStackTrace();
+        log.error("Global Exception Handler caught: {}", e.getMessage(), e);
         return ResponseEntity.badRequest()
             .body(Map.of("error", "Server Error: " + e.getMessage()));
     }
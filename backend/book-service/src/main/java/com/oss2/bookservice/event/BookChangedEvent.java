@@ -0,0 +1,22 @@
+package com.oss2.bookservice.event;
+
+import com.oss2.bookservice.model.Book;
+
+/**
+ * A book was created, updated or deleted; {@code book} is its saved state, or null once deleted.
+ * Published by {@code BookService} and {@code BookImportService}, delivered after the change commits.
+ */
+public record BookChangedEvent(Long bookId, Book book) {
+
+    public static BookChangedEvent saved(Book book) {
+        return new BookChangedEvent(book.getId(), book);
+    }
+
+    public static BookChangedEvent deleted(Long bookId) {
+        return new BookChangedEvent(bookId, null);
+    }
+
+    public boolean isDeleted() {
+        return book == null;
+    }
+}
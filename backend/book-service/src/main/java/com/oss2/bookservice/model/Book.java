@@ -1,11 +1,19 @@
 package com.oss2.bookservice.model;
 
+import com.oss2.common.form.binder.FormField;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+// Keyset pages sorted by title, author, price or stock are range scans
+@Table(indexes = {
+        @Index(name = "idx_book_title_id", columnList = "title, id"),
+        @Index(name = "idx_book_author_id", columnList = "author, id"),
+        @Index(name = "idx_book_price_id", columnList = "price, id"),
+        @Index(name = "idx_book_stock_id", columnList = "stock, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,9 +22,18 @@ public class Book {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @FormField(aliases = {"title", "Title", "Book Title", "Name", "Book Name"}, defaultValue = "Draft Book (from Form)")
     private String title;
+
+    @FormField(aliases = {"author", "Author", "Author Name", "Writer"}, defaultValue = "Unknown Author")
     private String author;
+
+    @FormField(aliases = {"isbn", "ISBN", "ISBN Number", "ISBN Code"}, defaultValue = "N/A")
     private String isbn;
+
+    @FormField(aliases = {"price", "Price", "Cost", "Amount"}, defaultValue = "0.0")
     private Double price;
+
+    @FormField(aliases = {"stock", "Stock", "Quantity", "Available", "Inventory"}, defaultValue = "0")
     private Integer stock;
 }
@@ -1,7 +1,13 @@
 package com.oss2.bookservice.repository;
 
 import com.oss2.bookservice.model.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface BookRepository extends JpaRepository<Book, Long> {
+
+    // Keyset walk over the table in id order, e.g. to load the suggestion index
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
@@ -0,0 +1,90 @@
+package com.oss2.bookservice.search;
+
+import com.oss2.bookservice.event.BookChangedEvent;
+import com.oss2.bookservice.model.Book;
+import com.oss2.bookservice.repository.BookRepository;
+import com.oss2.common.search.PrefixSuggester;
+import com.oss2.common.search.Suggestion;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autocomplete over book titles, ranked by popularity (views and copies sold since startup).
+ * <p>
+ * Loaded from the database at startup, then kept current from {@link BookChangedEvent}s; the
+ * index behind it is rebuilt in the background and swapped in, see {@link PrefixSuggester}.
+ */
+@Slf4j
+@Component
+public class BookSuggestions {
+
+    // A sale says more about interest than a view
+    private static final long VIEW_WEIGHT = 1;
+    private static final long SALE_WEIGHT = 10;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final PrefixSuggester suggester;
+
+    public BookSuggestions(BookRepository bookRepository,
+                           @Value("${oss2.books.suggest.debounce:200ms}") Duration debounce,
+                           @Value("${oss2.books.suggest.popularity-refresh:5m}") Duration popularityRefresh) {
+        this.bookRepository = bookRepository;
+        this.suggester = new PrefixSuggester("book", debounce, popularityRefresh);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<Long, String> titles = new HashMap<>();
+        Long after = 0L;
+        List<Book> batch;
+        do {
+            batch = bookRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (Book book : batch) {
+                titles.put(book.getId(), book.getTitle());
+            }
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        suggester.load(titles);
+        log.info("Loaded {} book titles for suggestions", suggester.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.isDeleted()) {
+            suggester.remove(event.bookId());
+        } else {
+            suggester.put(event.bookId(), event.book().getTitle());
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return suggester.suggest(prefix, limit);
+    }
+
+    public void recordView(Long bookId) {
+        suggester.addPopularity(bookId, VIEW_WEIGHT);
+    }
+
+    public void recordSale(Long bookId, int quantity) {
+        suggester.addPopularity(bookId, SALE_WEIGHT * Math.max(quantity, 0));
+    }
+
+    @PreDestroy
+    void close() {
+        suggester.close();
+    }
+}
@@ -0,0 +1,293 @@
+package com.oss2.bookservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.oss2.bookservice.event.BookChangedEvent;
+import com.oss2.bookservice.model.Book;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk creation of books from many form submissions.
+ * <p>
+ * Reads an NDJSON stream in bounded chunks: each chunk is mapped in parallel, its valid rows
+ * are written with one JDBC batch insert in one transaction, and a result line per record
+ * (new id or validation errors) is streamed back before the next chunk is read. Memory use
+ * is bounded by the chunk size, not by the size of the upload.
+ * <p>
+ * Mapping runs on a small pool of its own, and imports beyond its queue map on their own thread.
+ * If a chunk cannot be saved, the import stops with a last {@code {"error": ...}} line; the chunks
+ * before it stay saved.
+ */
+@Slf4j
+@Service
+public class BookImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO book (title, author, isbn, price, stock) VALUES (?, ?, ?, ?, ?)";
+
+    private final FormFieldMapper formFieldMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int mappingThreads;
+    private final ExecutorService mappers;
+
+    public BookImportService(FormFieldMapper formFieldMapper, JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${oss2.books.import.chunk-size:500}") int chunkSize,
+                             @Value("${oss2.books.import.mapping-threads:4}") int mappingThreads) {
+        this.formFieldMapper = formFieldMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.mappingThreads = Math.max(1, mappingThreads);
+        this.mappers = new ThreadPoolExecutor(this.mappingThreads, this.mappingThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.mappingThreads * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "book-import-mapper");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void close() {
+        mappers.shutdownNow();
+    }
+
+    /**
+     * Import every record of an NDJSON body and write one NDJSON result line per record, in input order
+     */
+    public void importNdjson(Long formId, String schemaJson, InputStream in, OutputStream out) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(Map.class);
+        try (MappingIterator<Map<String, Object>> records = reader.readValues(in);
+             JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.setRootValueSeparator(null);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            long line = 0;
+            List<Map<String, Object>> chunk = new ArrayList<>(chunkSize);
+            try {
+                while (true) {
+                    Map<String, Object> record;
+                    try {
+                        if (!records.hasNextValue()) {
+                            break;
+                        }
+                        record = records.nextValue();
+                    } catch (JsonProcessingException e) {
+                        // A malformed line ends the stream: the parser cannot resynchronize reliably
+                        line = flushChunk(formId, schemaJson, chunk, line, json);
+                        writeError(json, line + 1, "Malformed JSON: " + e.getOriginalMessage());
+                        break;
+                    }
+                    chunk.add(record);
+                    if (chunk.size() == chunkSize) {
+                        line = flushChunk(formId, schemaJson, chunk, line, json);
+                    }
+                }
+                flushChunk(formId, schemaJson, chunk, line, json);
+            } catch (RuntimeException e) {
+                // The failed chunk rolled back; say so rather than end the stream as if it had succeeded
+                log.error("Book import for form {} failed at line {}", formId, line + 1, e);
+                writeFailure(json, line + 1, line + chunk.size());
+            }
+        }
+    }
+
+    private long flushChunk(Long formId, String schemaJson, List<Map<String, Object>> chunk,
+                            long firstLine, JsonGenerator json) throws IOException {
+        if (chunk.isEmpty()) {
+            return firstLine;
+        }
+        int size = chunk.size();
+        Book[] books = new Book[size];
+        List<String>[] errors = newErrorArray(size);
+
+        // Mapping is CPU-only and the compiled schema is shared, so slices of the chunk are mapped in parallel
+        int slices = Math.min(mappingThreads, size);
+        List<Future<?>> mapped = new ArrayList<>(slices);
+        for (int slice = 0; slice < slices; slice++) {
+            int from = slice * size / slices;
+            int to = (slice + 1) * size / slices;
+            mapped.add(mappers.submit(() -> {
+                for (int i = from; i < to; i++) {
+                    map(formId, schemaJson, chunk.get(i), books, errors, i);
+                }
+            }));
+        }
+        for (Future<?> slice : mapped) {
+            try {
+                slice.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while mapping books", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Could not map books", e.getCause());
+            }
+        }
+
+        insert(books);
+
+        for (int i = 0; i < size; i++) {
+            long line = firstLine + i + 1;
+            if (books[i] != null) {
+                json.writeStartObject();
+                json.writeNumberField("line", line);
+                Long id = books[i].getId();
+                if (id != null) {
+                    json.writeNumberField("id", id.longValue());
+                } else {
+                    json.writeNullField("id");
+                }
+                json.writeEndObject();
+            } else {
+                json.writeStartObject();
+                json.writeNumberField("line", line);
+                json.writeArrayFieldStart("errors");
+                for (String error : errors[i]) {
+                    json.writeString(error);
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeRaw('\n');
+        }
+        json.flush();
+        chunk.clear();
+        return firstLine + size;
+    }
+
+    private void map(Long formId, String schemaJson, Map<String, Object> record, Book[] books,
+                     List<String>[] errors, int i) {
+        try {
+            record.remove("_schemaJson");
+            Book book = formFieldMapper.mapToBook(record, formId, schemaJson);
+            List<String> missing = formFieldMapper.getValidationErrors(book);
+            if (missing.isEmpty()) {
+                books[i] = book;
+            } else {
+                errors[i] = missing;
+            }
+        } catch (RuntimeException e) {
+            errors[i] = List.of(String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * One multi-row batch insert per chunk, in its own transaction; assigns generated ids back to the books
+     */
+    private void insert(Book[] books) {
+        List<Book> valid = new ArrayList<>(books.length);
+        for (Book book : books) {
+            if (book != null) {
+                valid.add(book);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Book book = valid.get(i);
+                        ps.setString(1, book.getTitle());
+                        ps.setString(2, book.getAuthor());
+                        ps.setString(3, book.getIsbn());
+                        setNullable(ps, 4, book.getPrice(), Types.DOUBLE);
+                        setNullable(ps, 5, book.getStock(), Types.INTEGER);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return valid.size();
+                    }
+                },
+                keyHolder));
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < valid.size() && i < keys.size(); i++) {
+            Object key = keys.get(i).values().iterator().next();
+            valid.get(i).setId(((Number) key).longValue());
+        }
+        // The chunk has committed, so listeners get these at once
+        for (Book book : valid) {
+            if (book.getId() != null) {
+                eventPublisher.publishEvent(BookChangedEvent.saved(book));
+            }
+        }
+    }
+
+    private static void setNullable(PreparedStatement ps, int index, Object value, int sqlType) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, sqlType);
+        } else {
+            ps.setObject(index, value, sqlType);
+        }
+    }
+
+    private static void writeError(JsonGenerator json, long line, String message) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("line", line);
+        json.writeArrayFieldStart("errors");
+        json.writeString(message);
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+        json.flush();
+    }
+
+    /**
+     * Last line of a failed import: lines from {@code from} on were not saved
+     */
+    private static void writeFailure(JsonGenerator json, long from, long to) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("error", "Could not save lines " + from + " to " + to
+                + "; the import stopped there and later lines were not read");
+        json.writeNumberField("line", from);
+        json.writeEndObject();
+        json.writeRaw('\n');
+        json.flush();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String>[] newErrorArray(int size) {
+        return (List<String>[]) new List[size];
+    }
+}
@@ -1,51 +1,166 @@
 package com.oss2.bookservice.service;
 
+import com.oss2.bookservice.event.BookChangedEvent;
 import com.oss2.bookservice.model.Book;
 import com.oss2.bookservice.repository.BookRepository;
+import com.oss2.bookservice.search.BookSuggestions;
+import com.oss2.common.cache.VersionedEntityCache;
+import com.oss2.common.form.schema.CacheStats;
+import com.oss2.common.page.KeysetPage;
+import com.oss2.common.page.KeysetQuery;
+import com.oss2.common.search.Suggestion;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BookService {
 
+    // Most ids per multi-get: keeps the IN list and the response bounded
+    public static final int MAX_BATCH_SIZE = 100;
+
+    // Projected, keyset-paged reads for the list endpoint
+    private static final KeysetQuery<Book> PAGES = new KeysetQuery<>(Book.class,
+            List.of("id", "title", "author", "isbn", "price", "stock"), Set.of("title", "author", "price", "stock"));
+
     private final BookRepository bookRepository;
+    private final BookSuggestions suggestions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    // Books by id for getBookById and getBooksByIds; writes read the database directly
+    private final VersionedEntityCache<Long, Book> cache;
 
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository, BookSuggestions suggestions,
+                       ApplicationEventPublisher eventPublisher, EntityManager entityManager,
+                       @Value("${oss2.books.cache.max-size:10000}") int cacheSize,
+                       @Value("${oss2.books.cache.ttl:10m}") Duration cacheTtl) {
         this.bookRepository = bookRepository;
+        this.suggestions = suggestions;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.cache = new VersionedEntityCache<>(cacheSize, cacheTtl, BookService::copy);
     }
 
     public List<Book> getAllBooks() {
         return bookRepository.findAll();
     }
 
+    /**
+     * One keyset page of books in (sort, id) order with only the given fields
+     *
+     * @throws IllegalArgumentException for an unknown field or sort, or an invalid cursor
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage pageBooks(String sort, List<String> fields, int limit, String cursor) {
+        return PAGES.page(entityManager, null, sort, fields, limit, cursor);
+    }
+
     public Book getBookById(Long id) {
-        return bookRepository.findById(id).orElseThrow(() -> new RuntimeException("Book not found"));
+        Book book = cache.get(id, key -> bookRepository.findById(key).orElse(null));
+        if (book == null) {
+            throw new RuntimeException("Book not found");
+        }
+        return book;
     }
 
+    public CacheStats cacheStats() {
+        return cache.stats();
+    }
+
+    // Every write publishes the event; the cached copy goes once the write has committed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        cache.invalidate(event.bookId());
+    }
+
+    /**
+     * Many books, served from the cache where possible and the rest with one {@code WHERE id IN (...)} query;
+     * unknown ids are left out, the rest come in the order given
+     */
+    public List<Book> getBooksByIds(Collection<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " ids per request");
+        }
+        if (distinct.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> found = cache.getAll(distinct, missing -> bookRepository.findAllById(missing).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity())));
+        return distinct.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Book titles with a word starting with the prefix, most viewed and sold first
+     */
+    public List<Suggestion> suggestBooks(String prefix, int limit) {
+        return suggestions.suggest(prefix, limit);
+    }
+
+    /**
+     * Count a book page view towards its suggestion ranking
+     */
+    public void recordView(Long id) {
+        suggestions.recordView(id);
+    }
+
+    @Transactional
     public Book createBook(Book book) {
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.saved(saved));
+        return saved;
     }
 
+    @Transactional
     public Book updateBook(Long id, Book bookDetails) {
-        Book book = getBookById(id);
+        Book book = findForWrite(id);
         book.setTitle(bookDetails.getTitle());
         book.setAuthor(bookDetails.getAuthor());
         book.setPrice(bookDetails.getPrice());
         book.setStock(bookDetails.getStock());
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.saved(saved));
+        return saved;
     }
 
+    @Transactional
     public void deleteBook(Long id) {
         bookRepository.deleteById(id);
+        eventPublisher.publishEvent(BookChangedEvent.deleted(id));
     }
 
+    @Transactional
     public void reduceStock(Long id, Integer quantity) {
-        Book book = getBookById(id);
+        Book book = findForWrite(id);
         if (book.getStock() < quantity) {
             throw new RuntimeException("Insufficient stock for book: " + book.getTitle());
         }
         book.setStock(book.getStock() - quantity);
-        bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.saved(saved));
+        suggestions.recordSale(id, quantity);
+    }
+
+    // Writes must start from the current row, never from a cached copy
+    private Book findForWrite(Long id) {
+        return bookRepository.findById(id).orElseThrow(() -> new RuntimeException("Book not found"));
+    }
+
+    private static Book copy(Book book) {
+        return new Book(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(), book.getPrice(), book.getStock());
     }
 }
@@ -2,10 +2,13 @@ package com.oss2.bookservice.service;
 
 import com.oss2.bookservice.model.Book;
 
-import com.oss2.common.form.util.FormMappingUtils;
+import com.oss2.common.form.binder.FormBinder;
+import com.oss2.common.form.binder.FormBinderRegistry;
+import com.oss2.common.form.mapping.ResolvedFields;
+import com.oss2.common.form.metrics.FormMappingMetrics;
+import com.oss2.common.form.schema.CompiledSchemaCache;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -15,6 +18,18 @@ import java.util.Map;
 @Component
 public class FormFieldMapper {
 
+    private final CompiledSchemaCache schemaCache;
+    private final FormMappingMetrics mappingMetrics;
+    private final FormBinder<Book> bookBinder;
+
+    public FormFieldMapper(CompiledSchemaCache schemaCache, FormBinderRegistry binderRegistry,
+                           FormMappingMetrics mappingMetrics) {
+        this.schemaCache = schemaCache;
+        this.mappingMetrics = mappingMetrics;
+        // Field names, defaults and types come from the @FormField annotations on Book
+        this.bookBinder = binderRegistry.binderFor(Book.class);
+    }
+
     /**
      * Maps form submission data to a Book entity
      * Supports multiple field name variations for flexibility
@@ -29,34 +44,30 @@ public class FormFieldMapper {
      * Maps form submission data to a Book entity using schema definition
      */
     public Book mapToBook(Map<String, Object> formData, String schemaJson) {
-        // Log received keys for debugging
-        System.out.println("DEBUG: FormFieldMapper received keys: " + formData.keySet());
-
-        // Build label-to-ID mapping from schema if provided
-        Map<String, String> labelToIdMap = FormMappingUtils.buildLabelToIdMap(schemaJson);
-
-        Book book = new Book();
-
-        // Map with flexible field names and schema support
-        String title = FormMappingUtils.getFieldValue(formData, labelToIdMap, "title", "Title", "Book Title", "Name",
-                "Book Name");
-        book.setTitle(title != null && !title.isEmpty() ? title : "Draft Book (from Form)");
-
-        String author = FormMappingUtils.getFieldValue(formData, labelToIdMap, "author", "Author", "Author Name",
-                "Writer");
-        book.setAuthor(author != null && !author.isEmpty() ? author : "Unknown Author");
+        return mapToBook(formData, null, schemaJson);
+    }
 
-        String isbn = FormMappingUtils.getFieldValue(formData, labelToIdMap, "isbn", "ISBN", "ISBN Number",
-                "ISBN Code");
-        book.setIsbn(isbn != null && !isbn.isEmpty() ? isbn : "N/A");
+    /**
+     * Maps form submission data to a Book entity using the cached, compiled schema of the given form
+     */
+    public Book mapToBook(Map<String, Object> formData, Long formId, String schemaJson) {
+        return mapToBook(formData, formId, null, schemaJson);
+    }
 
-        Double price = FormMappingUtils.getDoubleValue(formData, labelToIdMap, "price", "Price", "Cost", "Amount");
-        book.setPrice(price != null ? price : 0.0);
+    /**
+     * Maps form submission data to a Book entity; with the schema's immutable version known, the
+     * compiled schema is looked up by version instead of by the schema text
+     */
+    public Book mapToBook(Map<String, Object> formData, Long formId, String schemaVersion, String schemaJson) {
+        long start = System.nanoTime();
 
-        Integer stock = FormMappingUtils.getIntegerValue(formData, labelToIdMap, "stock", "Stock", "Quantity",
-                "Available", "Inventory");
-        book.setStock(stock != null ? stock : 0);
+        // Binder and resolution plan are compiled once; binding is plain setter calls
+        ResolvedFields fields = schemaCache.get(formId, schemaVersion, schemaJson)
+                .planFor(bookBinder.getFieldSet()).resolve(formData);
+        Book book = bookBinder.bind(fields);
 
+        // Tier counts and latency per form; no console I/O on this path
+        mappingMetrics.record(formId, fields, System.nanoTime() - start);
         return book;
     }
 
@@ -0,0 +1,144 @@
+package com.oss2.common.batch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Merges concurrent single-key lookups into batch lookups.
+ * <p>
+ * The first caller to arrive opens a batch and waits up to {@code window} for others; every key
+ * requested in the meantime joins it (the same key only once). The batch is then loaded with one
+ * call to the batch loader, on the opening caller's thread, and each caller gets its own value.
+ * A batch that reaches {@code maxBatchSize} keys is loaded at once without waiting out the window.
+ * <p>
+ * There is no background thread: the load runs with the opening caller's thread-local state
+ * (e.g. the security context a Feign interceptor forwards), so only share a batcher between
+ * callers for lookups whose answer does not depend on who asks.
+ *
+ * @param <K> key, e.g. an entity id
+ * @param <V> value; keys the loader does not return resolve to {@code null}
+ */
+public class RequestBatcher<K, V> {
+
+    private final Function<List<K>, Map<K, V>> loader;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Object lock = new Object();
+
+    // Batch still accepting keys; guarded by lock
+    private Batch<K, V> open;
+
+    /**
+     * @param loader       loads up to {@code maxBatchSize} keys in one call; keys it leaves out are not found
+     * @param window       how long the first caller waits for others; zero merges only callers already waiting
+     * @param maxBatchSize most keys per loader call (e.g. the server's limit on ids per request)
+     */
+    public RequestBatcher(Function<List<K>, Map<K, V>> loader, Duration window, int maxBatchSize) {
+        this.loader = loader;
+        this.windowNanos = Math.max(0, window.toNanos());
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    /**
+     * Look up one key, sharing a batch with concurrent callers
+     *
+     * @return the value, or null if the loader did not return the key
+     * @throws RuntimeException whatever the loader threw for the batch
+     */
+    public V get(K key) {
+        Batch<K, V> batch;
+        CompletableFuture<V> result;
+        boolean leader = false;
+        synchronized (lock) {
+            if (open == null) {
+                open = new Batch<>();
+                leader = true;
+            }
+            batch = open;
+            result = batch.waiting.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.waiting.size() >= maxBatchSize) {
+                // Full: close it and wake the leader
+                open = null;
+                lock.notifyAll();
+            }
+        }
+        if (leader) {
+            awaitWindow(batch);
+            load(batch);
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Look up many keys directly, in as few loader calls as {@code maxBatchSize} allows
+     *
+     * @return values by key, for the keys that were found, in the order given
+     */
+    public Map<K, V> getAll(Collection<K> keys) {
+        List<K> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        Map<K, V> found = new HashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += maxBatchSize) {
+            List<K> chunk = distinct.subList(from, Math.min(distinct.size(), from + maxBatchSize));
+            found.putAll(loader.apply(chunk));
+        }
+        Map<K, V> ordered = new LinkedHashMap<>(found.size() * 2);
+        for (K key : distinct) {
+            V value = found.get(key);
+            if (value != null) {
+                ordered.put(key, value);
+            }
+        }
+        return ordered;
+    }
+
+    private void awaitWindow(Batch<K, V> batch) {
+        long deadline = System.nanoTime() + windowNanos;
+        boolean interrupted = false;
+        synchronized (lock) {
+            long remaining;
+            while (open == batch && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException e) {
+                    // Load what we have now rather than leave the other callers waiting
+                    interrupted = true;
+                    break;
+                }
+            }
+            if (open == batch) {
+                open = null;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void load(Batch<K, V> batch) {
+        // Closed: no other thread touches batch.waiting any more
+        try {
+            Map<K, V> loaded = loader.apply(new ArrayList<>(batch.waiting.keySet()));
+            batch.waiting.forEach((key, future) -> future.complete(loaded != null ? loaded.get(key) : null));
+        } catch (RuntimeException | Error e) {
+            batch.waiting.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private static final class Batch<K, V> {
+        private final Map<K, CompletableFuture<V>> waiting = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,228 @@
+package com.oss2.common.cache;
+
+import com.oss2.common.form.schema.CacheStats;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded read-through cache of entities by id, with a TTL, for read-mostly lookups.
+ * <p>
+ * Writers call {@link #invalidate} once their change has committed. Every invalidation takes a
+ * new stamp from a logical clock, and a load only stores its result if nothing was invalidated for
+ * that key since the load began. So a read that fetched the old row while a write was committing
+ * cannot put it back after the invalidation. The stamp is kept as a tombstone only while a load
+ * that began before it is still running, so tombstones never take the place of live entries; at
+ * most {@code maxSize} live entries are kept.
+ * <p>
+ * Entities are mutable, so the cache keeps its own copy and hands out copies.
+ */
+public class VersionedEntityCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final UnaryOperator<V> copier;
+    private final Map<K, Entry<V>> entries;
+
+    // All guarded by entries
+    // Stamps of invalidated keys, in stamp order (re-invalidating a key moves it to the end)
+    private final Map<K, Long> tombstones = new LinkedHashMap<>();
+    // Start stamps of the loads under way, with how many began at each
+    private final NavigableMap<Long, Integer> loadsByStart = new TreeMap<>();
+    private long clock;
+    // Loads that began before this stamp are not stored (set by clear)
+    private long cleared;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param copier makes an independent copy of a value
+     */
+    public VersionedEntityCache(int maxSize, Duration ttl, UnaryOperator<V> copier) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.copier = copier;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= VersionedEntityCache.this.maxSize) {
+                    return false;
+                }
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * A copy of the cached value, or of the one the loader returns; null (not cached) if the loader returns null
+     */
+    public V get(K key, Function<K, V> loader) {
+        long started;
+        V cached;
+        synchronized (entries) {
+            cached = fresh(key);
+            if (cached != null) {
+                hits++;
+                started = 0;
+            } else {
+                misses++;
+                started = loadStarted();
+            }
+        }
+        if (cached != null) {
+            // The stored copy is never handed out, so copying it outside the lock is safe
+            return copier.apply(cached);
+        }
+        // Load outside the lock; concurrent misses on one key each load
+        V loaded;
+        try {
+            loaded = loader.apply(key);
+            if (loaded != null) {
+                V stored = copier.apply(loaded);
+                synchronized (entries) {
+                    store(key, stored, started);
+                }
+            }
+        } finally {
+            loadFinished(started);
+        }
+        return loaded;
+    }
+
+    /**
+     * Copies of the cached values of the keys, with all the missing ones fetched by one loader call
+     * and stored like {@link #get} stores them. Keys neither cached nor returned by the loader are left out.
+     *
+     * @param loader fetches the values of the given keys, e.g. with one {@code WHERE id IN (...)} query
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> loader) {
+        Map<K, V> found = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        long started = 0;
+        synchronized (entries) {
+            for (K key : keys) {
+                V cached = fresh(key);
+                if (cached != null) {
+                    hits++;
+                    found.put(key, cached);
+                } else {
+                    misses++;
+                    missing.add(key);
+                }
+            }
+            if (!missing.isEmpty()) {
+                started = loadStarted();
+            }
+        }
+        found.replaceAll((key, cached) -> copier.apply(cached));
+        if (missing.isEmpty()) {
+            return found;
+        }
+        try {
+            Map<K, V> loaded = loader.apply(missing);
+            Map<K, V> stored = new HashMap<>();
+            loaded.forEach((key, value) -> {
+                if (value != null) {
+                    found.put(key, value);
+                    stored.put(key, copier.apply(value));
+                }
+            });
+            synchronized (entries) {
+                for (Map.Entry<K, V> entry : stored.entrySet()) {
+                    store(entry.getKey(), entry.getValue(), started);
+                }
+            }
+        } finally {
+            loadFinished(started);
+        }
+        return found;
+    }
+
+    /**
+     * Drop the key and make loads already under way for it discard their result; call after the change commits
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+            long stamp = ++clock;
+            if (!loadsByStart.isEmpty()) {
+                tombstones.remove(key);
+                tombstones.put(key, stamp);
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            // Loads under way began before this stamp, so none of them is stored
+            cleared = ++clock;
+            entries.clear();
+            tombstones.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(hits, misses, evictions, entries.size());
+        }
+    }
+
+    // Under the lock
+    private V fresh(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && System.nanoTime() - entry.loadedAt() < ttlNanos ? entry.value() : null;
+    }
+
+    // Under the lock
+    private long loadStarted() {
+        long started = clock;
+        loadsByStart.merge(started, 1, Integer::sum);
+        return started;
+    }
+
+    // Under the lock: stored unless the key was invalidated, or stored by a later load, since this load began
+    private void store(K key, V value, long started) {
+        Entry<V> current = entries.get(key);
+        Long invalidated = tombstones.get(key);
+        boolean changedSince = cleared > started
+                || (invalidated != null && invalidated > started)
+                || (current != null && current.stamp() > started);
+        if (!changedSince) {
+            entries.put(key, new Entry<>(value, ++clock, System.nanoTime()));
+        }
+    }
+
+    private void loadFinished(long started) {
+        synchronized (entries) {
+            loadsByStart.computeIfPresent(started, (stamp, count) -> count > 1 ? count - 1 : null);
+            // Only loads that began before a tombstone's stamp consult it
+            if (loadsByStart.isEmpty()) {
+                tombstones.clear();
+                return;
+            }
+            long oldest = loadsByStart.firstKey();
+            Iterator<Long> stamps = tombstones.values().iterator();
+            while (stamps.hasNext() && stamps.next() <= oldest) {
+                stamps.remove();
+            }
+        }
+    }
+
+    private record Entry<V>(V value, long stamp, long loadedAt) {
+    }
+}
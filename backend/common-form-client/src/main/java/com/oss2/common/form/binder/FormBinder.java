@@ -0,0 +1,225 @@
+package com.oss2.common.form.binder;
+
+import com.oss2.common.form.mapping.EntityFieldSet;
+import com.oss2.common.form.mapping.ResolvedFields;
+import com.oss2.common.form.schema.CompiledSchema;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Binds form data to instances of one entity type.
+ * <p>
+ * Built once per type from its {@link FormField} annotations. Reflection is only used while
+ * building: the constructor and setters are turned into {@code Supplier}/{@code BiConsumer}
+ * lambdas through {@link LambdaMetafactory}, so binding itself is plain interface calls that
+ * the JIT can inline. If a lambda cannot be spun (e.g. the entity lives in another class
+ * loader's module), the direct method handle is used instead.
+ */
+public final class FormBinder<T> {
+
+    private final Class<T> type;
+    private final EntityFieldSet fieldSet;
+    private final Supplier<T> factory;
+    private final Binding[] bindings;
+
+    private FormBinder(Class<T> type, EntityFieldSet fieldSet, Supplier<T> factory, Binding[] bindings) {
+        this.type = type;
+        this.fieldSet = fieldSet;
+        this.factory = factory;
+        this.bindings = bindings;
+    }
+
+    public static <T> FormBinder<T> of(Class<T> type) {
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access " + type.getName() + " for form binding", e);
+        }
+
+        EntityFieldSet.Builder fields = EntityFieldSet.builder(type.getSimpleName());
+        List<Binding> bindings = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                FormField annotation = field.getAnnotation(FormField.class);
+                if (annotation == null || Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                String[] aliases = annotation.aliases().length > 0 ? annotation.aliases() : new String[]{field.getName()};
+                fields.field(field.getName(), aliases);
+                bindings.add(binding(lookup, type, field, annotation));
+            }
+        }
+        if (bindings.isEmpty()) {
+            throw new IllegalArgumentException(type.getName() + " has no @FormField fields");
+        }
+        return new FormBinder<>(type, fields.build(), factory(lookup, type), bindings.toArray(new Binding[0]));
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public EntityFieldSet getFieldSet() {
+        return fieldSet;
+    }
+
+    /**
+     * Create a new entity from form data using the compiled schema for label lookups
+     */
+    public T bind(Map<String, Object> formData, CompiledSchema schema) {
+        return bind(schema.planFor(fieldSet).resolve(formData));
+    }
+
+    /**
+     * Create a new entity from already resolved field values
+     */
+    public T bind(ResolvedFields fields) {
+        T instance = factory.get();
+        for (int i = 0; i < bindings.length; i++) {
+            Binding binding = bindings[i];
+            Object value = binding.convert(fields.getString(i));
+            if (value != null) {
+                binding.setter.accept(instance, value);
+            }
+        }
+        return instance;
+    }
+
+    private static Binding binding(MethodHandles.Lookup lookup, Class<?> type, Field field, FormField annotation) {
+        Class<?> fieldType = field.getType();
+        Function<String, Object> converter = ValueConverters.forType(fieldType);
+        Object defaultValue = null;
+        if (!FormField.NO_DEFAULT.equals(annotation.defaultValue())) {
+            defaultValue = converter.apply(annotation.defaultValue());
+            if (defaultValue == null) {
+                throw new IllegalArgumentException("Default '" + annotation.defaultValue() + "' of "
+                        + type.getSimpleName() + "." + field.getName() + " is not a valid " + fieldType.getSimpleName());
+            }
+        }
+        return new Binding(converter, defaultValue, setter(lookup, type, field));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(MethodHandles.Lookup lookup, Class<?> type, Field field) {
+        String name = field.getName();
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        MethodHandle handle;
+        try {
+            handle = lookup.findVirtual(type, setterName, MethodType.methodType(void.class, field.getType()));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            handle = fieldSetter(type, field);
+            return direct(handle.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, type, ValueConverters.boxed(field.getType())));
+            return (BiConsumer<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            return direct(handle.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+        }
+    }
+
+    /**
+     * Writes the field itself. The lookup is made in the declaring class, since a private field
+     * inherited from a superclass in another package is not accessible from the entity type;
+     * plain reflection is the last resort.
+     */
+    private static MethodHandle fieldSetter(Class<?> type, Field field) {
+        try {
+            return MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup()).unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+            if (field.trySetAccessible()) {
+                try {
+                    return MethodHandles.lookup().unreflectSetter(field);
+                } catch (IllegalAccessException ignored) {
+                    // Reported below
+                }
+            }
+            throw new IllegalStateException("No setter for " + type.getSimpleName() + "." + field.getName(), e);
+        }
+    }
+
+    private static BiConsumer<Object, Object> direct(MethodHandle handle) {
+        return (target, value) -> {
+            try {
+                handle.invokeExact(target, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> factory(MethodHandles.Lookup lookup, Class<T> type) {
+        MethodHandle constructor;
+        try {
+            constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(type.getName() + " needs a no-args constructor for form binding", e);
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    constructor,
+                    MethodType.methodType(type));
+            return (Supplier<T>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            MethodHandle generic = constructor.asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return (T) generic.invokeExact();
+                } catch (RuntimeException | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            };
+        }
+    }
+
+    private static final class Binding {
+        private final Function<String, Object> converter;
+        private final Object defaultValue;
+        private final BiConsumer<Object, Object> setter;
+
+        private Binding(Function<String, Object> converter, Object defaultValue, BiConsumer<Object, Object> setter) {
+            this.converter = converter;
+            this.defaultValue = defaultValue;
+            this.setter = setter;
+        }
+
+        /**
+         * With a default: missing, empty or unparseable values take the default.
+         * Without one: the converted value as-is (null leaves the field untouched).
+         */
+        Object convert(String raw) {
+            if (defaultValue == null) {
+                return raw != null ? converter.apply(raw) : null;
+            }
+            if (raw == null || raw.isEmpty()) {
+                return defaultValue;
+            }
+            Object value = converter.apply(raw);
+            return value != null ? value : defaultValue;
+        }
+    }
+}
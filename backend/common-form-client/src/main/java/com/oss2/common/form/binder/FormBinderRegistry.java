@@ -0,0 +1,22 @@
+package com.oss2.common.form.binder;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds one {@link FormBinder} per entity type.
+ * Consumers should ask for their binders while they are being constructed so that the
+ * setters are generated at startup rather than on the first form import.
+ */
+@Component
+public class FormBinderRegistry {
+
+    private final Map<Class<?>, FormBinder<?>> binders = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> FormBinder<T> binderFor(Class<T> type) {
+        return (FormBinder<T>) binders.computeIfAbsent(type, FormBinder::of);
+    }
+}
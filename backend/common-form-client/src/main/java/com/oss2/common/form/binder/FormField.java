@@ -0,0 +1,34 @@
+package com.oss2.common.form.binder;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity field as bindable from dynamic form data.
+ * The target type is the declared type of the field (String, Double, Integer, Long,
+ * BigDecimal, Boolean and their primitives).
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface FormField {
+
+    /**
+     * Marker meaning "no default": a missing value leaves the field untouched
+     */
+    String NO_DEFAULT = "\u0000";
+
+    /**
+     * Names the value may appear under in form data or schema labels, tried in order.
+     * Defaults to the field name.
+     */
+    String[] aliases() default {};
+
+    /**
+     * Value used when the form has no (or an empty / unparseable) value, converted to the field type
+     */
+    String defaultValue() default NO_DEFAULT;
+}
@@ -0,0 +1,79 @@
+package com.oss2.common.form.binder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * String-to-field-type conversions used by generated binders.
+ * A converter returns null when the text cannot be converted.
+ */
+@Slf4j
+final class ValueConverters {
+
+    private static final Map<Class<?>, Function<String, Object>> CONVERTERS = Map.of(
+            String.class, text -> text,
+            Double.class, ValueConverters::toDouble,
+            Integer.class, text -> {
+                Double value = toDouble(text);
+                return value != null ? value.intValue() : null;
+            },
+            Long.class, text -> {
+                Double value = toDouble(text);
+                return value != null ? value.longValue() : null;
+            },
+            BigDecimal.class, text -> {
+                try {
+                    return new BigDecimal(text);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            },
+            Boolean.class, text -> {
+                if ("true".equalsIgnoreCase(text) || "yes".equalsIgnoreCase(text) || "on".equalsIgnoreCase(text)) {
+                    return Boolean.TRUE;
+                }
+                if ("false".equalsIgnoreCase(text) || "no".equalsIgnoreCase(text) || "off".equalsIgnoreCase(text)) {
+                    return Boolean.FALSE;
+                }
+                return null;
+            }
+    );
+
+    private ValueConverters() {
+    }
+
+    static Function<String, Object> forType(Class<?> type) {
+        Function<String, Object> converter = CONVERTERS.get(boxed(type));
+        if (converter == null) {
+            throw new IllegalArgumentException("Unsupported form field type: " + type.getName());
+        }
+        return converter;
+    }
+
+    static Class<?> boxed(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == double.class) return Double.class;
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == boolean.class) return Boolean.class;
+        throw new IllegalArgumentException("Unsupported form field type: " + type.getName());
+    }
+
+    private static Double toDouble(String text) {
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            // Logged per value on the mapping hot path, so DEBUG only
+            log.debug("Invalid number format for form value: {}", text);
+            return null;
+        }
+    }
+}
@@ -1,27 +1,275 @@
 package com.oss2.common.form.client;
 
+import com.oss2.common.batch.RequestBatcher;
 import com.oss2.common.form.dto.FormSchemaDTO;
+import com.oss2.common.form.dto.FormSchemaVersionDTO;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oss2.common.form.dto.FormSubmissionDTO;
-import lombok.RequiredArgsConstructor;
+import com.oss2.common.form.dto.SubmissionPageDTO;
+import feign.FeignException;
+import feign.Response;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class FormServiceClient {
     // To hide FeignClient implementation details from consumers
     private final FormServiceFeignClient formServiceFeignClient;
+    private final ObjectMapper objectMapper;
+
+    // Optional local schema cache (oss2.form.client.cache.*), off by default
+    private final boolean cacheEnabled;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final int maxSize;
+
+    // Last version seen per form; revalidated with If-None-Match, or served from here while fresh
+    private final Map<Long, CachedForm> formsById = new ConcurrentHashMap<>();
+    // One remote load per form at a time: concurrent misses wait for the same call
+    private final Map<Long, CompletableFuture<CachedForm>> loadsInFlight = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor refresher;
+    // Schema versions are immutable: cached with no expiry and never revalidated, bounded by LRU
+    private final Map<VersionKey, FormSchemaVersionDTO> versions;
+    // Multi-gets via GET /api/forms?ids=; with a batch window, cold loads of different forms made at
+    // about the same time also share one call (oss2.form.client.batch.*)
+    private final RequestBatcher<Long, FormSchemaDTO> batcher;
+    private final boolean batchSingleLoads;
+
+    public FormServiceClient(FormServiceFeignClient formServiceFeignClient, ObjectMapper objectMapper,
+                             @Value("${oss2.form.client.cache.enabled:false}") boolean cacheEnabled,
+                             @Value("${oss2.form.client.cache.ttl:30s}") Duration ttl,
+                             @Value("${oss2.form.client.cache.stale-while-revalidate:10m}") Duration staleWhileRevalidate,
+                             @Value("${oss2.form.client.cache.max-size:256}") int maxSize,
+                             @Value("${oss2.form.client.batch.window:0ms}") Duration batchWindow,
+                             @Value("${oss2.form.client.batch.max-size:100}") int batchMaxSize) {
+        this.formServiceFeignClient = formServiceFeignClient;
+        this.objectMapper = objectMapper;
+        this.cacheEnabled = cacheEnabled;
+        this.ttlNanos = ttl.toNanos();
+        this.staleNanos = ttl.plus(staleWhileRevalidate).toNanos();
+        this.maxSize = Math.max(1, maxSize);
+        // Background refreshes are best effort: at most one thread, extra requests are dropped
+        this.refresher = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(64), runnable -> {
+            Thread thread = new Thread(runnable, "form-schema-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        this.versions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<VersionKey, FormSchemaVersionDTO> eldest) {
+                return size() > FormServiceClient.this.maxSize;
+            }
+        };
+        this.batcher = new RequestBatcher<>(this::fetchAll, batchWindow, batchMaxSize);
+        this.batchSingleLoads = !batchWindow.isZero();
+    }
 
     /**
-     * Get a form schema by ID
+     * Get a form schema by ID.
+     * Sends the ETag of the last fetched version, so an unchanged schema costs a 304 with no body.
+     * With the local cache enabled, a schema younger than the TTL is returned without a call; an
+     * older one (within the stale-while-revalidate window) is returned at once and refreshed in the
+     * background. If form-service cannot be reached, the last known version is served.
      */
     public FormSchemaDTO getForm(Long formId) {
+        if (!cacheEnabled) {
+            return fetch(formId).form();
+        }
+        CachedForm cached = formsById.get(formId);
+        if (cached != null) {
+            long age = System.nanoTime() - cached.loadedAt();
+            if (age < ttlNanos) {
+                return cached.form();
+            }
+            if (age < staleNanos) {
+                refreshInBackground(formId);
+                return cached.form();
+            }
+        }
+        try {
+            return load(formId).form();
+        } catch (RuntimeException e) {
+            if (cached != null) {
+                log.warn("Serving cached schema of form {}: {}", formId, e.getMessage());
+                return cached.form();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Get many form schemas with as few calls as possible (one per 100 ids), bypassing the local cache
+     *
+     * @return the forms that exist, by id, in the order asked for
+     */
+    public Map<Long, FormSchemaDTO> getForms(Collection<Long> formIds) {
+        if (formIds.isEmpty()) {
+            return Map.of();
+        }
+        return batcher.getAll(formIds);
+    }
+
+    /**
+     * Get one immutable schema version of a form (e.g. the schemaVersion of a form or submission).
+     * A version is fetched at most once; afterwards it is served locally for as long as it stays
+     * among the most recently used.
+     */
+    public FormSchemaVersionDTO getFormVersion(Long formId, String version) {
+        VersionKey key = new VersionKey(formId, version);
+        synchronized (versions) {
+            FormSchemaVersionDTO cached = versions.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        FormSchemaVersionDTO fetched;
         try {
-            return formServiceFeignClient.getForm(formId);
+            fetched = formServiceFeignClient.getFormVersion(formId, version);
         } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch form version from form-service: " + e.getMessage());
+        }
+        if (fetched != null) {
+            synchronized (versions) {
+                versions.putIfAbsent(key, fetched);
+            }
+        }
+        return fetched;
+    }
+
+    /**
+     * Drop the locally known version of a form, so the next read goes to form-service
+     */
+    public void evictForm(Long formId) {
+        formsById.remove(formId);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private CachedForm load(Long formId) {
+        CompletableFuture<CachedForm> mine = new CompletableFuture<>();
+        CompletableFuture<CachedForm> running = loadsInFlight.putIfAbsent(formId, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            CachedForm loaded = fetch(formId);
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadsInFlight.remove(formId, mine);
+        }
+    }
+
+    private void refreshInBackground(Long formId) {
+        if (loadsInFlight.containsKey(formId)) {
+            return;
+        }
+        // Carry the caller's security context so the Feign interceptor can forward its token
+        refresher.execute(new DelegatingSecurityContextRunnable(() -> {
+            try {
+                load(formId);
+            } catch (RuntimeException e) {
+                log.debug("Background refresh of form {} failed: {}", formId, e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * One conditional call to form-service; remembers the returned version
+     */
+    private CachedForm fetch(Long formId) {
+        CachedForm known = formsById.get(formId);
+        if (known == null && batchSingleLoads) {
+            // Nothing to revalidate, so the form can join a batch; batch answers carry no ETag
+            FormSchemaDTO form = batcher.get(formId);
+            if (form == null) {
+                throw new RuntimeException("Failed to fetch form from form-service: form " + formId + " not found");
+            }
+            CachedForm loaded = new CachedForm(null, form, System.nanoTime());
+            if (cacheEnabled) {
+                remember(formId, loaded);
+            }
+            return loaded;
+        }
+        try {
+            ResponseEntity<FormSchemaDTO> response =
+                    formServiceFeignClient.getFormIfNoneMatch(formId, known != null ? known.etag() : null);
+            FormSchemaDTO form = response.getBody();
+            String etag = response.getHeaders().getETag();
+            CachedForm loaded = new CachedForm(etag, form, System.nanoTime());
+            if (form != null && (etag != null || cacheEnabled)) {
+                remember(formId, loaded);
+            } else {
+                formsById.remove(formId);
+            }
+            return loaded;
+        } catch (FeignException e) {
+            if (e.status() == HttpStatus.NOT_MODIFIED.value() && known != null) {
+                CachedForm revalidated = new CachedForm(known.etag(), known.form(), System.nanoTime());
+                remember(formId, revalidated);
+                return revalidated;
+            }
+            if (e.status() == HttpStatus.NOT_FOUND.value()) {
+                formsById.remove(formId);
+            }
             throw new RuntimeException("Failed to fetch form from form-service: " + e.getMessage());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch form from form-service: " + e.getMessage());
+        }
+    }
+
+    private Map<Long, FormSchemaDTO> fetchAll(List<Long> formIds) {
+        try {
+            return formServiceFeignClient.getForms(formIds).stream()
+                    .collect(Collectors.toMap(FormSchemaDTO::getId, Function.identity(), (first, second) -> first));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch forms from form-service: " + e.getMessage());
+        }
+    }
+
+    private void remember(Long formId, CachedForm form) {
+        formsById.put(formId, form);
+        if (formsById.size() > maxSize) {
+            // Rare with one form per context; evict the least recently loaded entry
+            formsById.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().loadedAt()))
+                    .ifPresent(eldest -> formsById.remove(eldest.getKey(), eldest.getValue()));
         }
     }
 
@@ -45,7 +293,11 @@ public class FormServiceClient {
      */
     public FormSchemaDTO createOrUpdateForm(FormSchemaDTO formSchema) {
         try {
-            return formServiceFeignClient.createOrUpdateForm(formSchema);
+            FormSchemaDTO saved = formServiceFeignClient.createOrUpdateForm(formSchema);
+            if (saved != null && saved.getId() != null) {
+                evictForm(saved.getId());
+            }
+            return saved;
         } catch (Exception e) {
             throw new RuntimeException("Failed to create/update form: " + e.getMessage());
         }
@@ -59,12 +311,20 @@ public class FormServiceClient {
             return formServiceFeignClient.updateForm(id, formSchema);
         } catch (Exception e) {
             throw new RuntimeException("Failed to update form: " + e.getMessage());
+        } finally {
+            // After the call, so a read racing the update cannot re-cache the old schema; also on
+            // failure, since a timed-out update may still have been applied
+            evictForm(id);
         }
     }
 
     /**
      * Get submissions for a specific form
+     *
+     * @deprecated loads every submission of the form into memory; use {@link #getFormSubmissionsPage}
+     * or {@link #forEachFormSubmission}
      */
+    @Deprecated
     public FormSubmissionDTO[] getFormSubmissions(Long formSchemaId) {
         try {
             return formServiceFeignClient.getFormSubmissions(formSchemaId);
@@ -72,4 +332,57 @@ public class FormServiceClient {
             throw new RuntimeException("Failed to fetch form submissions: " + e.getMessage());
         }
     }
+
+    /**
+     * Get one keyset page of a form's submissions, oldest first.
+     * Pass the previous page's nextCursor to continue; null starts from the beginning.
+     */
+    public SubmissionPageDTO getFormSubmissionsPage(Long formSchemaId, int limit, String cursor) {
+        return getFormSubmissionsPage(formSchemaId, null, null, limit, cursor);
+    }
+
+    /**
+     * Get one keyset page of the submissions of a form that belong to one entity,
+     * e.g. contextKey "bookId" and contextValue "42"
+     */
+    public SubmissionPageDTO getFormSubmissionsPage(Long formSchemaId, String contextKey, Object contextValue,
+                                                    int limit, String cursor) {
+        try {
+            return formServiceFeignClient.getFormSubmissionsPage(formSchemaId, contextKey,
+                    contextValue != null ? contextValue.toString() : null, limit, cursor);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch form submissions: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Visit every submission of a form as it arrives on the NDJSON stream, one at a time
+     *
+     * @return the number of submissions visited
+     */
+    public long forEachFormSubmission(Long formSchemaId, Consumer<FormSubmissionDTO> action) {
+        try (Response response = formServiceFeignClient.streamFormSubmissions(formSchemaId)) {
+            if (response.status() != HttpStatus.OK.value() || response.body() == null) {
+                throw new IllegalStateException("form-service answered " + response.status());
+            }
+            long count = 0;
+            try (InputStream body = response.body().asInputStream();
+                 MappingIterator<FormSubmissionDTO> submissions =
+                         objectMapper.readerFor(FormSubmissionDTO.class).readValues(body)) {
+                while (submissions.hasNextValue()) {
+                    action.accept(submissions.nextValue());
+                    count++;
+                }
+            }
+            return count;
+        } catch (IOException | RuntimeException e) {
+            throw new RuntimeException("Failed to stream form submissions: " + e.getMessage());
+        }
+    }
+
+    private record CachedForm(String etag, FormSchemaDTO form, long loadedAt) {
+    }
+
+    private record VersionKey(Long formId, String version) {
+    }
 }
@@ -2,10 +2,17 @@ package com.oss2.common.form.client;
 
 import com.oss2.common.config.FeignClientConfig;
 import com.oss2.common.form.dto.FormSchemaDTO;
+import com.oss2.common.form.dto.FormSchemaVersionDTO;
 import com.oss2.common.form.dto.FormSubmissionDTO;
+import com.oss2.common.form.dto.SubmissionPageDTO;
+import feign.Response;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 @FeignClient(name = "form-service", configuration = FeignClientConfig.class)
@@ -14,6 +21,26 @@ public interface FormServiceFeignClient {
     @GetMapping("/api/forms/{formId}")
     FormSchemaDTO getForm(@PathVariable("formId") Long formId);
 
+    /**
+     * Many forms in one call (at most 100 ids); ids that do not exist are left out
+     */
+    @GetMapping("/api/forms")
+    List<FormSchemaDTO> getForms(@RequestParam("ids") Collection<Long> ids);
+
+    /**
+     * Conditional variant of {@link #getForm}: a matching ETag is answered with 304, which Feign
+     * raises as a {@code FeignException} with status 304
+     */
+    @GetMapping("/api/forms/{formId}")
+    ResponseEntity<FormSchemaDTO> getFormIfNoneMatch(@PathVariable("formId") Long formId,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String etag);
+
+    /**
+     * One immutable schema version; the same (formId, version) always returns the same content
+     */
+    @GetMapping("/api/forms/{formId}/versions/{version}")
+    FormSchemaVersionDTO getFormVersion(@PathVariable("formId") Long formId, @PathVariable("version") String version);
+
     @PostMapping("/api/forms")
     FormSchemaDTO createOrUpdateForm(@RequestBody FormSchemaDTO formSchema);
 
@@ -23,6 +50,28 @@ public interface FormServiceFeignClient {
     @PostMapping("/api/submissions")
     FormSubmissionDTO submitFormData(@RequestBody Map<String, Object> requestBody);
 
+    /**
+     * @deprecated loads every submission of the form; use {@link #getFormSubmissionsPage} or {@link #streamFormSubmissions}
+     */
+    @Deprecated
     @GetMapping("/api/submissions/form/{formSchemaId}")
     FormSubmissionDTO[] getFormSubmissions(@PathVariable("formSchemaId") Long formSchemaId);
+
+    /**
+     * One keyset page of a form's submissions; with contextKey/contextValue (e.g. bookId=42) only
+     * the submissions of that entity, looked up through form-service's context index
+     */
+    @GetMapping("/api/submissions/form/{formSchemaId}/page")
+    SubmissionPageDTO getFormSubmissionsPage(@PathVariable("formSchemaId") Long formSchemaId,
+                                             @RequestParam(value = "contextKey", required = false) String contextKey,
+                                             @RequestParam(value = "contextValue", required = false) String contextValue,
+                                             @RequestParam("limit") int limit,
+                                             @RequestParam(value = "cursor", required = false) String cursor);
+
+    /**
+     * NDJSON stream of all submissions of a form. The raw response is returned undecoded;
+     * the caller must read and close its body.
+     */
+    @GetMapping(value = "/api/submissions/form/{formSchemaId}/stream", produces = "application/x-ndjson")
+    Response streamFormSubmissions(@PathVariable("formSchemaId") Long formSchemaId);
 }
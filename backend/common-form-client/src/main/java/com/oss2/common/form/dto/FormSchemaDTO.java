@@ -11,4 +11,6 @@ public class FormSchemaDTO {
     private String createdAt;
     private String updatedAt;
     private Boolean active;
+    // Content hash of the current immutable schema version
+    private String schemaVersion;
 }
@@ -0,0 +1,17 @@
+package com.oss2.common.form.dto;
+
+import lombok.Data;
+
+/**
+ * One immutable schema version of a form; {@code contentHash} is the form's {@code schemaVersion}
+ */
+@Data
+public class FormSchemaVersionDTO {
+    private Long id;
+    private Long formSchemaId;
+    private Integer versionNumber;
+    private String contentHash;
+    private String schemaJson;
+    private String createdBy;
+    private String createdAt;
+}
@@ -1,13 +1,38 @@
 package com.oss2.common.form.dto;
 
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Data;
 import java.util.Map;
 
 @Data
 public class FormSubmissionDTO {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
     private Long id;
     private Long formSchemaId;
     private Map<String, Object> submissionData;
     private String submittedBy;
     private String submittedAt;
+    private String schemaVersion;
+
+    /**
+     * form-service stores submission data as JSON text; accept it either as that text or as an object
+     */
+    @JsonSetter("submissionData")
+    @SuppressWarnings("unchecked")
+    public void setSubmissionData(Object submissionData) {
+        if (submissionData instanceof String text) {
+            try {
+                this.submissionData = text.isBlank() ? null : JSON.readValue(text, MAP_TYPE);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("submissionData is not a JSON object", e);
+            }
+        } else {
+            this.submissionData = (Map<String, Object>) submissionData;
+        }
+    }
 }
@@ -0,0 +1,10 @@
+package com.oss2.common.form.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class SubmissionPageDTO {
+    private List<FormSubmissionDTO> items;
+    private String nextCursor;  // null on the last page
+}
@@ -0,0 +1,93 @@
+package com.oss2.common.form.mapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The target fields of an entity and the names each one may appear under in form data.
+ * Instances are meant to be created once (as constants) and are used as identity keys
+ * for the resolution plans compiled against each schema.
+ */
+public final class EntityFieldSet {
+
+    private final String entityName;
+    private final List<String> fieldNames;
+    private final List<String[]> aliases;
+    private final Map<String, Integer> positions;
+
+    private EntityFieldSet(String entityName, List<String> fieldNames, List<String[]> aliases) {
+        this.entityName = entityName;
+        this.fieldNames = Collections.unmodifiableList(fieldNames);
+        this.aliases = aliases;
+        Map<String, Integer> byName = new HashMap<>();
+        for (int i = 0; i < fieldNames.size(); i++) {
+            byName.put(fieldNames.get(i), i);
+        }
+        this.positions = byName;
+    }
+
+    public static Builder builder(String entityName) {
+        return new Builder(entityName);
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public List<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    public int size() {
+        return fieldNames.size();
+    }
+
+    public int indexOf(String fieldName) {
+        Integer position = positions.get(fieldName);
+        if (position == null) {
+            throw new IllegalArgumentException("Unknown field '" + fieldName + "' for " + entityName);
+        }
+        return position;
+    }
+
+    String[] aliasesAt(int index) {
+        return aliases.get(index);
+    }
+
+    @Override
+    public String toString() {
+        return "EntityFieldSet[" + entityName + "]";
+    }
+
+    public static final class Builder {
+        private final String entityName;
+        private final List<String> fieldNames = new ArrayList<>();
+        private final List<String[]> aliases = new ArrayList<>();
+
+        private Builder(String entityName) {
+            this.entityName = entityName;
+        }
+
+        /**
+         * Add a target field; aliases are tried in the given order
+         */
+        public Builder field(String fieldName, String... possibleNames) {
+            if (fieldNames.contains(fieldName)) {
+                throw new IllegalArgumentException("Duplicate field '" + fieldName + "' for " + entityName);
+            }
+            if (possibleNames.length == 0) {
+                throw new IllegalArgumentException("Field '" + fieldName + "' needs at least one name");
+            }
+            fieldNames.add(fieldName);
+            aliases.add(possibleNames.clone());
+            return this;
+        }
+
+        public EntityFieldSet build() {
+            return new EntityFieldSet(entityName, new ArrayList<>(fieldNames), new ArrayList<>(aliases));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.oss2.common.form.mapping;
+
+import com.oss2.common.form.schema.SchemaLabelIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Field lookup strategy for one entity against one schema, compiled ahead of time.
+ * <p>
+ * The label and fuzzy tiers depend only on the schema, so their candidate field ids are
+ * worked out here once. At request time every tier is a handful of hash lookups; the data
+ * keys are normalized at most once per request, and only if some field reaches the
+ * case-insensitive fallback. Precedence is the same as {@code FormMappingUtils.getFieldValue}:
+ * exact &rarr; label &rarr; fuzzy &rarr; case-insensitive.
+ */
+public final class ResolutionPlan {
+
+    private static final String[] NONE = new String[0];
+
+    private final EntityFieldSet fieldSet;
+    private final String[][] exactKeys;
+    private final String[][] labelIds;
+    private final String[][] fuzzyIds;
+    private final String[][] normalizedNames;
+
+    private ResolutionPlan(EntityFieldSet fieldSet, String[][] exactKeys, String[][] labelIds,
+                           String[][] fuzzyIds, String[][] normalizedNames) {
+        this.fieldSet = fieldSet;
+        this.exactKeys = exactKeys;
+        this.labelIds = labelIds;
+        this.fuzzyIds = fuzzyIds;
+        this.normalizedNames = normalizedNames;
+    }
+
+    public static ResolutionPlan compile(EntityFieldSet fieldSet, SchemaLabelIndex labelIndex) {
+        int size = fieldSet.size();
+        String[][] exactKeys = new String[size][];
+        String[][] labelIds = new String[size][];
+        String[][] fuzzyIds = new String[size][];
+        String[][] normalizedNames = new String[size][];
+
+        for (int i = 0; i < size; i++) {
+            String[] names = fieldSet.aliasesAt(i);
+            exactKeys[i] = names;
+            normalizedNames[i] = distinct(names, ResolutionPlan::normalizeKey);
+
+            if (labelIndex.isEmpty()) {
+                labelIds[i] = NONE;
+                fuzzyIds[i] = NONE;
+                continue;
+            }
+
+            Set<String> byLabel = new LinkedHashSet<>();
+            for (String name : names) {
+                String normalizedName = name.toLowerCase().trim();
+                String id = labelIndex.idForLabel(normalizedName);
+                if (id == null) {
+                    id = labelIndex.idForLabel(normalizedName.replace(" ", ""));
+                }
+                if (id != null) {
+                    byLabel.add(id);
+                }
+            }
+            labelIds[i] = byLabel.toArray(NONE);
+
+            Set<String> byFuzzy = new LinkedHashSet<>();
+            for (Map.Entry<String, String> entry : labelIndex.asMap().entrySet()) {
+                for (String name : names) {
+                    if (entry.getKey().contains(name.toLowerCase())) {
+                        byFuzzy.add(entry.getValue());
+                        break;
+                    }
+                }
+            }
+            fuzzyIds[i] = byFuzzy.toArray(NONE);
+        }
+        return new ResolutionPlan(fieldSet, exactKeys, labelIds, fuzzyIds, normalizedNames);
+    }
+
+    public EntityFieldSet getFieldSet() {
+        return fieldSet;
+    }
+
+    /**
+     * Resolve every field of the entity against one form payload
+     */
+    public ResolvedFields resolve(Map<String, Object> data) {
+        int size = exactKeys.length;
+        String[] values = new String[size];
+        ResolutionTier[] tiers = new ResolutionTier[size];
+        Map<String, KeyRef> keyIndex = null;
+
+        for (int i = 0; i < size; i++) {
+            String key = firstPresent(data, exactKeys[i]);
+            ResolutionTier tier = ResolutionTier.EXACT;
+            if (key == null) {
+                key = firstPresent(data, labelIds[i]);
+                tier = ResolutionTier.LABEL;
+            }
+            if (key == null) {
+                key = firstPresent(data, fuzzyIds[i]);
+                tier = ResolutionTier.FUZZY;
+            }
+            if (key == null) {
+                if (keyIndex == null) {
+                    keyIndex = indexKeys(data);
+                }
+                key = earliestMatch(keyIndex, normalizedNames[i]);
+                tier = key != null ? ResolutionTier.FALLBACK : ResolutionTier.MISS;
+            }
+            tiers[i] = tier;
+            if (key != null) {
+                Object value = data.get(key);
+                values[i] = value != null ? value.toString().trim() : null;
+            }
+        }
+        return new ResolvedFields(fieldSet, values, tiers);
+    }
+
+    private static String firstPresent(Map<String, Object> data, String[] keys) {
+        for (String key : keys) {
+            if (data.containsKey(key)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Single pass over the payload: normalized key to the first original key carrying it
+     */
+    private static Map<String, KeyRef> indexKeys(Map<String, Object> data) {
+        Map<String, KeyRef> index = new HashMap<>(Math.max(16, data.size() * 2));
+        int ordinal = 0;
+        for (String key : data.keySet()) {
+            index.putIfAbsent(normalizeKey(key), new KeyRef(key, ordinal++));
+        }
+        return index;
+    }
+
+    /**
+     * The fallback tier scans payload keys in order, so the key seen first wins
+     */
+    private static String earliestMatch(Map<String, KeyRef> keyIndex, String[] normalizedNames) {
+        KeyRef best = null;
+        for (String name : normalizedNames) {
+            KeyRef ref = keyIndex.get(name);
+            if (ref != null && (best == null || ref.ordinal() < best.ordinal())) {
+                best = ref;
+            }
+        }
+        return best != null ? best.key() : null;
+    }
+
+    static String normalizeKey(String key) {
+        // replace/toLowerCase return the same instance when nothing changes
+        return key.replace(" ", "").toLowerCase();
+    }
+
+    private static String[] distinct(String[] names, UnaryOperator<String> normalizer) {
+        List<String> result = new ArrayList<>(names.length);
+        for (String name : names) {
+            String normalized = normalizer.apply(name);
+            if (!result.contains(normalized)) {
+                result.add(normalized);
+            }
+        }
+        return result.toArray(NONE);
+    }
+
+    private record KeyRef(String key, int ordinal) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.oss2.common.form.mapping;
+
+/**
+ * Which lookup strategy produced a field value, in order of precedence
+ */
+public enum ResolutionTier {
+    /** A data key equals one of the field's names */
+    EXACT,
+    /** A schema label matching one of the names points at a data key */
+    LABEL,
+    /** A schema label containing one of the names points at a data key */
+    FUZZY,
+    /** A data key matches a name ignoring case and spaces */
+    FALLBACK,
+    /** Nothing matched */
+    MISS
+}
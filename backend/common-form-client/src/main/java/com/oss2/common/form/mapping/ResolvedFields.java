@@ -0,0 +1,73 @@
+package com.oss2.common.form.mapping;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+
+/**
+ * Field values resolved from one form payload, with the tier that served each field
+ */
+@Slf4j
+public final class ResolvedFields {
+
+    private final EntityFieldSet fieldSet;
+    private final String[] values;
+    private final ResolutionTier[] tiers;
+
+    ResolvedFields(EntityFieldSet fieldSet, String[] values, ResolutionTier[] tiers) {
+        this.fieldSet = fieldSet;
+        this.values = values;
+        this.tiers = tiers;
+    }
+
+    public EntityFieldSet getFieldSet() {
+        return fieldSet;
+    }
+
+    public String getString(String fieldName) {
+        return values[fieldSet.indexOf(fieldName)];
+    }
+
+    public String getString(int index) {
+        return values[index];
+    }
+
+    public Double getDouble(String fieldName) {
+        return parseDouble(fieldName, getString(fieldName));
+    }
+
+    public Integer getInteger(String fieldName) {
+        Double value = parseDouble(fieldName, getString(fieldName));
+        return value != null ? value.intValue() : null;
+    }
+
+    public ResolutionTier getTier(String fieldName) {
+        return tiers[fieldSet.indexOf(fieldName)];
+    }
+
+    public ResolutionTier getTier(int index) {
+        return tiers[index];
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    private static Double parseDouble(String fieldName, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            // Logged per value on the mapping hot path, so DEBUG only
+            log.debug("Invalid number format for field {}: {}", fieldName, value);
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return fieldSet.getEntityName() + Arrays.toString(values);
+    }
+}
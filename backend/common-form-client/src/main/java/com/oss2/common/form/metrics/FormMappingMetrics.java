@@ -0,0 +1,139 @@
+package com.oss2.common.form.metrics;
+
+import com.oss2.common.form.mapping.EntityFieldSet;
+import com.oss2.common.form.mapping.ResolutionTier;
+import com.oss2.common.form.mapping.ResolvedFields;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentation for the form-to-entity mapping path.
+ * <p>
+ * Counts which resolution tier served each entity field of each form and keeps a latency
+ * histogram per form, all with {@link LongAdder}s so recording never blocks. Mappings that
+ * needed the fuzzy tier are logged at DEBUG for a sample of requests only; a miss is usually
+ * just an optional field left empty, and the fallback tier is a few hash lookups.
+ */
+@Slf4j
+@Component
+public class FormMappingMetrics {
+
+    private static final ResolutionTier[] TIERS = ResolutionTier.values();
+
+    private final int maxTrackedForms;
+    private final int debugSampleRate;
+    private final Map<CounterKey, LongAdder[]> tierCounts = new ConcurrentHashMap<>();
+    private final Map<Long, LatencyHistogram> formLatencies = new ConcurrentHashMap<>();
+    private final LatencyHistogram untrackedFormLatency = new LatencyHistogram();
+
+    public FormMappingMetrics(@Value("${oss2.form.metrics.max-tracked-forms:500}") int maxTrackedForms,
+                              @Value("${oss2.form.metrics.debug-sample-rate:100}") int debugSampleRate) {
+        this.maxTrackedForms = maxTrackedForms;
+        this.debugSampleRate = Math.max(1, debugSampleRate);
+    }
+
+    /**
+     * Record one entity mapping: the tier of every field and how long the mapping took
+     */
+    public void record(Long formId, ResolvedFields fields, long elapsedNanos) {
+        LatencyHistogram latency = latencyFor(formId);
+        latency.record(elapsedNanos);
+        // Forms past the tracking bound share the "other" counters, as they share a histogram
+        Long trackedFormId = latency == untrackedFormLatency ? null : formId;
+        LongAdder[] counts = tierCounts.computeIfAbsent(new CounterKey(trackedFormId, fields.getFieldSet()),
+                key -> newCounters(key.fieldSet()));
+        boolean slowPath = false;
+        for (int i = 0; i < fields.size(); i++) {
+            ResolutionTier tier = fields.getTier(i);
+            counts[i * TIERS.length + tier.ordinal()].increment();
+            slowPath |= tier == ResolutionTier.FUZZY;
+        }
+
+        if (slowPath && log.isDebugEnabled() && ThreadLocalRandom.current().nextInt(debugSampleRate) == 0) {
+            log.debug("Form {} mapped {} through the fuzzy tier: {}", formId,
+                    fields.getFieldSet().getEntityName(), describeTiers(fields));
+        }
+    }
+
+    /**
+     * Tier counts per entity, form and field, plus latency per form
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Map<String, Object>> tiers = new LinkedHashMap<>();
+        tierCounts.forEach((key, counts) -> {
+            EntityFieldSet fieldSet = key.fieldSet();
+            Map<String, Object> perField = new LinkedHashMap<>();
+            List<String> names = fieldSet.getFieldNames();
+            for (int i = 0; i < names.size(); i++) {
+                Map<String, Long> perTier = new LinkedHashMap<>();
+                for (ResolutionTier tier : TIERS) {
+                    perTier.put(tier.name().toLowerCase(), counts[i * TIERS.length + tier.ordinal()].sum());
+                }
+                perField.put(names.get(i), perTier);
+            }
+            tiers.computeIfAbsent(fieldSet.getEntityName(), name -> new TreeMap<>())
+                    .put(key.formId() != null ? String.valueOf(key.formId()) : "other", perField);
+        });
+
+        Map<String, Object> latencies = new LinkedHashMap<>();
+        formLatencies.forEach((formId, histogram) -> latencies.put(String.valueOf(formId), histogram.snapshot()));
+        if (untrackedFormLatency.count() > 0) {
+            latencies.put("other", untrackedFormLatency.snapshot());
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("resolutionTiers", tiers);
+        snapshot.put("formLatency", latencies);
+        return snapshot;
+    }
+
+    private LatencyHistogram latencyFor(Long formId) {
+        if (formId == null) {
+            return untrackedFormLatency;
+        }
+        LatencyHistogram histogram = formLatencies.get(formId);
+        if (histogram == null) {
+            // Bound the number of per-form histograms; the long tail shares one
+            if (formLatencies.size() >= maxTrackedForms) {
+                return untrackedFormLatency;
+            }
+            histogram = formLatencies.computeIfAbsent(formId, id -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    private static LongAdder[] newCounters(EntityFieldSet fieldSet) {
+        LongAdder[] counters = new LongAdder[fieldSet.size() * TIERS.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    private static String describeTiers(ResolvedFields fields) {
+        StringBuilder description = new StringBuilder();
+        List<String> names = fields.getFieldSet().getFieldNames();
+        for (int i = 0; i < fields.size(); i++) {
+            if (description.length() > 0) {
+                description.append(", ");
+            }
+            description.append(names.get(i)).append('=').append(fields.getTier(i).name().toLowerCase());
+        }
+        return description.toString();
+    }
+
+    /**
+     * Counters of one entity's fields on one form; a null form id stands for all untracked forms
+     */
+    private record CounterKey(Long formId, EntityFieldSet fieldSet) {
+    }
+}
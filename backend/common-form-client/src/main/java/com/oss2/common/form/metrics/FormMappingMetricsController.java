@@ -0,0 +1,37 @@
+package com.oss2.common.form.metrics;
+
+import com.oss2.common.form.schema.CompiledSchemaCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registered only by services that map forms to entities and set {@code oss2.form.metrics.endpoint.enabled}
+ */
+@RestController
+@ConditionalOnProperty("oss2.form.metrics.endpoint.enabled")
+@RequestMapping("/form-mapping")
+@RequiredArgsConstructor
+public class FormMappingMetricsController {
+
+    private final FormMappingMetrics formMappingMetrics;
+    private final CompiledSchemaCache compiledSchemaCache;
+
+    /**
+     * Resolution tier counts, per-form mapping latency and schema cache stats
+     */
+    @GetMapping("/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>(formMappingMetrics.snapshot());
+        metrics.put("schemaCache", compiledSchemaCache.stats());
+        return ResponseEntity.ok(metrics);
+    }
+}
@@ -0,0 +1,16 @@
+package com.oss2.common.form.schema;
+
+/**
+ * Point-in-time counters of a local cache
+ */
+public record CacheStats(long hits, long misses, long evictions, int size) {
+
+    public long requests() {
+        return hits + misses;
+    }
+
+    public double hitRate() {
+        long requests = requests();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+}
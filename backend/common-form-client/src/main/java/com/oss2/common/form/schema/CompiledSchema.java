@@ -0,0 +1,38 @@
+package com.oss2.common.form.schema;
+
+import com.oss2.common.form.mapping.EntityFieldSet;
+import com.oss2.common.form.mapping.ResolutionPlan;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A form schema that has been parsed once and reduced to what the mapping path needs.
+ * Resolution plans are compiled lazily per entity and live as long as the schema entry.
+ */
+public final class CompiledSchema {
+
+    public static final CompiledSchema EMPTY = new CompiledSchema(SchemaLabelIndex.EMPTY);
+
+    private final SchemaLabelIndex labelIndex;
+    private final Map<EntityFieldSet, ResolutionPlan> plans = new ConcurrentHashMap<>();
+
+    CompiledSchema(SchemaLabelIndex labelIndex) {
+        this.labelIndex = labelIndex;
+    }
+
+    public SchemaLabelIndex getLabelIndex() {
+        return labelIndex;
+    }
+
+    /**
+     * Get the resolution plan for an entity against this schema, compiling it on first use
+     */
+    public ResolutionPlan planFor(EntityFieldSet fieldSet) {
+        ResolutionPlan plan = plans.get(fieldSet);
+        if (plan == null) {
+            plan = plans.computeIfAbsent(fieldSet, fields -> ResolutionPlan.compile(fields, labelIndex));
+        }
+        return plan;
+    }
+}
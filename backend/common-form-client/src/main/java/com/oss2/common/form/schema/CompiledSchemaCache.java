@@ -0,0 +1,134 @@
+package com.oss2.common.form.schema;
+
+import com.oss2.common.form.util.FormMappingUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of compiled form schemas.
+ * Entries are keyed by form id plus a fingerprint of the schema text, so an edited
+ * schema simply misses and the stale entry ages out; no explicit invalidation is needed.
+ * When the caller knows the schema's immutable version (form-service's {@code schemaVersion}),
+ * the version is the key and the text is not even fingerprinted.
+ */
+@Component
+public class CompiledSchemaCache {
+
+    private final int maxSize;
+    private final Map<Key, CompiledSchema> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CompiledSchemaCache(@Value("${oss2.form.schema-cache.max-size:256}") int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Schema cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CompiledSchema> eldest) {
+                if (size() > CompiledSchemaCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the compiled form of a schema, parsing it only on the first request
+     */
+    public CompiledSchema get(Long formId, String schemaJson) {
+        if (schemaJson == null || schemaJson.isEmpty()) {
+            return CompiledSchema.EMPTY;
+        }
+        return lookup(new Key(formId, null, fingerprint(schemaJson), schemaJson.length()), schemaJson);
+    }
+
+    /**
+     * Get the compiled form of an immutable schema version; falls back to the text fingerprint
+     * when the version is unknown
+     */
+    public CompiledSchema get(Long formId, String schemaVersion, String schemaJson) {
+        if (schemaVersion == null || schemaVersion.isEmpty()) {
+            return get(formId, schemaJson);
+        }
+        if (schemaJson == null || schemaJson.isEmpty()) {
+            return CompiledSchema.EMPTY;
+        }
+        return lookup(new Key(formId, schemaVersion, 0L, -1), schemaJson);
+    }
+
+    private CompiledSchema lookup(Key key, String schemaJson) {
+        CompiledSchema compiled;
+        synchronized (entries) {
+            compiled = entries.get(key);
+        }
+        if (compiled != null) {
+            hits.increment();
+            return compiled;
+        }
+        misses.increment();
+
+        // Parse outside the lock; a concurrent miss on the same key just compiles twice
+        CompiledSchema fresh = compile(schemaJson);
+        synchronized (entries) {
+            CompiledSchema raced = entries.putIfAbsent(key, fresh);
+            return raced != null ? raced : fresh;
+        }
+    }
+
+    public SchemaLabelIndex getLabelIndex(Long formId, String schemaJson) {
+        return get(formId, schemaJson).getLabelIndex();
+    }
+
+    /**
+     * Drop every cached version of a form's schema
+     */
+    public void invalidate(Long formId) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.formId() != null && key.formId().equals(formId));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    static CompiledSchema compile(String schemaJson) {
+        return new CompiledSchema(SchemaLabelIndex.of(FormMappingUtils.buildLabelToIdMap(schemaJson)));
+    }
+
+    /**
+     * 64-bit FNV-1a over the schema characters; far cheaper than a parse and,
+     * combined with the length, collision-safe for the handful of versions per form
+     */
+    static long fingerprint(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private record Key(Long formId, String version, long fingerprint, int length) {
+    }
+}
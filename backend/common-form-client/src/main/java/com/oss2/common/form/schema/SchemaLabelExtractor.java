@@ -0,0 +1,75 @@
+package com.oss2.common.form.schema;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.function.BiConsumer;
+
+/**
+ * Pulls {@code fields[].id} and {@code fields[].label} out of a form schema with a token
+ * stream. Layout, validation rules and option lists are skipped with {@code skipChildren()}
+ * and never materialized, so the cost is one pass over the text and no tree allocation.
+ */
+public final class SchemaLabelExtractor {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private SchemaLabelExtractor() {
+    }
+
+    /**
+     * Report every (id, label) pair of the top-level {@code fields} array, in schema order.
+     * Values are read the way {@code JsonNode.asText()} would read them: scalars as text,
+     * objects and arrays as empty.
+     */
+    public static void extract(String schemaJson, BiConsumer<String, String> sink) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(schemaJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("fields".equals(name) && value == JsonToken.START_ARRAY) {
+                    readFields(parser, sink);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static void readFields(JsonParser parser, BiConsumer<String, String> sink) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String id = "";
+            String label = "";
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                if ("id".equals(name)) {
+                    id = scalarText(parser);
+                } else if ("label".equals(name)) {
+                    label = scalarText(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            sink.accept(id, label);
+        }
+    }
+
+    private static String scalarText(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getText();
+    }
+}
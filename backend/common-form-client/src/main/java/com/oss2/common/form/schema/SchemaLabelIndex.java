@@ -0,0 +1,48 @@
+package com.oss2.common.form.schema;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable label-to-field-id index compiled from a form schema.
+ * Keys are already normalized (lower-cased and trimmed, plus a spaceless variant),
+ * so lookups on the request path never have to re-normalize the schema labels.
+ */
+public final class SchemaLabelIndex {
+
+    public static final SchemaLabelIndex EMPTY = new SchemaLabelIndex(new HashMap<>());
+
+    private final Map<String, String> labelToId;
+
+    SchemaLabelIndex(HashMap<String, String> labelToId) {
+        // Keep HashMap iteration order so the fuzzy tier visits labels exactly as before
+        this.labelToId = Collections.unmodifiableMap(labelToId);
+    }
+
+    public static SchemaLabelIndex of(Map<String, String> normalizedLabelToId) {
+        if (normalizedLabelToId == null || normalizedLabelToId.isEmpty()) {
+            return EMPTY;
+        }
+        return new SchemaLabelIndex(new HashMap<>(normalizedLabelToId));
+    }
+
+    /**
+     * Read-only view usable wherever a label map is expected
+     */
+    public Map<String, String> asMap() {
+        return labelToId;
+    }
+
+    public String idForLabel(String normalizedLabel) {
+        return labelToId.get(normalizedLabel);
+    }
+
+    public boolean isEmpty() {
+        return labelToId.isEmpty();
+    }
+
+    public int size() {
+        return labelToId.size();
+    }
+}
@@ -1,33 +1,28 @@
 package com.oss2.common.form.util;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oss2.common.form.schema.SchemaLabelExtractor;
+import lombok.extern.slf4j.Slf4j;
 
 import java.util.HashMap;
 import java.util.Map;
 
+@Slf4j
 public class FormMappingUtils {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-
     public static Map<String, String> buildLabelToIdMap(String schemaJson) {
         Map<String, String> labelToIdMap = new HashMap<>();
         if (schemaJson != null && !schemaJson.isEmpty()) {
             try {
-                JsonNode root = objectMapper.readTree(schemaJson);
-                JsonNode fields = root.get("fields");
-                if (fields != null && fields.isArray()) {
-                    for (JsonNode field : fields) {
-                        String id = field.path("id").asText();
-                        String label = field.path("label").asText();
-                        if (!id.isEmpty() && !label.isEmpty()) {
-                            labelToIdMap.put(label.toLowerCase().trim(), id);
-                            labelToIdMap.put(label.toLowerCase().replace(" ", ""), id);
-                        }
+                // Stream only fields[].id/label; the rest of the schema is skipped, not parsed into a tree
+                SchemaLabelExtractor.extract(schemaJson, (id, label) -> {
+                    if (!id.isEmpty() && !label.isEmpty()) {
+                        labelToIdMap.put(label.toLowerCase().trim(), id);
+                        labelToIdMap.put(label.toLowerCase().replace(" ", ""), id);
                     }
-                }
+                });
             } catch (Exception e) {
-                System.err.println("WARN: Failed to parse schemaJson: " + e.getMessage());
+                log.warn("Failed to parse schemaJson: {}", e.getMessage());
+                labelToIdMap.clear();
             }
         }
         return labelToIdMap;
@@ -101,7 +96,7 @@ public class FormMappingUtils {
         try {
             return Double.parseDouble(value);
         } catch (NumberFormatException e) {
-            System.err.println("WARN: Invalid number format for field " + java.util.Arrays.toString(possibleNames) + ": " + value);
+            log.debug("Invalid number format for field {}: {}", possibleNames[0], value);
             return null;
         }
     }
@@ -114,7 +109,7 @@ public class FormMappingUtils {
         try {
             return (int) Double.parseDouble(value);
         } catch (NumberFormatException e) {
-            System.err.println("WARN: Invalid number format for field " + java.util.Arrays.toString(possibleNames) + ": " + value);
+            log.debug("Invalid number format for field {}: {}", possibleNames[0], value);
             return null;
         }
     }
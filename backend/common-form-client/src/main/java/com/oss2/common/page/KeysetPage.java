@@ -0,0 +1,10 @@
+package com.oss2.common.page;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One keyset page of rows, each holding only the selected fields; {@code nextCursor} is null on the last page
+ */
+public record KeysetPage(List<Map<String, Object>> items, String nextCursor) {
+}
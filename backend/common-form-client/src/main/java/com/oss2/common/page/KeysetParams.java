@@ -0,0 +1,20 @@
+package com.oss2.common.page;
+
+import java.util.List;
+
+/**
+ * Paging query parameters of a list endpoint: {@code ?limit=50&cursor=...&sort=price&fields=id,name,price}.
+ * Bound from the query string; when none is given the endpoint keeps its unpaged response.
+ */
+public record KeysetParams(Integer limit, String cursor, String sort, List<String> fields) {
+
+    public static final int DEFAULT_LIMIT = 50;
+
+    public boolean isPaged() {
+        return limit != null || cursor != null || sort != null || fields != null;
+    }
+
+    public int limitOrDefault() {
+        return limit != null ? limit : DEFAULT_LIMIT;
+    }
+}
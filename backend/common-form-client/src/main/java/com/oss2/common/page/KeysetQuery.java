@@ -0,0 +1,216 @@
+package com.oss2.common.page;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keyset-paged, column-projected reads of one entity, for list endpoints.
+ * <p>
+ * Only the requested fields are selected (a JPA tuple query, so the SQL names just those columns),
+ * and pages follow a stable order: the sort field, then id. The next page starts after the last
+ * row's (sort value, id) instead of at an offset. The query compares and orders by the bare column,
+ * so with an index on (sort field, id) each page is one range scan however deep it is; without one
+ * it is a full scan and sort. Null sort values come first, as MySQL orders them.
+ *
+ * @param <T> the entity; it must have a {@code Long id}
+ */
+public final class KeysetQuery<T> {
+
+    public static final int MAX_LIMIT = 200;
+
+    private static final String ID = "id";
+
+    private final Class<T> entityType;
+    private final Set<String> fields;
+    private final Set<String> sortFields;
+
+    /**
+     * @param fields     entity attributes that may be selected, in their default output order
+     * @param sortFields attributes that may be sorted by; {@code id} always may
+     */
+    public KeysetQuery(Class<T> entityType, List<String> fields, Set<String> sortFields) {
+        this.entityType = entityType;
+        this.fields = new LinkedHashSet<>(fields);
+        this.sortFields = new LinkedHashSet<>(sortFields);
+        this.fields.add(ID);
+        this.sortFields.add(ID);
+    }
+
+    /**
+     * Restricts the rows; null selects all of them
+     */
+    @FunctionalInterface
+    public interface Where<T> {
+        Predicate apply(CriteriaBuilder cb, Root<T> root);
+    }
+
+    /**
+     * One page of rows in (sort, id) order, starting after the cursor
+     *
+     * @param sort   a sort field, or null for id
+     * @param fields the fields to return, or null/empty for all; id and the sort field are always included
+     * @throws IllegalArgumentException for an unknown field or sort, or a cursor from another query
+     */
+    public KeysetPage page(EntityManager entityManager, Where<T> where, String sort, Collection<String> fields,
+                           int limit, String cursor) {
+        String sortField = sort == null || sort.isBlank() ? ID : sort;
+        if (!sortFields.contains(sortField)) {
+            throw new IllegalArgumentException("Cannot sort by " + sortField + "; use one of " + sortFields);
+        }
+        int size = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        Set<String> selected = select(fields);
+        selected.add(sortField);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityType);
+        query.multiselect(selections(root, selected));
+        Path<Long> id = root.get(ID);
+        Path<Comparable<Object>> key = root.get(sortField);
+
+        List<Predicate> predicates = new ArrayList<>(2);
+        if (where != null) {
+            predicates.add(where.apply(cb, root));
+        }
+        if (cursor != null && !cursor.isEmpty()) {
+            Cursor after = Cursor.decode(cursor, sortField, key.getJavaType());
+            predicates.add(after(cb, key, id, after));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.asc(key), cb.asc(id));
+
+        // One extra row tells whether there is a next page without a count query
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        List<Map<String, Object>> items = new ArrayList<>(Math.min(rows.size(), size));
+        for (int i = 0; i < rows.size() && i < size; i++) {
+            items.add(toMap(rows.get(i), selected));
+        }
+        if (rows.size() <= size) {
+            return new KeysetPage(items, null);
+        }
+        Map<String, Object> last = items.get(size - 1);
+        return new KeysetPage(items, new Cursor(sortField, comparable(last.get(sortField)), (Long) last.get(ID)).encode());
+    }
+
+    /**
+     * The selected fields of all rows matching the filter, in no particular order
+     *
+     * @throws IllegalArgumentException for an unknown field
+     */
+    public List<Map<String, Object>> list(EntityManager entityManager, Where<T> where, Collection<String> fields) {
+        Set<String> selected = select(fields);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityType);
+        query.multiselect(selections(root, selected));
+        if (where != null) {
+            query.where(where.apply(cb, root));
+        }
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            items.add(toMap(row, selected));
+        }
+        return items;
+    }
+
+    private Set<String> select(Collection<String> requested) {
+        if (requested == null || requested.isEmpty()) {
+            return new LinkedHashSet<>(fields);
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add(ID);
+        for (String field : requested) {
+            String name = field.strip();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!fields.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name + "; use any of " + fields);
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    private static <T> List<Selection<?>> selections(Root<T> root, Set<String> selected) {
+        List<Selection<?>> selections = new ArrayList<>(selected.size());
+        for (String field : selected) {
+            selections.add(root.get(field).alias(field));
+        }
+        return selections;
+    }
+
+    private static Map<String, Object> toMap(Tuple row, Set<String> selected) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        for (String field : selected) {
+            item.put(field, row.get(field));
+        }
+        return item;
+    }
+
+    // Rows after the cursor in (sort, id) order, nulls first; plain comparisons never match a null
+    private static Predicate after(CriteriaBuilder cb, Path<Comparable<Object>> key, Path<Long> id, Cursor after) {
+        if (after.field().equals(ID)) {
+            return cb.greaterThan(id, after.id());
+        }
+        if (after.value() == null) {
+            return cb.or(cb.and(cb.isNull(key), cb.greaterThan(id, after.id())), cb.isNotNull(key));
+        }
+        return cb.or(cb.greaterThan(key, after.value()),
+                cb.and(cb.equal(key, after.value()), cb.greaterThan(id, after.id())));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> comparable(Object value) {
+        return (Comparable<Object>) value;
+    }
+
+    private record Cursor(String field, Comparable<Object> value, Long id) {
+
+        // A null value is left out, which also keeps it apart from an empty string
+        String encode() {
+            String raw = value != null ? field + "|" + id + "|" + value : field + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor, String field, Class<?> type) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|", 3);
+                if (parts.length < 2 || !parts[0].equals(field)) {
+                    throw new IllegalArgumentException("Invalid cursor for sort " + field + ": " + cursor);
+                }
+                return new Cursor(field, parts.length == 3 ? parse(parts[2], type) : null, Long.parseLong(parts[1]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+            }
+        }
+
+        private static Comparable<Object> parse(String value, Class<?> type) {
+            if (type == Long.class || type == long.class) {
+                return comparable(Long.parseLong(value));
+            } else if (type == Integer.class || type == int.class) {
+                return comparable(Integer.parseInt(value));
+            } else if (type == Double.class || type == double.class) {
+                return comparable(Double.parseDouble(value));
+            }
+            return comparable(value);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.oss2.common.search;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable prefix index over short texts (titles, names) for autocomplete.
+ * <p>
+ * Texts are normalized (lower case, accents and punctuation removed) and every word start becomes a
+ * key, so "mou" finds "Wireless Mouse". Keys are not materialized: a key is an (entry, offset) pair
+ * into the normalized text, and the pairs are kept in one sorted array, so the keys of a prefix are
+ * a contiguous range found with two binary searches. A max-tree over the rank of the sorted keys
+ * then yields the k best entries of that range in O(k log n), however many keys it has.
+ * <p>
+ * Instances are never modified; {@link PrefixSuggester} builds a new one and swaps it in.
+ */
+public final class PrefixIndex {
+
+    public static final PrefixIndex EMPTY = build(new long[0], new String[0], new long[0]);
+
+    // Only the first words of a long text are keys
+    private static final int MAX_WORDS = 8;
+    // Rank layout: popularity, then whole-text prefix, then shorter text
+    private static final int LENGTH_BITS = 16;
+    private static final int MAX_LENGTH = (1 << (LENGTH_BITS - 1)) - 1;
+    private static final long MAX_POPULARITY = (1L << (62 - LENGTH_BITS)) - 1;
+
+    private final long[] ids;
+    private final String[] texts;
+    private final String[] normalized;
+    private final long[] popularity;
+    // Sorted keys: key i is normalized[keyEntry[i]] from keyOffset[i]
+    private final int[] keyEntry;
+    private final int[] keyOffset;
+    private final long[] keyRank;
+    // Implicit binary tree over the keys; each node holds the key of highest rank below it (-1 if none)
+    private final int[] best;
+    private final int leaves;
+
+    private PrefixIndex(long[] ids, String[] texts, String[] normalized, long[] popularity,
+                        int[] keyEntry, int[] keyOffset) {
+        this.ids = ids;
+        this.texts = texts;
+        this.normalized = normalized;
+        this.popularity = popularity;
+        this.keyEntry = keyEntry;
+        this.keyOffset = keyOffset;
+        this.keyRank = new long[keyEntry.length];
+        for (int i = 0; i < keyEntry.length; i++) {
+            int entry = keyEntry[i];
+            long weight = Math.min(Math.max(popularity[entry], 0), MAX_POPULARITY);
+            long shortness = MAX_LENGTH - Math.min(normalized[entry].length(), MAX_LENGTH);
+            keyRank[i] = (weight << LENGTH_BITS) | (keyOffset[i] == 0 ? MAX_LENGTH + 1L : 0) | shortness;
+        }
+        int size = 1;
+        while (size < keyEntry.length) {
+            size <<= 1;
+        }
+        this.leaves = size;
+        this.best = new int[2 * size];
+        Arrays.fill(best, -1);
+        for (int i = 0; i < keyEntry.length; i++) {
+            best[size + i] = i;
+        }
+        for (int node = size - 1; node >= 1; node--) {
+            int left = best[2 * node];
+            int right = best[2 * node + 1];
+            best[node] = higher(left, right);
+        }
+    }
+
+    /**
+     * @param ids        entity ids
+     * @param texts      display texts, same order; null or blank texts are left out
+     * @param popularity ranking weights, same order
+     */
+    public static PrefixIndex build(long[] ids, String[] texts, long[] popularity) {
+        String[] normalized = new String[texts.length];
+        int[] entries = new int[Math.max(16, texts.length * 2)];
+        int[] offsets = new int[entries.length];
+        int count = 0;
+        for (int entry = 0; entry < texts.length; entry++) {
+            String text = normalize(texts[entry]);
+            normalized[entry] = text;
+            int words = 0;
+            for (int offset = 0; offset < text.length() && words < MAX_WORDS; offset++) {
+                if (offset == 0 || text.charAt(offset - 1) == ' ') {
+                    if (count == entries.length) {
+                        entries = Arrays.copyOf(entries, count * 2);
+                        offsets = Arrays.copyOf(offsets, count * 2);
+                    }
+                    entries[count] = entry;
+                    offsets[count] = offset;
+                    count++;
+                    words++;
+                }
+            }
+        }
+        long[] order = sortKeys(normalized, entries, offsets, count);
+        int[] keyEntry = new int[count];
+        int[] keyOffset = new int[count];
+        for (int i = 0; i < count; i++) {
+            int key = (int) order[i];
+            keyEntry[i] = entries[key];
+            keyOffset[i] = offsets[key];
+        }
+        return new PrefixIndex(ids, texts, normalized, popularity, keyEntry, keyOffset);
+    }
+
+    /**
+     * Lower case, accents removed, anything but letters and digits turned into single spaces
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        boolean space = true;
+        for (int i = 0; i < decomposed.length(); ) {
+            int c = decomposed.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                out.appendCodePoint(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                out.append(' ');
+                space = true;
+            }
+        }
+        int length = out.length();
+        if (length > 0 && out.charAt(length - 1) == ' ') {
+            out.setLength(length - 1);
+        }
+        return out.toString();
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * The most popular entries having a word that starts with the prefix; ties go to entries whose
+     * text starts with it, then to the shorter text
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0 || keyEntry.length == 0) {
+            return List.of();
+        }
+        int from = lowerBound(key, false);
+        int to = lowerBound(key, true);
+        if (from >= to) {
+            return List.of();
+        }
+        // Best first: take the top key of a range, then split the range around it
+        RangeHeap ranges = new RangeHeap(2 * limit + 2);
+        ranges.push(from, to, top(from, to));
+        List<Suggestion> out = new ArrayList<>(limit);
+        Set<Integer> seen = new HashSet<>();
+        while (!ranges.isEmpty() && out.size() < limit) {
+            int start = ranges.from[0];
+            int end = ranges.to[0];
+            int top = ranges.key[0];
+            ranges.pop();
+            int entry = keyEntry[top];
+            // An entry has several keys (one per word); report it once
+            if (seen.add(entry)) {
+                out.add(new Suggestion(ids[entry], texts[entry], popularity[entry]));
+            }
+            if (start < top) {
+                ranges.push(start, top, top(start, top));
+            }
+            if (top + 1 < end) {
+                ranges.push(top + 1, end, top(top + 1, end));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * The key of highest rank in [from, to), from the tree nodes covering that range
+     */
+    private int top(int from, int to) {
+        int top = -1;
+        for (int lo = from + leaves, hi = to + leaves; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) {
+                top = higher(top, best[lo++]);
+            }
+            if ((hi & 1) == 1) {
+                top = higher(top, best[--hi]);
+            }
+        }
+        return top;
+    }
+
+    private int higher(int key, int other) {
+        return key < 0 || (other >= 0 && keyRank[other] > keyRank[key]) ? other : key;
+    }
+
+    /**
+     * First key that is not less than the prefix or, with {@code past}, first key that neither is
+     * less than the prefix nor starts with it
+     */
+    private int lowerBound(String prefix, boolean past) {
+        int lo = 0;
+        int hi = keyEntry.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = comparePrefix(mid, prefix);
+            if (cmp < 0 || (past && cmp == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Negative if the key sorts before the prefix, zero if it starts with it, positive if after
+     */
+    private int comparePrefix(int key, String prefix) {
+        String text = normalized[keyEntry[key]];
+        int offset = keyOffset[key];
+        int length = Math.min(text.length() - offset, prefix.length());
+        for (int i = 0; i < length; i++) {
+            int diff = text.charAt(offset + i) - prefix.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length < prefix.length() ? -1 : 0;
+    }
+
+    /**
+     * Sort keys by their text with an MSD radix sort: each pass orders a run of keys that agree so far
+     * by their next two chars, packed above the key number into a long, with a primitive sort
+     *
+     * @return key numbers (low 32 bits) in sorted order
+     */
+    private static long[] sortKeys(String[] normalized, int[] entries, int[] offsets, int count) {
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Deque<int[]> runs = new ArrayDeque<>();
+        runs.push(new int[]{0, count, 0});
+        while (!runs.isEmpty()) {
+            int[] run = runs.pop();
+            int from = run[0];
+            int to = run[1];
+            int depth = run[2];
+            for (int i = from; i < to; i++) {
+                int key = (int) order[i];
+                long chars = twoChars(normalized[entries[key]], offsets[key] + depth);
+                // Sign bit flipped so the signed sort orders the chars as unsigned
+                order[i] = ((chars << 32) | key) ^ Long.MIN_VALUE;
+            }
+            Arrays.sort(order, from, to);
+            for (int i = from; i < to; i++) {
+                order[i] ^= Long.MIN_VALUE;
+            }
+            int start = from;
+            for (int i = from + 1; i <= to; i++) {
+                if (i == to || (order[i] >>> 32) != (order[start] >>> 32)) {
+                    // Keys still equal and not yet exhausted: order them by the following chars
+                    if (i - start > 1 && (order[start] >>> 32 & 0xFFFF) != 0) {
+                        runs.push(new int[]{start, i, depth + 2});
+                    }
+                    start = i;
+                }
+            }
+            for (int i = from; i < to; i++) {
+                order[i] &= 0xFFFFFFFFL;
+            }
+        }
+        return order;
+    }
+
+    // The chars at position and position + 1 as one unsigned 32-bit value; past the end counts as 0
+    private static long twoChars(String text, int position) {
+        long first = position < text.length() ? text.charAt(position) : 0;
+        long second = position + 1 < text.length() ? text.charAt(position + 1) : 0;
+        return (first << 16) | second;
+    }
+
+    /**
+     * Binary max-heap of key ranges by the rank of their top key
+     */
+    private final class RangeHeap {
+        private int[] from;
+        private int[] to;
+        private int[] key;
+        private int size;
+
+        RangeHeap(int capacity) {
+            from = new int[capacity];
+            to = new int[capacity];
+            key = new int[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int start, int end, int top) {
+            if (size == key.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                key = Arrays.copyOf(key, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keyRank[key[parent]] >= keyRank[top]) {
+                    break;
+                }
+                move(parent, i);
+                i = parent;
+            }
+            set(i, start, end, top);
+        }
+
+        void pop() {
+            size--;
+            int start = from[size];
+            int end = to[size];
+            int top = key[size];
+            long rank = keyRank[top];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keyRank[key[child + 1]] > keyRank[key[child]]) {
+                    child++;
+                }
+                if (keyRank[key[child]] <= rank) {
+                    break;
+                }
+                move(child, i);
+                i = child;
+            }
+            set(i, start, end, top);
+        }
+
+        private void move(int source, int target) {
+            set(target, from[source], to[source], key[source]);
+        }
+
+        private void set(int i, int start, int end, int top) {
+            from[i] = start;
+            to[i] = end;
+            key[i] = top;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.oss2.common.search;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Autocomplete over a changing set of texts, served from an immutable {@link PrefixIndex}.
+ * <p>
+ * Changes go to a map of current texts; a background thread then builds a new index from a snapshot
+ * and swaps it in (copy-on-write). Bursts of changes within {@code debounce} share one build, and
+ * readers never wait: they keep using the previous index until the new one is published.
+ * Popularity counts are folded into the ranking on the next build, and at the latest every
+ * {@code popularityRefresh}; they are kept in memory only.
+ */
+@Slf4j
+public class PrefixSuggester implements AutoCloseable {
+
+    public static final int MAX_LIMIT = 50;
+
+    private final String name;
+    private final long debounceMillis;
+    private final Map<Long, String> texts = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> popularity = new ConcurrentHashMap<>();
+    // Ids put or removed before the first load completed; the loaded (older) text must not replace theirs
+    private final Set<Long> changedBeforeLoad = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService rebuilder;
+
+    private volatile boolean popularityChanged;
+    private volatile boolean loaded;
+    private volatile PrefixIndex index = PrefixIndex.EMPTY;
+
+    /**
+     * @param name used for the rebuild thread and log lines, e.g. "product"
+     */
+    public PrefixSuggester(String name, Duration debounce, Duration popularityRefresh) {
+        this.name = name;
+        this.debounceMillis = Math.max(0, debounce.toMillis());
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-suggest-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long refreshMillis = Math.max(1000, popularityRefresh.toMillis());
+        rebuilder.scheduleWithFixedDelay(() -> {
+            if (popularityChanged) {
+                rebuild();
+            }
+        }, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Up to {@code limit} (at most {@link #MAX_LIMIT}) entries with a word starting with the prefix, most popular first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return index.suggest(prefix, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Add the initial set of texts, read at startup, and build the index now. Entries put or removed
+     * since this suggester was created keep their newer state: the texts were read before those
+     * changes arrived and may predate them.
+     */
+    public void load(Map<Long, String> all) {
+        all.forEach((id, text) -> texts.compute(id, (key, current) -> changedBeforeLoad.contains(key)
+                ? current : text == null || text.isBlank() ? null : text));
+        loaded = true;
+        changedBeforeLoad.clear();
+        rebuild();
+    }
+
+    /**
+     * Add or change the text of an entry; a blank text removes it
+     */
+    public void put(long id, String text) {
+        markChanged(id);
+        if (putText(id, text)) {
+            scheduleRebuild();
+        }
+    }
+
+    public void remove(long id) {
+        markChanged(id);
+        texts.remove(id);
+        popularity.remove(id);
+        scheduleRebuild();
+    }
+
+    public void addPopularity(long id, long amount) {
+        popularity.computeIfAbsent(id, key -> new LongAdder()).add(amount);
+        popularityChanged = true;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public void close() {
+        rebuilder.shutdownNow();
+    }
+
+    // Recorded before the text changes: a load of the same id then either runs first and is overwritten, or sees it
+    private void markChanged(long id) {
+        if (!loaded) {
+            changedBeforeLoad.add(id);
+        }
+    }
+
+    /**
+     * @return whether the text changed
+     */
+    private boolean putText(long id, String text) {
+        if (text == null || text.isBlank()) {
+            return texts.remove(id) != null;
+        }
+        return !text.equals(texts.put(id, text));
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.schedule(() -> {
+                // Cleared first: a change made while building schedules the next build
+                rebuildScheduled.set(false);
+                rebuild();
+            }, debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void rebuild() {
+        try {
+            popularityChanged = false;
+            int size = texts.size();
+            long[] ids = new long[size];
+            String[] values = new String[size];
+            long[] weights = new long[size];
+            int n = 0;
+            for (Map.Entry<Long, String> entry : texts.entrySet()) {
+                if (n == size) {
+                    // Grew while copying; the change that grew it schedules another build
+                    break;
+                }
+                LongAdder count = popularity.get(entry.getKey());
+                ids[n] = entry.getKey();
+                values[n] = entry.getValue();
+                weights[n] = count != null ? count.sum() : 0;
+                n++;
+            }
+            long started = System.nanoTime();
+            PrefixIndex built = n == size
+                    ? PrefixIndex.build(ids, values, weights)
+                    : PrefixIndex.build(Arrays.copyOf(ids, n), Arrays.copyOf(values, n),
+                            Arrays.copyOf(weights, n));
+            index = built;
+            log.debug("Rebuilt the {} suggest index: {} entries in {} ms", name, built.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Could not rebuild the {} suggest index; still serving the previous one", name, e);
+        }
+    }
+}
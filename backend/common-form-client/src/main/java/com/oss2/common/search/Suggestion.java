@@ -0,0 +1,7 @@
+package com.oss2.common.search;
+
+/**
+ * One autocomplete answer: the entity id, its display text and the popularity it was ranked by
+ */
+public record Suggestion(long id, String text, long popularity) {
+}
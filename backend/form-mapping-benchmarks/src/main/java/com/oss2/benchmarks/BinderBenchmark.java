@@ -0,0 +1,74 @@
+package com.oss2.benchmarks;
+
+import com.oss2.benchmarks.fixtures.BenchBook;
+import com.oss2.benchmarks.fixtures.LegacyBookMapper;
+import com.oss2.benchmarks.fixtures.PlanBookMapper;
+import com.oss2.common.form.binder.FormBinder;
+import com.oss2.common.form.schema.CompiledSchema;
+import com.oss2.common.form.schema.CompiledSchemaCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated binder vs. hand-written book mappers.
+ * Run with: java -jar target/benchmarks.jar BinderBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BinderBenchmark {
+
+    private static final String SCHEMA = "{\"fields\":["
+            + "{\"id\":\"field_1\",\"type\":\"text\",\"label\":\"Book Title\",\"required\":true},"
+            + "{\"id\":\"field_2\",\"type\":\"text\",\"label\":\"Author Name\",\"required\":true},"
+            + "{\"id\":\"field_3\",\"type\":\"text\",\"label\":\"ISBN Code\",\"required\":false},"
+            + "{\"id\":\"field_4\",\"type\":\"number\",\"label\":\"Cost\",\"required\":true},"
+            + "{\"id\":\"field_5\",\"type\":\"number\",\"label\":\"Quantity\",\"required\":true}]}";
+
+    private Map<String, Object> formData;
+    private CompiledSchema compiledSchema;
+    private FormBinder<BenchBook> binder;
+
+    @Setup
+    public void setUp() {
+        formData = new LinkedHashMap<>();
+        formData.put("field_1", "Dune");
+        formData.put("field_2", "Frank Herbert");
+        formData.put("field_3", "978-0441013593");
+        formData.put("field_4", "9.99");
+        formData.put("field_5", "12");
+
+        compiledSchema = new CompiledSchemaCache(16).get(1L, SCHEMA);
+        binder = FormBinder.of(BenchBook.class);
+    }
+
+    @Benchmark
+    public BenchBook legacyHandWritten() {
+        return LegacyBookMapper.map(formData, SCHEMA);
+    }
+
+    @Benchmark
+    public BenchBook planHandWritten() {
+        return PlanBookMapper.map(formData, compiledSchema);
+    }
+
+    @Benchmark
+    public BenchBook generatedBinder() {
+        return binder.bind(formData, compiledSchema);
+    }
+}
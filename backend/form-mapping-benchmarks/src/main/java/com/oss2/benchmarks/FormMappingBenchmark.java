@@ -0,0 +1,130 @@
+package com.oss2.benchmarks;
+
+import com.oss2.benchmarks.fixtures.BenchBook;
+import com.oss2.benchmarks.fixtures.BenchProduct;
+import com.oss2.benchmarks.fixtures.FormFixtures;
+import com.oss2.benchmarks.fixtures.LegacyBookMapper;
+import com.oss2.benchmarks.fixtures.LegacyProductMapper;
+import com.oss2.common.form.binder.FormBinder;
+import com.oss2.common.form.mapping.ResolutionTier;
+import com.oss2.common.form.mapping.ResolvedFields;
+import com.oss2.common.form.schema.CompiledSchema;
+import com.oss2.common.form.schema.CompiledSchemaCache;
+import com.oss2.common.form.util.FormMappingUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The form-mapping hot path, per schema size, payload key style and schema label style.
+ * <p>
+ * "legacy" benchmarks are the original per-request parse + four-tier search; "current"
+ * benchmarks are what the book/product FormFieldMappers do now (cached compiled schema +
+ * generated binder). Run through {@link BenchmarkRunner} to get allocation rates as well.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FormMappingBenchmark {
+
+    private static final String[] TITLE = {"title", "Title", "Book Title", "Name", "Book Name"};
+    private static final String[] PRICE = {"price", "Price", "Cost", "Amount"};
+    private static final String[] STOCK = {"stock", "Stock", "Quantity", "Available", "Inventory"};
+
+    @Param({"5", "50", "500"})
+    public int schemaFields;
+
+    @Param({"IDS", "LABELS", "MESSY"})
+    public FormFixtures.KeyStyle keyStyle;
+
+    @Param({"EXACT", "FUZZY", "ABSENT"})
+    public FormFixtures.LabelStyle labelStyle;
+
+    private String schemaJson;
+    private Map<String, Object> payload;
+    private Map<String, String> labelMap;
+    private CompiledSchemaCache schemaCache;
+    private FormBinder<BenchBook> bookBinder;
+    private FormBinder<BenchProduct> productBinder;
+
+    @Setup
+    public void setUp() {
+        FormFixtures.Form form = FormFixtures.create(schemaFields, keyStyle, labelStyle);
+        schemaJson = form.schemaJson();
+        payload = form.payload();
+        labelMap = FormMappingUtils.buildLabelToIdMap(schemaJson);
+        schemaCache = new CompiledSchemaCache(64);
+        bookBinder = FormBinder.of(BenchBook.class);
+        productBinder = FormBinder.of(BenchProduct.class);
+
+        // Fail fast rather than report a tier the mapped fields do not actually hit
+        ResolutionTier expected = FormFixtures.expectedTier(keyStyle, labelStyle);
+        ResolvedFields resolved = schemaCache.get(1L, schemaJson).planFor(bookBinder.getFieldSet()).resolve(payload);
+        for (int i = 0; i < resolved.size(); i++) {
+            if (resolved.getTier(i) != expected) {
+                throw new IllegalStateException("Book field " + bookBinder.getFieldSet().getFieldNames().get(i)
+                        + " resolves at " + resolved.getTier(i) + ", not " + expected
+                        + ", for " + keyStyle + " keys and " + labelStyle + " labels");
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> buildLabelToIdMap() {
+        return FormMappingUtils.buildLabelToIdMap(schemaJson);
+    }
+
+    @Benchmark
+    public CompiledSchema compiledSchemaCacheHit() {
+        return schemaCache.get(1L, schemaJson);
+    }
+
+    @Benchmark
+    public String getFieldValue() {
+        return FormMappingUtils.getFieldValue(payload, labelMap, TITLE);
+    }
+
+    @Benchmark
+    public Double getDoubleValue() {
+        return FormMappingUtils.getDoubleValue(payload, labelMap, PRICE);
+    }
+
+    @Benchmark
+    public Integer getIntegerValue() {
+        return FormMappingUtils.getIntegerValue(payload, labelMap, STOCK);
+    }
+
+    @Benchmark
+    public BenchBook legacyBookMapper() {
+        return LegacyBookMapper.map(payload, schemaJson);
+    }
+
+    @Benchmark
+    public BenchBook currentBookMapper() {
+        return bookBinder.bind(payload, schemaCache.get(1L, schemaJson));
+    }
+
+    @Benchmark
+    public BenchProduct legacyProductMapper() {
+        return LegacyProductMapper.map(payload, schemaJson);
+    }
+
+    @Benchmark
+    public BenchProduct currentProductMapper() {
+        return productBinder.bind(payload, schemaCache.get(2L, schemaJson));
+    }
+}
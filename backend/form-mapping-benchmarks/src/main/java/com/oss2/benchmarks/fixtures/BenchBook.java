@@ -0,0 +1,27 @@
+package com.oss2.benchmarks.fixtures;
+
+import com.oss2.common.form.binder.FormField;
+import lombok.Data;
+
+/**
+ * Copy of book-service's Book entity (without JPA) so the binder can be measured in isolation
+ */
+@Data
+public class BenchBook {
+    private Long id;
+
+    @FormField(aliases = {"title", "Title", "Book Title", "Name", "Book Name"}, defaultValue = "Draft Book (from Form)")
+    private String title;
+
+    @FormField(aliases = {"author", "Author", "Author Name", "Writer"}, defaultValue = "Unknown Author")
+    private String author;
+
+    @FormField(aliases = {"isbn", "ISBN", "ISBN Number", "ISBN Code"}, defaultValue = "N/A")
+    private String isbn;
+
+    @FormField(aliases = {"price", "Price", "Cost", "Amount"}, defaultValue = "0.0")
+    private Double price;
+
+    @FormField(aliases = {"stock", "Stock", "Quantity", "Available", "Inventory"}, defaultValue = "0")
+    private Integer stock;
+}
@@ -0,0 +1,42 @@
+package com.oss2.benchmarks.fixtures;
+
+import com.oss2.common.form.binder.FormField;
+import lombok.Data;
+
+/**
+ * Copy of product-service's Product entity (without JPA) so the binder can be measured in isolation
+ */
+@Data
+public class BenchProduct {
+    private Long id;
+
+    @FormField(aliases = {"name", "Name", "Product Name", "productName", "product_name"}, defaultValue = "Draft Product (from Form)")
+    private String name;
+
+    @FormField(aliases = {"description", "Description", "Product Description", "productDescription", "product_description", "Details"}, defaultValue = "")
+    private String description;
+
+    @FormField(aliases = {"category", "Category", "Product Category", "productCategory", "product_category", "Type"}, defaultValue = "General")
+    private String category;
+
+    @FormField(aliases = {"brand", "Brand", "Manufacturer", "brandName", "brand_name"}, defaultValue = "Unknown")
+    private String brand;
+
+    @FormField(aliases = {"sku", "SKU", "Product Code", "productCode", "product_code", "Code"}, defaultValue = "N/A")
+    private String sku;
+
+    @FormField(aliases = {"price", "Price", "Cost", "Amount", "unitPrice", "unit_price"}, defaultValue = "0.0")
+    private Double price;
+
+    @FormField(aliases = {"stock", "Stock", "Quantity", "Available", "Inventory", "stockQuantity", "stock_quantity"}, defaultValue = "0")
+    private Integer stock;
+
+    @FormField(aliases = {"imageUrl", "image_url", "Image URL", "Image", "Picture", "Photo"})
+    private String imageUrl;
+
+    @FormField(aliases = {"weight", "Weight", "productWeight", "product_weight"})
+    private Double weight;
+
+    @FormField(aliases = {"dimensions", "Dimensions", "Size", "productDimensions", "product_dimensions"})
+    private String dimensions;
+}
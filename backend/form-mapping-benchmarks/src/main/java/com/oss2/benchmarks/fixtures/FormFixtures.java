@@ -0,0 +1,153 @@
+package com.oss2.benchmarks.fixtures;
+
+import com.oss2.common.form.mapping.ResolutionTier;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic schemas and payloads shaped like the ones the from-form endpoints receive.
+ * The first fields of every schema are the ones the book/product mappers look for; the rest
+ * are select fields with option lists and validation blocks, like real catalog forms.
+ * <p>
+ * Every key of the payload, mapped fields included, follows the key style, so the tier the
+ * mapped fields resolve at follows from the key style and the label style together; see
+ * {@link #expectedTier}.
+ */
+public final class FormFixtures {
+
+    /** How the submitted payload names its keys */
+    public enum KeyStyle {
+        /** Schema field ids, e.g. {@code field_3} */
+        IDS,
+        /** Schema labels verbatim, e.g. {@code Book Title} */
+        LABELS,
+        /** Labels with random casing and doubled spaces, e.g. {@code bOoK  tItLe} */
+        MESSY
+    }
+
+    /** How the schema labels of the mapped fields relate to the mapper aliases */
+    public enum LabelStyle {
+        /** Labels equal an alias */
+        EXACT,
+        /** Labels only contain an alias */
+        FUZZY,
+        /** Labels equal an alias, but the mapped fields are absent from the payload */
+        ABSENT
+    }
+
+    private static final List<Target> TARGETS = List.of(
+            new Target("Book Title", "Please enter the book title", "Dune"),
+            new Target("Author Name", "Primary author name of the work", "Frank Herbert"),
+            new Target("ISBN Code", "The ISBN of this edition", "978-0441013593"),
+            new Target("Price", "Retail price in USD", "9.99"),
+            new Target("Stock", "Units in stock", "12"),
+            new Target("Product Name", "Full product name for the listing", "Desk Lamp"),
+            new Target("Description", "Long description shown on the page", "Adjustable LED desk lamp"),
+            new Target("Category", "Catalog category", "Lighting"),
+            new Target("Brand", "Brand or label", "Lumina"),
+            new Target("SKU", "Internal sku reference", "LMP-001"),
+            new Target("Weight", "Shipping weight (kg)", "1.4"),
+            new Target("Dimensions", "Package dimensions", "30x20x10")
+    );
+
+    private FormFixtures() {
+    }
+
+    /**
+     * The tier every book and product field resolves at: ids reach the label or fuzzy tier, labels
+     * verbatim are exact keys and messy labels the case-insensitive fallback. A fuzzy label is
+     * not an alias in any spelling, so keying by it misses.
+     */
+    public static ResolutionTier expectedTier(KeyStyle keyStyle, LabelStyle labelStyle) {
+        if (labelStyle == LabelStyle.ABSENT) {
+            return ResolutionTier.MISS;
+        }
+        boolean fuzzy = labelStyle == LabelStyle.FUZZY;
+        return switch (keyStyle) {
+            case IDS -> fuzzy ? ResolutionTier.FUZZY : ResolutionTier.LABEL;
+            case LABELS -> fuzzy ? ResolutionTier.MISS : ResolutionTier.EXACT;
+            case MESSY -> fuzzy ? ResolutionTier.MISS : ResolutionTier.FALLBACK;
+        };
+    }
+
+    public static Form create(int fieldCount, KeyStyle keyStyle, LabelStyle labelStyle) {
+        Random random = new Random(42);
+        StringBuilder schema = new StringBuilder(fieldCount * 256);
+        schema.append("{\"title\":\"Benchmark form ").append(fieldCount).append("\",")
+                .append("\"layout\":{\"columns\":2,\"sections\":[{\"name\":\"main\",\"collapsed\":false}]},")
+                .append("\"fields\":[");
+        Map<String, Object> payload = new LinkedHashMap<>();
+
+        for (int i = 0; i < fieldCount; i++) {
+            String id = "field_" + (i + 1);
+            boolean target = i < TARGETS.size();
+            String label;
+            String value;
+            if (target) {
+                Target t = TARGETS.get(i);
+                label = labelStyle == LabelStyle.FUZZY ? t.fuzzyLabel() : t.exactLabel();
+                value = t.value();
+            } else {
+                label = "Filler question " + (i + 1);
+                value = "Option " + random.nextInt(8);
+            }
+
+            if (i > 0) {
+                schema.append(',');
+            }
+            appendField(schema, id, label, target);
+
+            if (target && labelStyle == LabelStyle.ABSENT) {
+                continue;
+            }
+            payload.put(key(keyStyle, id, label, random), value);
+        }
+        schema.append("]}");
+        return new Form(schema.toString(), payload);
+    }
+
+    private static void appendField(StringBuilder schema, String id, String label, boolean target) {
+        schema.append("{\"id\":\"").append(id).append("\",")
+                .append("\"type\":\"").append(target ? "text" : "select").append("\",")
+                .append("\"label\":\"").append(label).append("\",")
+                .append("\"placeholder\":\"\",\"required\":").append(target).append(',')
+                .append("\"validation\":{\"minLength\":0,\"maxLength\":255,\"pattern\":null},");
+        schema.append("\"options\":[");
+        int options = target ? 0 : 8;
+        for (int o = 0; o < options; o++) {
+            if (o > 0) {
+                schema.append(',');
+            }
+            schema.append("\"Option ").append(o).append('"');
+        }
+        schema.append("]}");
+    }
+
+    private static String key(KeyStyle keyStyle, String id, String label, Random random) {
+        switch (keyStyle) {
+            case IDS:
+                return id;
+            case LABELS:
+                return label;
+            default:
+                StringBuilder messy = new StringBuilder(label.length() + 4);
+                for (char c : label.toCharArray()) {
+                    messy.append(random.nextBoolean() ? Character.toUpperCase(c) : Character.toLowerCase(c));
+                    if (c == ' ') {
+                        messy.append(' ');
+                    }
+                }
+                return messy.toString();
+        }
+    }
+
+    /** A schema and a matching submission payload */
+    public record Form(String schemaJson, Map<String, Object> payload) {
+    }
+
+    private record Target(String exactLabel, String fuzzyLabel, String value) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.oss2.benchmarks.fixtures;
+
+import com.oss2.common.form.util.FormMappingUtils;
+
+import java.util.Map;
+
+/**
+ * The original hand-written book-service mapper: parses the schema and runs the
+ * four-tier search once per field on every call
+ */
+public final class LegacyBookMapper {
+
+    private LegacyBookMapper() {
+    }
+
+    public static BenchBook map(Map<String, Object> formData, String schemaJson) {
+        Map<String, String> labelToIdMap = FormMappingUtils.buildLabelToIdMap(schemaJson);
+
+        BenchBook book = new BenchBook();
+
+        String title = FormMappingUtils.getFieldValue(formData, labelToIdMap, "title", "Title", "Book Title", "Name",
+                "Book Name");
+        book.setTitle(title != null && !title.isEmpty() ? title : "Draft Book (from Form)");
+
+        String author = FormMappingUtils.getFieldValue(formData, labelToIdMap, "author", "Author", "Author Name",
+                "Writer");
+        book.setAuthor(author != null && !author.isEmpty() ? author : "Unknown Author");
+
+        String isbn = FormMappingUtils.getFieldValue(formData, labelToIdMap, "isbn", "ISBN", "ISBN Number",
+                "ISBN Code");
+        book.setIsbn(isbn != null && !isbn.isEmpty() ? isbn : "N/A");
+
+        Double price = FormMappingUtils.getDoubleValue(formData, labelToIdMap, "price", "Price", "Cost", "Amount");
+        book.setPrice(price != null ? price : 0.0);
+
+        Integer stock = FormMappingUtils.getIntegerValue(formData, labelToIdMap, "stock", "Stock", "Quantity",
+                "Available", "Inventory");
+        book.setStock(stock != null ? stock : 0);
+
+        return book;
+    }
+}
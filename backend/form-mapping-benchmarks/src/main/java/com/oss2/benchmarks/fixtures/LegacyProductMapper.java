@@ -0,0 +1,48 @@
+package com.oss2.benchmarks.fixtures;
+
+import com.oss2.common.form.util.FormMappingUtils;
+
+import java.util.Map;
+
+/**
+ * The original hand-written product-service mapper: parses the schema and runs the
+ * four-tier search once per field on every call
+ */
+public final class LegacyProductMapper {
+
+    private LegacyProductMapper() {
+    }
+
+    public static BenchProduct map(Map<String, Object> formData, String schemaJson) {
+        Map<String, String> labelToIdMap = FormMappingUtils.buildLabelToIdMap(schemaJson);
+
+        BenchProduct product = new BenchProduct();
+
+        String name = FormMappingUtils.getFieldValue(formData, labelToIdMap, "name", "Name", "Product Name", "productName", "product_name");
+        product.setName(name != null && !name.isEmpty() ? name : "Draft Product (from Form)");
+
+        String description = FormMappingUtils.getFieldValue(formData, labelToIdMap, "description", "Description", "Product Description", "productDescription", "product_description", "Details");
+        product.setDescription(description != null && !description.isEmpty() ? description : "");
+
+        String category = FormMappingUtils.getFieldValue(formData, labelToIdMap, "category", "Category", "Product Category", "productCategory", "product_category", "Type");
+        product.setCategory(category != null && !category.isEmpty() ? category : "General");
+
+        String brand = FormMappingUtils.getFieldValue(formData, labelToIdMap, "brand", "Brand", "Manufacturer", "brandName", "brand_name");
+        product.setBrand(brand != null && !brand.isEmpty() ? brand : "Unknown");
+
+        String sku = FormMappingUtils.getFieldValue(formData, labelToIdMap, "sku", "SKU", "Product Code", "productCode", "product_code", "Code");
+        product.setSku(sku != null && !sku.isEmpty() ? sku : "N/A");
+
+        Double price = FormMappingUtils.getDoubleValue(formData, labelToIdMap, "price", "Price", "Cost", "Amount", "unitPrice", "unit_price");
+        product.setPrice(price != null ? price : 0.0);
+
+        Integer stock = FormMappingUtils.getIntegerValue(formData, labelToIdMap, "stock", "Stock", "Quantity", "Available", "Inventory", "stockQuantity", "stock_quantity");
+        product.setStock(stock != null ? stock : 0);
+
+        product.setImageUrl(FormMappingUtils.getFieldValue(formData, labelToIdMap, "imageUrl", "image_url", "Image URL", "Image", "Picture", "Photo"));
+        product.setWeight(FormMappingUtils.getDoubleValue(formData, labelToIdMap, "weight", "Weight", "productWeight", "product_weight"));
+        product.setDimensions(FormMappingUtils.getFieldValue(formData, labelToIdMap, "dimensions", "Dimensions", "Size", "productDimensions", "product_dimensions"));
+
+        return product;
+    }
+}
@@ -0,0 +1,48 @@
+package com.oss2.benchmarks.fixtures;
+
+import com.oss2.common.form.mapping.EntityFieldSet;
+import com.oss2.common.form.mapping.ResolvedFields;
+import com.oss2.common.form.schema.CompiledSchema;
+
+import java.util.Map;
+
+/**
+ * Hand-written mapper on top of a compiled resolution plan, i.e. the best a
+ * per-entity mapper can do without the binder
+ */
+public final class PlanBookMapper {
+
+    public static final EntityFieldSet BOOK_FIELDS = EntityFieldSet.builder("book")
+            .field("title", "title", "Title", "Book Title", "Name", "Book Name")
+            .field("author", "author", "Author", "Author Name", "Writer")
+            .field("isbn", "isbn", "ISBN", "ISBN Number", "ISBN Code")
+            .field("price", "price", "Price", "Cost", "Amount")
+            .field("stock", "stock", "Stock", "Quantity", "Available", "Inventory")
+            .build();
+
+    private PlanBookMapper() {
+    }
+
+    public static BenchBook map(Map<String, Object> formData, CompiledSchema schema) {
+        ResolvedFields fields = schema.planFor(BOOK_FIELDS).resolve(formData);
+
+        BenchBook book = new BenchBook();
+
+        String title = fields.getString(0);
+        book.setTitle(title != null && !title.isEmpty() ? title : "Draft Book (from Form)");
+
+        String author = fields.getString(1);
+        book.setAuthor(author != null && !author.isEmpty() ? author : "Unknown Author");
+
+        String isbn = fields.getString(2);
+        book.setIsbn(isbn != null && !isbn.isEmpty() ? isbn : "N/A");
+
+        Double price = fields.getDouble("price");
+        book.setPrice(price != null ? price : 0.0);
+
+        Integer stock = fields.getInteger("stock");
+        book.setStock(stock != null ? stock : 0);
+
+        return book;
+    }
+}
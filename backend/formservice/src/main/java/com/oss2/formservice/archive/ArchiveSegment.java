@@ -0,0 +1,118 @@
+package com.oss2.formservice.archive;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.oss2.formservice.model.FormSubmission;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * One archived month: a data file of gzip blocks and the index of those blocks.
+ * <p>
+ * Every block holds up to {@code block-rows} submissions of a single form as NDJSON, in
+ * (submittedAt, id) order, and is an independent gzip member, so one block can be read without
+ * touching the rest of the file. The index (a few dozen bytes per block) is held in memory.
+ */
+final class ArchiveSegment {
+
+    static final String DATA_SUFFIX = ".seg";
+    static final String INDEX_SUFFIX = ".idx";
+
+    final YearMonth month;
+    private final Path dataFile;
+    private final Map<Long, List<Block>> blocksByForm;
+
+    private ArchiveSegment(YearMonth month, Path dataFile, Map<Long, List<Block>> blocksByForm) {
+        this.month = month;
+        this.dataFile = dataFile;
+        this.blocksByForm = blocksByForm;
+    }
+
+    static ArchiveSegment open(Path indexFile, ObjectMapper objectMapper) throws IOException {
+        Index index = objectMapper.readValue(indexFile.toFile(), Index.class);
+        Map<Long, List<Block>> byForm = new HashMap<>();
+        for (Block block : index.blocks()) {
+            byForm.computeIfAbsent(block.formSchemaId(), id -> new ArrayList<>()).add(block);
+        }
+        String name = indexFile.getFileName().toString();
+        Path dataFile = indexFile.resolveSibling(name.substring(0, name.length() - INDEX_SUFFIX.length()) + DATA_SUFFIX);
+        return new ArchiveSegment(YearMonth.parse(index.month()), dataFile, byForm);
+    }
+
+    /**
+     * Start of the month after this one: every archived row is strictly before it
+     */
+    LocalDateTime end() {
+        return month.plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    List<Block> blocks(Long formSchemaId) {
+        return blocksByForm.getOrDefault(formSchemaId, List.of());
+    }
+
+    /**
+     * The block of a form whose key range holds (at, id), or null. A form's blocks are in key
+     * order and do not overlap, so this is a binary search.
+     */
+    Block blockOf(Long formSchemaId, LocalDateTime at, long id) {
+        List<Block> blocks = blocks(formSchemaId);
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Block block = blocks.get(mid);
+            if (compare(block.lastAt(), block.lastId(), at, id) < 0) {
+                low = mid + 1;
+            } else if (compare(block.firstAt(), block.firstId(), at, id) > 0) {
+                high = mid - 1;
+            } else {
+                return block;
+            }
+        }
+        return null;
+    }
+
+    List<FormSubmission> read(Block block, ObjectReader reader) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(block.length());
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, block.offset() + buffer.position()) < 0) {
+                    throw new EOFException("Archive segment " + dataFile + " is truncated");
+                }
+            }
+        }
+        try (MappingIterator<FormSubmission> rows =
+                     reader.readValues(new GZIPInputStream(new ByteArrayInputStream(buffer.array())))) {
+            return rows.readAll(new ArrayList<>(block.count()));
+        }
+    }
+
+    private static int compare(LocalDateTime at, long id, LocalDateTime otherAt, long otherId) {
+        int order = at.compareTo(otherAt);
+        return order != 0 ? order : Long.compare(id, otherId);
+    }
+
+    /**
+     * Location and key range of one block
+     */
+    record Block(long formSchemaId, int count, long offset, int length,
+                 LocalDateTime firstAt, long firstId, LocalDateTime lastAt, long lastId) {
+    }
+
+    record Index(String month, List<Block> blocks) {
+    }
+}
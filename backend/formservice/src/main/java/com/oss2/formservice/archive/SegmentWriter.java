@@ -0,0 +1,96 @@
+package com.oss2.formservice.archive;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Appends submissions, ordered by (formSchemaId, submittedAt, id), to a segment data file as
+ * gzip blocks of one form each, and collects the block index
+ */
+final class SegmentWriter {
+
+    private final FileChannel out;
+    private final JsonFactory jsonFactory;
+    private final int blockRows;
+    private final List<ArchiveSegment.Block> blocks = new ArrayList<>();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+
+    private long offset;
+    private JsonGenerator json;
+    private long formSchemaId;
+    private int count;
+    private LocalDateTime firstAt;
+    private long firstId;
+    private LocalDateTime lastAt;
+    private long lastId;
+
+    SegmentWriter(FileChannel out, JsonFactory jsonFactory, int blockRows) {
+        this.out = out;
+        this.jsonFactory = jsonFactory;
+        this.blockRows = blockRows;
+    }
+
+    void add(long id, long formSchemaId, String submissionData, String submittedBy, LocalDateTime submittedAt,
+             String schemaVersion) throws IOException {
+        if (json != null && (formSchemaId != this.formSchemaId || count == blockRows)) {
+            finishBlock();
+        }
+        if (json == null) {
+            json = jsonFactory.createGenerator(new GZIPOutputStream(buffer));
+            json.setRootValueSeparator(null);
+            this.formSchemaId = formSchemaId;
+            firstAt = submittedAt;
+            firstId = id;
+        }
+        json.writeStartObject();
+        json.writeNumberField("id", id);
+        json.writeNumberField("formSchemaId", formSchemaId);
+        json.writeStringField("submissionData", submissionData);
+        json.writeStringField("submittedBy", submittedBy);
+        json.writeStringField("submittedAt", submittedAt.toString());
+        if (schemaVersion != null) {
+            json.writeStringField("schemaVersion", schemaVersion);
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+        count++;
+        lastAt = submittedAt;
+        lastId = id;
+    }
+
+    /**
+     * Write the last block
+     *
+     * @return the index of every block written
+     */
+    List<ArchiveSegment.Block> finish() throws IOException {
+        if (json != null) {
+            finishBlock();
+        }
+        return blocks;
+    }
+
+    private void finishBlock() throws IOException {
+        // Closing the generator closes the gzip stream, which writes its trailer
+        json.close();
+        json = null;
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        int length = bytes.remaining();
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+        blocks.add(new ArchiveSegment.Block(formSchemaId, count, offset, length, firstAt, firstId, lastAt, lastId));
+        offset += length;
+        buffer.reset();
+        count = 0;
+    }
+}
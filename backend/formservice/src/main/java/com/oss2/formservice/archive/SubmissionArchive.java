@@ -0,0 +1,258 @@
+package com.oss2.formservice.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.oss2.formservice.model.FormSubmission;
+import com.oss2.formservice.model.SubmissionKey;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Cold storage for submissions of months whose partitions were dropped from the database.
+ * <p>
+ * Each month is one immutable segment ({@code submissions-yyyy-MM.seg} plus its {@code .idx}) in
+ * the archive directory. A segment is written to temporary files and becomes visible only when
+ * its index is renamed into place, so a crash never leaves a half-written month readable.
+ * Reads use the in-memory index to open only the blocks of the requested form that can hold
+ * rows after the cursor, or, for reads by key, the blocks holding those keys.
+ */
+@Slf4j
+@Component
+public class SubmissionArchive {
+
+    private static final String PREFIX = "submissions-";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Path dir;
+    private final int blockRows;
+
+    // Replaced, never modified, so readers iterate without locking
+    private volatile NavigableMap<YearMonth, ArchiveSegment> segments = new TreeMap<>();
+
+    // Partitions are copied out through a server-side cursor, so on the export data source
+    public SubmissionArchive(@Qualifier("exportDataSource") DataSource exportDataSource, ObjectMapper objectMapper,
+                             @Value("${oss2.submissions.archive.dir:./data/submission-archive}") String dir,
+                             @Value("${oss2.submissions.archive.block-rows:1000}") int blockRows) {
+        this.jdbcTemplate = new JdbcTemplate(exportDataSource);
+        this.objectMapper = objectMapper;
+        this.dir = Paths.get(dir);
+        this.blockRows = Math.max(1, blockRows);
+    }
+
+    @PostConstruct
+    void load() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        NavigableMap<YearMonth, ArchiveSegment> loaded = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TMP_SUFFIX)) {
+                    // Left over from an interrupted export; the month is still in the database
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(ArchiveSegment.INDEX_SUFFIX)) {
+                    ArchiveSegment segment = ArchiveSegment.open(file, objectMapper);
+                    loaded.put(segment.month, segment);
+                }
+            }
+        }
+        segments = loaded;
+        if (!loaded.isEmpty()) {
+            log.info("Loaded {} archived submission months ({} to {})", loaded.size(), loaded.firstKey(), loaded.lastKey());
+        }
+    }
+
+    public boolean contains(YearMonth month) {
+        return segments.containsKey(month);
+    }
+
+    /**
+     * Start of the month after the newest archived one, or null when nothing is archived.
+     * Archived submissions are all older than this; submissions in the database are not.
+     */
+    public LocalDateTime horizon() {
+        NavigableMap<YearMonth, ArchiveSegment> current = segments;
+        return current.isEmpty() ? null : current.lastEntry().getValue().end();
+    }
+
+    /**
+     * Copy one month partition of {@code form_submissions} into a new segment.
+     * Does nothing if the month is already archived.
+     */
+    public synchronized void export(YearMonth month, String partition) throws IOException {
+        if (contains(month)) {
+            return;
+        }
+        Files.createDirectories(dir);
+        String name = PREFIX + month;
+        Path dataFile = dir.resolve(name + ArchiveSegment.DATA_SUFFIX);
+        Path indexFile = dir.resolve(name + ArchiveSegment.INDEX_SUFFIX);
+        Path dataTmp = dir.resolve(name + ArchiveSegment.DATA_SUFFIX + TMP_SUFFIX);
+        Path indexTmp = dir.resolve(name + ArchiveSegment.INDEX_SUFFIX + TMP_SUFFIX);
+
+        List<ArchiveSegment.Block> blocks;
+        try (FileChannel out = FileChannel.open(dataTmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            SegmentWriter writer = new SegmentWriter(out, objectMapper.getFactory(), blockRows);
+            // The (form_schema_id, submitted_at, id) index of the partition gives the order without a sort
+            String sql = "SELECT id, form_schema_id, submission_data, submitted_by, submitted_at, schema_version"
+                    + " FROM form_submissions PARTITION (" + partition + ")"
+                    + " ORDER BY form_schema_id, submitted_at, id";
+            try {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(sql,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(blockRows);
+                    return statement;
+                }, (RowCallbackHandler) rs -> {
+                    try {
+                        writer.add(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4),
+                                rs.getObject(5, LocalDateTime.class), rs.getString(6));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            blocks = writer.finish();
+            out.force(true);
+        }
+        objectMapper.writeValue(indexTmp.toFile(), new ArchiveSegment.Index(month.toString(), blocks));
+        try (FileChannel index = FileChannel.open(indexTmp, StandardOpenOption.WRITE)) {
+            index.force(true);
+        }
+        // Data first, index last: the index is what makes the month visible
+        Files.move(dataTmp, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indexTmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        NavigableMap<YearMonth, ArchiveSegment> updated = new TreeMap<>(segments);
+        updated.put(month, ArchiveSegment.open(indexFile, objectMapper));
+        segments = updated;
+        log.info("Archived submissions of {} ({} blocks) to {}", month, blocks.size(), dataFile);
+    }
+
+    /**
+     * Archived submissions of a form strictly after (afterAt, afterId), oldest first
+     *
+     * @param afterAt null to start at the oldest archived submission
+     * @param limit   maximum number of submissions returned
+     */
+    public List<FormSubmission> read(Long formSchemaId, LocalDateTime afterAt, Long afterId, int limit) {
+        List<FormSubmission> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        ObjectReader reader = objectMapper.readerFor(FormSubmission.class);
+        for (ArchiveSegment segment : segments.values()) {
+            if (afterAt != null && !segment.end().isAfter(afterAt)) {
+                continue;
+            }
+            for (ArchiveSegment.Block block : segment.blocks(formSchemaId)) {
+                if (afterAt != null && !isAfter(block.lastAt(), block.lastId(), afterAt, afterId)) {
+                    continue;
+                }
+                for (FormSubmission submission : readBlock(segment, block, reader)) {
+                    if (afterAt == null || isAfter(submission.getSubmittedAt(), submission.getId(), afterAt, afterId)) {
+                        result.add(submission);
+                        if (result.size() == limit) {
+                            return result;
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Archived submissions of a form with the given keys, in the order given; keys that are not
+     * archived are skipped. Only the blocks holding one of the keys are read, each once when the
+     * keys are in order.
+     */
+    public List<FormSubmission> read(Long formSchemaId, List<SubmissionKey> keys) {
+        List<FormSubmission> result = new ArrayList<>(keys.size());
+        NavigableMap<YearMonth, ArchiveSegment> current = segments;
+        ObjectReader reader = objectMapper.readerFor(FormSubmission.class);
+        ArchiveSegment.Block loaded = null;
+        List<FormSubmission> rows = List.of();
+        for (SubmissionKey key : keys) {
+            ArchiveSegment segment = current.get(YearMonth.from(key.submittedAt()));
+            ArchiveSegment.Block block = segment == null ? null
+                    : segment.blockOf(formSchemaId, key.submittedAt(), key.id());
+            if (block == null) {
+                continue;
+            }
+            if (block != loaded) {
+                rows = readBlock(segment, block, reader);
+                loaded = block;
+            }
+            for (FormSubmission submission : rows) {
+                if (key.id().equals(submission.getId())) {
+                    result.add(submission);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Visit every archived submission of a form, oldest first, one block in memory at a time
+     */
+    public void forEach(Long formSchemaId, Visitor visitor) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(FormSubmission.class);
+        for (ArchiveSegment segment : segments.values()) {
+            for (ArchiveSegment.Block block : segment.blocks(formSchemaId)) {
+                for (FormSubmission submission : segment.read(block, reader)) {
+                    visitor.visit(submission);
+                }
+            }
+        }
+    }
+
+    private static List<FormSubmission> readBlock(ArchiveSegment segment, ArchiveSegment.Block block, ObjectReader reader) {
+        try {
+            return segment.read(block, reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archived submissions of " + segment.month, e);
+        }
+    }
+
+    private static boolean isAfter(LocalDateTime at, long id, LocalDateTime afterAt, Long afterId) {
+        int order = at.compareTo(afterAt);
+        return order > 0 || (order == 0 && afterId != null && id > afterId);
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(FormSubmission submission) throws IOException;
+    }
+}
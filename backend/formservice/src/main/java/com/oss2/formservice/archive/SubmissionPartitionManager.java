@@ -0,0 +1,181 @@
+package com.oss2.formservice.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Monthly RANGE partitions on {@code submitted_at} for the submission tables, and archiving of
+ * old months.
+ * <p>
+ * On first run each table is converted to one partition per month (plus a catch-all
+ * {@code p_future}); afterwards partitions are added {@code months-ahead} in advance by
+ * splitting {@code p_future}, which is empty and therefore cheap to reorganize. With archiving
+ * enabled, months older than {@code archive.after-months} are exported to
+ * {@link SubmissionArchive} and their submission partitions dropped, which is a metadata operation
+ * rather than a large DELETE. The hot table then only holds recent months. Context rows of archived
+ * months are kept: they are small, and lookups by context find archived submissions through them
+ * instead of scanning the archive.
+ * <p>
+ * MySQL requires the partitioning column in every unique key, so the primary keys become
+ * (id, submitted_at); ids stay unique because they are allocated centrally.
+ */
+@Slf4j
+@Component
+public class SubmissionPartitionManager {
+
+    static final String FUTURE = "p_future";
+    private static final String SUBMISSIONS = "form_submissions";
+    private static final List<String> TABLES = List.of(SUBMISSIONS, "form_submission_context");
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SubmissionArchive archive;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final boolean archiveEnabled;
+    private final int archiveAfterMonths;
+
+    public SubmissionPartitionManager(JdbcTemplate jdbcTemplate, SubmissionArchive archive,
+                                      @Value("${oss2.submissions.partitions.enabled:false}") boolean enabled,
+                                      @Value("${oss2.submissions.partitions.months-ahead:3}") int monthsAhead,
+                                      @Value("${oss2.submissions.archive.enabled:false}") boolean archiveEnabled,
+                                      @Value("${oss2.submissions.archive.after-months:12}") int archiveAfterMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archive = archive;
+        this.enabled = enabled;
+        this.monthsAhead = Math.max(1, monthsAhead);
+        this.archiveEnabled = archiveEnabled;
+        // The current month is never archived
+        this.archiveAfterMonths = Math.max(1, archiveAfterMonths);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${oss2.submissions.partitions.maintenance-cron:0 30 3 * * *}")
+    public synchronized void maintain() {
+        if (!enabled) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        try {
+            YearMonth first = oldestMonth(current);
+            for (String table : TABLES) {
+                ensurePartitions(table, first, current.plusMonths(monthsAhead));
+            }
+        } catch (DataAccessException e) {
+            log.error("Could not maintain submission partitions", e);
+            return;
+        }
+        if (archiveEnabled) {
+            try {
+                archiveBefore(current.minusMonths(archiveAfterMonths - 1L));
+            } catch (DataAccessException e) {
+                log.error("Could not drop archived submission partitions", e);
+            }
+        }
+    }
+
+    /**
+     * Archive and drop every month partition older than {@code cutoff}, oldest first
+     */
+    void archiveBefore(YearMonth cutoff) {
+        for (YearMonth month : partitionMonths(SUBMISSIONS)) {
+            if (!month.isBefore(cutoff)) {
+                break;
+            }
+            String partition = PARTITION_NAME.format(month);
+            try {
+                // Skipped when a previous run exported the month but stopped before dropping it
+                archive.export(month, partition);
+            } catch (IOException | RuntimeException e) {
+                log.error("Could not archive submissions of {}; partition {} is kept", month, partition, e);
+                return;
+            }
+            jdbcTemplate.execute("ALTER TABLE " + SUBMISSIONS + " DROP PARTITION " + partition);
+            log.info("Dropped submission partition {} after archiving", partition);
+        }
+    }
+
+    private void ensurePartitions(String table, YearMonth first, YearMonth last) {
+        List<YearMonth> months = partitionMonths(table);
+        if (months.isEmpty() && !hasPartition(table, FUTURE)) {
+            partition(table, first, last);
+            return;
+        }
+        YearMonth from = months.isEmpty() ? YearMonth.now() : months.get(months.size() - 1).plusMonths(1);
+        if (from.isAfter(last)) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + table + " REORGANIZE PARTITION " + FUTURE
+                + " INTO (" + definitions(from, last) + ")");
+        log.info("Added partitions {} to {} of {}", from, last, table);
+    }
+
+    private void partition(String table, YearMonth first, YearMonth last) {
+        log.info("Partitioning {} by month from {} (rebuilds the table)", table, first);
+        // Rows without a time cannot be placed by it; they go to the oldest month
+        jdbcTemplate.update("UPDATE " + table + " SET submitted_at = ? WHERE submitted_at IS NULL",
+                Timestamp.valueOf(first.atDay(1).atStartOfDay()));
+        jdbcTemplate.execute("ALTER TABLE " + table
+                + " MODIFY submitted_at DATETIME(6) NOT NULL,"
+                + " DROP PRIMARY KEY, ADD PRIMARY KEY (id, submitted_at)"
+                + " PARTITION BY RANGE COLUMNS(submitted_at) (" + definitions(first, last) + ")");
+    }
+
+    private YearMonth oldestMonth(YearMonth current) {
+        LocalDateTime oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(submitted_at) FROM " + SUBMISSIONS, LocalDateTime.class);
+        return oldest == null ? current : YearMonth.from(oldest);
+    }
+
+    /**
+     * Months of the named monthly partitions of a table, oldest first; empty if not partitioned
+     */
+    private List<YearMonth> partitionMonths(String table) {
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : partitionNames(table)) {
+            if (!FUTURE.equals(name)) {
+                months.add(YearMonth.parse(name, PARTITION_NAME));
+            }
+        }
+        return months;
+    }
+
+    private boolean hasPartition(String table, String partition) {
+        return partitionNames(table).contains(partition);
+    }
+
+    private List<String> partitionNames(String table) {
+        return jdbcTemplate.queryForList("SELECT PARTITION_NAME FROM information_schema.PARTITIONS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL"
+                + " ORDER BY PARTITION_ORDINAL_POSITION", String.class, table);
+    }
+
+    private static String definitions(YearMonth from, YearMonth to) {
+        StringBuilder sql = new StringBuilder();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            sql.append("PARTITION ").append(PARTITION_NAME.format(month))
+                    .append(" VALUES LESS THAN ('").append(BOUND.format(month.plusMonths(1).atDay(1).atStartOfDay()))
+                    .append("'), ");
+        }
+        return sql.append("PARTITION ").append(FUTURE).append(" VALUES LESS THAN (MAXVALUE)").toString();
+    }
+}
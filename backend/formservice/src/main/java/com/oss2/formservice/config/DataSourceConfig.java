@@ -0,0 +1,38 @@
+package com.oss2.formservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * The application data source, plus a small pool on the same database for long sequential reads
+ * (exports, NDJSON streams, archiving, index rebuilds).
+ * <p>
+ * Only the export pool sets {@code useCursorFetch}: MySQL then honours the fetch size with a
+ * server-side cursor instead of buffering the whole result, but the driver also turns every
+ * statement on those connections into a server-side prepare, which request paths should not pay for.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public HikariDataSource exportDataSource(DataSourceProperties properties,
+                                             @Value("${oss2.submissions.export.pool-size:4}") int poolSize) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("export");
+        dataSource.setMaximumPoolSize(Math.max(1, poolSize));
+        dataSource.addDataSourceProperty("useCursorFetch", "true");
+        return dataSource;
+    }
+}
@@ -1,13 +1,28 @@
 package com.oss2.formservice.controller;
 
+import com.oss2.formservice.model.FormDetail;
 import com.oss2.formservice.model.FormSchema;
+import com.oss2.formservice.model.FormSchemaStamp;
+import com.oss2.formservice.model.FormSchemaVersion;
+import com.oss2.formservice.model.FormSummary;
 import com.oss2.formservice.repository.FormSchemaRepository;
+import com.oss2.formservice.service.FormSchemaVersionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import java.time.Duration;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/forms")
@@ -15,9 +30,15 @@ import java.util.Optional;
 @CrossOrigin(origins = "http://localhost:3000")
 public class FormController {
 
+    // Most ids per multi-get: keeps the IN list and the response bounded
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
     private final FormSchemaRepository formSchemaRepository;
+    private final FormSchemaVersionService versionService;
 
     // Create or update form schema (logic for singleton pattern)
+    // Every save records the schema as an immutable version (see GET /{id}/versions/{version})
     @PostMapping
     public ResponseEntity<FormSchema> createOrUpdateForm(@RequestBody FormSchema formSchema) {
         // Check if form with this context already exists
@@ -28,40 +49,96 @@ public class FormController {
             FormSchema existingForm = existing.get();
             existingForm.setTitle(formSchema.getTitle());
             existingForm.setSchemaJson(formSchema.getSchemaJson());
-            FormSchema saved = formSchemaRepository.save(existingForm);
+            FormSchema saved = versionService.save(existingForm);
             return ResponseEntity.ok(saved);
         } else {
             // Create new form
             formSchema.setCreatedBy("system"); // TODO: Replace with actual user when auth is enabled
-            FormSchema saved = formSchemaRepository.save(formSchema);
+            formSchema.setSchemaVersion(null);
+            FormSchema saved = versionService.save(formSchema);
             return ResponseEntity.ok(saved);
         }
     }
 
-    // Get all active forms, optionally filtered by context
+    // Get all active forms, optionally filtered by context, or the forms with the given ids (?ids=1,2,3)
+    // Conditional: answers If-None-Match with 304 from version columns, before any schema JSON is read
     @GetMapping
-    public ResponseEntity<List<FormSchema>> getAllForms(@RequestParam(required = false) String context) {
+    public ResponseEntity<List<FormDetail>> getAllForms(@RequestParam(required = false) String context,
+                                                        @RequestParam(required = false) List<Long> ids,
+                                                        WebRequest request) {
+        if (ids != null) {
+            return getForms(ids);
+        }
         if (context != null && !context.isEmpty()) {
+            Optional<FormSchemaStamp> stamp = formSchemaRepository.findStampByContext(context);
+            if (stamp.isPresent() && request.checkNotModified(FormETags.of(stamp.get()))) {
+                return notModified(FormETags.of(stamp.get()));
+            }
             return formSchemaRepository.findByContextAndActiveTrue(context)
-                    .map(form -> ResponseEntity.ok(List.of(form)))
+                    .map(form -> ResponseEntity.ok().eTag(FormETags.of(form)).body(List.of(FormDetail.of(form))))
                     .orElse(ResponseEntity.ok(List.of()));
         }
-        return ResponseEntity.ok(formSchemaRepository.findByActiveTrue());
+        String etag = FormETags.of(formSchemaRepository.findActiveListStamp());
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(formSchemaRepository.findActiveDetails());
+    }
+
+    // Multi-get: one IN query for up to MAX_BATCH_SIZE ids; unknown ids are left out, the rest come in the order asked for
+    private ResponseEntity<List<FormDetail>> getForms(List<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (distinct.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        Map<Long, FormDetail> found = formSchemaRepository.findDetailsByIdIn(distinct).stream()
+                .collect(Collectors.toMap(FormDetail::id, Function.identity()));
+        return ResponseEntity.ok(distinct.stream().map(found::get).filter(Objects::nonNull).toList());
+    }
+
+    // Active forms without their schema JSON, for lists and pickers (a few hundred bytes per form)
+    // Conditional like the full list: same ETag, since both change together
+    @GetMapping("/summary")
+    public ResponseEntity<List<FormSummary>> getFormSummaries(WebRequest request) {
+        String etag = FormETags.of(formSchemaRepository.findActiveListStamp());
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(formSchemaRepository.findActiveSummaries());
     }
 
     // Get form by context (singleton pattern - returns single form)
     @GetMapping("/by-context/{context}")
-    public ResponseEntity<FormSchema> getFormByContext(@PathVariable String context) {
+    public ResponseEntity<FormSchema> getFormByContext(@PathVariable String context, WebRequest request) {
+        Optional<FormSchemaStamp> stamp = formSchemaRepository.findStampByContext(context);
+        if (stamp.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(FormETags.of(stamp.get()))) {
+            return notModified(FormETags.of(stamp.get()));
+        }
         return formSchemaRepository.findByContextAndActiveTrue(context)
-                .map(ResponseEntity::ok)
+                .map(form -> ResponseEntity.ok().eTag(FormETags.of(form)).body(form))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     // Get a specific form by ID
     @GetMapping("/{id}")
-    public ResponseEntity<FormSchema> getFormById(@PathVariable Long id) {
+    public ResponseEntity<FormSchema> getFormById(@PathVariable Long id, WebRequest request) {
+        Optional<FormSchemaStamp> stamp = formSchemaRepository.findStampById(id);
+        if (stamp.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(FormETags.of(stamp.get()))) {
+            return notModified(FormETags.of(stamp.get()));
+        }
+        // The ETag is taken from the loaded row, so it always matches the body even after a concurrent update
         return formSchemaRepository.findById(id)
-                .map(ResponseEntity::ok)
+                .map(form -> ResponseEntity.ok().eTag(FormETags.of(form)).body(form))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -75,11 +152,33 @@ public class FormController {
                     existing.setTitle(formSchema.getTitle());
                     existing.setSchemaJson(formSchema.getSchemaJson());
                     existing.setContext(formSchema.getContext());
-                    return ResponseEntity.ok(formSchemaRepository.save(existing));
+                    return ResponseEntity.ok(versionService.save(existing));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Schema versions of a form, newest first
+    @GetMapping("/{id}/versions")
+    public ResponseEntity<List<FormSchemaVersion>> getFormVersions(@PathVariable Long id) {
+        if (!formSchemaRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(versionService.list(id));
+    }
+
+    // One schema version by its content hash (the form's schemaVersion). Versions never change,
+    // so the response may be cached without expiry and never needs revalidation.
+    @GetMapping("/{id}/versions/{version}")
+    public ResponseEntity<FormSchemaVersion> getFormVersion(@PathVariable Long id, @PathVariable String version,
+                                                            WebRequest request) {
+        if (request.checkNotModified(version)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(version).cacheControl(IMMUTABLE).build();
+        }
+        return versionService.find(id, version)
+                .map(found -> ResponseEntity.ok().eTag(version).cacheControl(IMMUTABLE).body(found))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     // Delete (soft delete) a form
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteForm(@PathVariable Long id) {
@@ -91,4 +190,8 @@ public class FormController {
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
-}
\ No newline at end of file
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.oss2.formservice.controller;
+
+import com.oss2.formservice.model.FormListStamp;
+import com.oss2.formservice.model.FormSchema;
+import com.oss2.formservice.model.FormSchemaStamp;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Strong ETags for form schemas, built from version columns only so they can be
+ * computed (and 304s answered) without reading the schema JSON
+ */
+final class FormETags {
+
+    private FormETags() {
+    }
+
+    static String of(FormSchemaStamp stamp) {
+        return of(stamp.getId(), stamp.getUpdatedAt());
+    }
+
+    static String of(FormSchema form) {
+        return of(form.getId(), form.getUpdatedAt());
+    }
+
+    static String of(FormListStamp stamp) {
+        return "\"forms-" + stamp.count() + "-" + (stamp.idSum() != null ? stamp.idSum() : 0)
+                + "-" + micros(stamp.lastUpdatedAt()) + "\"";
+    }
+
+    private static String of(Long id, LocalDateTime updatedAt) {
+        return "\"form-" + id + "-" + micros(updatedAt) + "\"";
+    }
+
+    private static long micros(LocalDateTime time) {
+        if (time == null) {
+            return 0;
+        }
+        // Column precision is microseconds; finer digits would not survive a round trip through the database
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+}
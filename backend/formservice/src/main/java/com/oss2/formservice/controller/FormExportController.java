@@ -0,0 +1,46 @@
+package com.oss2.formservice.controller;
+
+import com.oss2.formservice.export.SubmissionExporter;
+import com.oss2.formservice.repository.FormSchemaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/forms/{formId}/export")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class FormExportController {
+
+    private final SubmissionExporter exporter;
+    private final FormSchemaRepository formSchemaRepository;
+
+    // All submissions of a form as a gzipped download, one column per schema field
+    // Example: GET /api/forms/5/export?format=csv (or format=columnar for column-major row groups)
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable Long formId,
+            @RequestParam(defaultValue = "csv") String format) {
+        SubmissionExporter.Format exportFormat;
+        try {
+            exportFormat = SubmissionExporter.Format.of(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!formSchemaRepository.existsById(formId)) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> exporter.export(formId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(exportFormat.fileName(formId))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
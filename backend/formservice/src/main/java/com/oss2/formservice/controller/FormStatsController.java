@@ -0,0 +1,38 @@
+package com.oss2.formservice.controller;
+
+import com.oss2.formservice.service.SubmissionService;
+import com.oss2.formservice.service.SubmissionStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/forms/{formId}/stats")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class FormStatsController {
+
+    private final SubmissionStatsService statsService;
+    private final SubmissionService submissionService;
+
+    // Submission count, numeric field count/sum/min/max/avg and choice histograms of a form
+    // Example: GET /api/forms/5/stats?contextKey=bookId&contextValue=42 for one book only
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStats(
+            @PathVariable Long formId,
+            @RequestParam(required = false) String contextKey,
+            @RequestParam(required = false) String contextValue) {
+        if (contextKey != null && !contextKey.isEmpty() && contextValue == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(statsService.read(formId, contextKey, contextValue));
+    }
+
+    // Recompute the statistics of a form from its stored submissions
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Long>> rebuildStats(@PathVariable Long formId) {
+        return ResponseEntity.ok(Map.of("processed", submissionService.rebuildStats(formId)));
+    }
+}
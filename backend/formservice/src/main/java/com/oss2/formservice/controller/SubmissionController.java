@@ -1,33 +1,145 @@
 package com.oss2.formservice.controller;
 import com.oss2.formservice.model.FormSubmission;
-import com.oss2.formservice.repository.FormSubmissionRepository;
+import com.oss2.formservice.model.SubmissionPage;
+import com.oss2.formservice.model.SubmissionSearchResult;
+import com.oss2.formservice.search.SubmissionSearchIndex;
+import com.oss2.formservice.service.IngestQueueFullException;
+import com.oss2.formservice.service.SubmissionIngestor;
+import com.oss2.formservice.service.SubmissionService;
+import com.oss2.formservice.validation.SubmissionValidationException;
+import com.oss2.formservice.validation.SubmissionValidatorCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.util.Map;
 @RestController
 @RequestMapping("/api/submissions")
 @RequiredArgsConstructor
 @CrossOrigin(origins = "http://localhost:3000")
 public class SubmissionController {
     
-    private final FormSubmissionRepository submissionRepository;
+    private final SubmissionService submissionService;
+    private final SubmissionIngestor submissionIngestor;
+    private final SubmissionValidatorCache validatorCache;
+    private final SubmissionSearchIndex searchIndex;
     
+    // Submissions are checked against the form's schema first; invalid ones get a 400 listing the fields.
+    // With group-commit ingestion enabled, "Prefer: respond-async" gets a 202 with the assigned id
+    // without waiting for the write; a full ingestion queue answers 503 with Retry-After
     @PostMapping
     public ResponseEntity<FormSubmission> submitForm(
             @RequestBody FormSubmission submission,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
             Authentication authentication) {
         submission.setSubmittedBy(authentication.getName());
-        FormSubmission saved = submissionRepository.save(submission);
-        return ResponseEntity.ok(saved);
+        submission.setSchemaVersion(validatorCache.validate(submission));
+        if (!submissionIngestor.isEnabled()) {
+            FormSubmission saved = submissionService.submit(submission);
+            return ResponseEntity.ok(saved);
+        }
+        try {
+            boolean async = prefer != null && prefer.contains("respond-async");
+            SubmissionIngestor.Accepted accepted = submissionIngestor.submit(submission, async);
+            if (accepted.committed() && !async) {
+                return ResponseEntity.ok(accepted.submission());
+            }
+            return ResponseEntity.accepted().body(accepted.submission());
+        } catch (IngestQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
     }
     
-    @GetMapping("/form/{formSchemaId}")
-    public ResponseEntity<List<FormSubmission>> getSubmissionsByForm(
-            @PathVariable Long formSchemaId) {
-        return ResponseEntity.ok(
-            submissionRepository.findByFormSchemaId(formSchemaId)
-        );
-    }
-}
\ No newline at end of file
+    // Submissions of a form as a JSON array, optionally only those with a context value
+    // Example: GET /api/submissions/form/5?contextKey=bookId&contextValue=42
+    // Streamed, archived months included, so the array is never built in memory; prefer /page or /stream
+    @GetMapping(value = "/form/{formSchemaId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getSubmissionsByForm(
+            @PathVariable Long formSchemaId,
+            @RequestParam(required = false) String contextKey,
+            @RequestParam(required = false) String contextValue) {
+        if (contextKey != null && !contextKey.isEmpty()) {
+            try {
+                submissionService.checkContextFilter(contextKey, contextValue);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        StreamingResponseBody body = out -> submissionService.writeJsonArray(formSchemaId, contextKey, contextValue, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // Keyset-paginated submissions of a form, oldest first
+    // Example: GET /api/submissions/form/5/page?limit=100&cursor=<nextCursor of the previous page>
+    // Add contextKey/contextValue to page through one entity's submissions only
+    @GetMapping("/form/{formSchemaId}/page")
+    public ResponseEntity<SubmissionPage> getSubmissionPage(
+            @PathVariable Long formSchemaId,
+            @RequestParam(required = false) String contextKey,
+            @RequestParam(required = false) String contextValue,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(submissionService.page(formSchemaId, contextKey, contextValue, limit, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // All submissions of a form as NDJSON (one submission per line), streamed from a database cursor
+    @GetMapping(value = "/form/{formSchemaId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSubmissions(@PathVariable Long formSchemaId) {
+        StreamingResponseBody body = out -> submissionService.writeNdjson(formSchemaId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Full-text search over the free-text fields of submissions, best match first
+    // Example: GET /api/submissions/search?q=late delivery&formId=5&page=0&size=20
+    @GetMapping("/search")
+    public ResponseEntity<SubmissionSearchResult> search(
+            @RequestParam String q,
+            @RequestParam(required = false) Long formId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) throws IOException {
+        if (!searchIndex.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        try {
+            return ResponseEntity.ok(searchIndex.search(q, formId, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Re-index the stored submissions of one form, or of all forms without formId (backfill)
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Map<String, Long>> rebuildSearchIndex(@RequestParam(required = false) Long formId) throws IOException {
+        if (!searchIndex.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(Map.of("indexed", searchIndex.rebuild(formId)));
+    }
+
+    // Re-extract context rows for all submissions of a form (e.g. those stored before context indexing)
+    @PostMapping("/form/{formSchemaId}/context/rebuild")
+    public ResponseEntity<Map<String, Long>> rebuildContext(@PathVariable Long formSchemaId) {
+        return ResponseEntity.ok(Map.of("processed", submissionService.rebuildContext(formSchemaId)));
+    }
+
+    @ExceptionHandler(SubmissionValidationException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidSubmission(SubmissionValidationException e) {
+        return ResponseEntity.badRequest()
+                .body(Map.of("error", "Invalid submission", "fields", e.getFieldErrors()));
+    }
+}
@@ -0,0 +1,128 @@
+package com.oss2.formservice.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Column-major NDJSON in row groups.
+ * <p>
+ * The first line describes the columns ({@code {"columns":[{"name","field","type"}]}}); every
+ * following line is one row group of up to {@code rowGroupSize} rows with each column as one
+ * array: {@code {"rows":n,"columns":{"id":[...],"submittedAt":[...],...}}}. Values of number
+ * fields are written as JSON numbers when they parse. Only the current row group is held.
+ */
+final class ColumnarRowSink implements RowSink {
+
+    private final JsonGenerator json;
+    private final ExportColumns columns;
+    private final long[] ids;
+    private final String[] submittedAt;
+    private final String[] submittedBy;
+    private final String[][] values;
+    private int rows;
+
+    ColumnarRowSink(JsonGenerator json, ExportColumns columns, int rowGroupSize) throws IOException {
+        this.json = json;
+        this.columns = columns;
+        this.ids = new long[rowGroupSize];
+        this.submittedAt = new String[rowGroupSize];
+        this.submittedBy = new String[rowGroupSize];
+        this.values = new String[columns.size()][rowGroupSize];
+
+        json.setRootValueSeparator(null);
+        json.writeStartObject();
+        json.writeArrayFieldStart("columns");
+        writeColumn(SubmissionExporter.FIXED_COLUMNS[0], null, "number");
+        writeColumn(SubmissionExporter.FIXED_COLUMNS[1], null, "string");
+        writeColumn(SubmissionExporter.FIXED_COLUMNS[2], null, "string");
+        for (int c = 0; c < columns.size(); c++) {
+            writeColumn(columns.names[c], columns.fieldIds[c], columns.numeric[c] ? "number" : "string");
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    @Override
+    public void row(long id, LocalDateTime at, String by, String[] rowValues) throws IOException {
+        ids[rows] = id;
+        submittedAt[rows] = at != null ? at.toString() : null;
+        submittedBy[rows] = by;
+        for (int c = 0; c < rowValues.length; c++) {
+            values[c][rows] = rowValues[c];
+        }
+        if (++rows == ids.length) {
+            writeGroup();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (rows > 0) {
+            writeGroup();
+        }
+        json.flush();
+    }
+
+    private void writeGroup() throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("rows", rows);
+        json.writeObjectFieldStart("columns");
+        json.writeFieldName(SubmissionExporter.FIXED_COLUMNS[0]);
+        json.writeArray(ids, 0, rows);
+        writeStrings(SubmissionExporter.FIXED_COLUMNS[1], submittedAt, false);
+        writeStrings(SubmissionExporter.FIXED_COLUMNS[2], submittedBy, false);
+        for (int c = 0; c < columns.size(); c++) {
+            writeStrings(columns.names[c], values[c], columns.numeric[c]);
+        }
+        json.writeEndObject();
+        json.writeEndObject();
+        json.writeRaw('\n');
+        rows = 0;
+    }
+
+    private void writeStrings(String name, String[] column, boolean numeric) throws IOException {
+        json.writeArrayFieldStart(name);
+        for (int r = 0; r < rows; r++) {
+            String value = column[r];
+            if (value == null) {
+                json.writeNull();
+            } else if (numeric) {
+                writeNumber(value);
+            } else {
+                json.writeString(value);
+            }
+            column[r] = null;
+        }
+        json.writeEndArray();
+    }
+
+    private void writeNumber(String value) throws IOException {
+        try {
+            double number = Double.parseDouble(value.trim());
+            if (Double.isFinite(number)) {
+                if (number == Math.rint(number) && Math.abs(number) < 1e15) {
+                    json.writeNumber((long) number);
+                } else {
+                    json.writeNumber(number);
+                }
+                return;
+            }
+        } catch (NumberFormatException e) {
+            // Not a number after all; keep the text
+        }
+        json.writeString(value);
+    }
+
+    private void writeColumn(String name, String field, String type) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("name", name);
+        if (field != null) {
+            json.writeStringField("field", field);
+        }
+        json.writeStringField("type", type);
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,97 @@
+package com.oss2.formservice.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.regex.Pattern;
+
+/**
+ * RFC 4180 CSV: a header row, then one row per submission. Values are written straight through,
+ * so nothing but the writer's buffer is held.
+ * <p>
+ * Values a spreadsheet would run as a formula (starting with =, +, -, @, tab or CR) get a leading
+ * apostrophe, so an opened export shows them as text. Plain numbers such as {@code -5} or
+ * {@code +1.5e3} are left alone: a spreadsheet reads them as the same number either way.
+ */
+final class CsvRowSink implements RowSink {
+
+    private static final Pattern NUMBER = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+
+    private final Writer out;
+
+    CsvRowSink(Writer out, ExportColumns columns) throws IOException {
+        this.out = out;
+        String[] fixed = SubmissionExporter.FIXED_COLUMNS;
+        for (int i = 0; i < fixed.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            write(fixed[i]);
+        }
+        for (String name : columns.names) {
+            out.write(',');
+            write(name);
+        }
+        out.write("\r\n");
+    }
+
+    @Override
+    public void row(long id, LocalDateTime submittedAt, String submittedBy, String[] values) throws IOException {
+        out.write(Long.toString(id));
+        out.write(',');
+        write(submittedAt != null ? submittedAt.toString() : null);
+        out.write(',');
+        write(submittedBy);
+        for (String value : values) {
+            out.write(',');
+            write(value);
+        }
+        out.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+
+    private void write(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean formula = isFormulaStart(value.charAt(0)) && !NUMBER.matcher(value).matches();
+        if (!needsQuotes(value)) {
+            if (formula) {
+                out.write('\'');
+            }
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        if (formula) {
+            out.write('\'');
+        }
+        int start = 0;
+        int quote;
+        while ((quote = value.indexOf('"', start)) >= 0) {
+            out.write(value, start, quote + 1 - start);
+            out.write('"');
+            start = quote + 1;
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+    private static boolean isFormulaStart(char c) {
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
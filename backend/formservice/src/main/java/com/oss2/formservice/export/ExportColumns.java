@@ -0,0 +1,143 @@
+package com.oss2.formservice.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Export columns of a form, one per schema field, and the flattening of submission data into them.
+ * <p>
+ * Submission data is read with a token stream and each top-level value is placed in the column
+ * of its field (matched by id, then by label); keys that are not schema fields are dropped.
+ * Lists (several checkboxes) are joined with {@code ;}, nested objects kept as JSON text.
+ */
+final class ExportColumns {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    final String[] names;
+    final String[] fieldIds;
+    final boolean[] numeric;
+    private final Map<String, Integer> indexByKey;
+
+    private ExportColumns(String[] names, String[] fieldIds, boolean[] numeric, Map<String, Integer> indexByKey) {
+        this.names = names;
+        this.fieldIds = fieldIds;
+        this.numeric = numeric;
+        this.indexByKey = indexByKey;
+    }
+
+    static ExportColumns fromSchema(String schemaJson, ObjectMapper objectMapper) throws IOException {
+        List<JsonNode> fields = new ArrayList<>();
+        if (schemaJson != null && !schemaJson.isBlank()) {
+            objectMapper.readTree(schemaJson).path("fields").forEach(fields::add);
+        }
+        List<String> names = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        List<Boolean> numeric = new ArrayList<>();
+        Map<String, Integer> byKey = new HashMap<>();
+        Set<String> used = new HashSet<>(List.of(SubmissionExporter.FIXED_COLUMNS));
+        for (JsonNode field : fields) {
+            String id = field.path("id").asText("");
+            if (id.isEmpty() || byKey.containsKey(id)) {
+                continue;
+            }
+            String label = field.path("label").asText("");
+            // Labels read better in a spreadsheet; fall back to the id when a label is missing or taken
+            String name = !label.isEmpty() && used.add(label) ? label : id;
+            used.add(name);
+            byKey.put(id, ids.size());
+            names.add(name);
+            ids.add(id);
+            numeric.add("number".equals(field.path("type").asText()));
+        }
+        // Submissions may also be keyed by label; an id always wins over another field's label
+        for (JsonNode field : fields) {
+            String label = field.path("label").asText("");
+            Integer index = byKey.get(field.path("id").asText(""));
+            if (index != null && !label.isEmpty()) {
+                byKey.putIfAbsent(label, index);
+            }
+        }
+        boolean[] numericFlags = new boolean[numeric.size()];
+        for (int i = 0; i < numericFlags.length; i++) {
+            numericFlags[i] = numeric.get(i);
+        }
+        return new ExportColumns(names.toArray(new String[0]), ids.toArray(new String[0]), numericFlags, Map.copyOf(byKey));
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * Fill {@code values} (one slot per column) from submission data; absent fields become null.
+     * Data that is not a JSON object leaves every column null.
+     */
+    void flatten(String submissionData, String[] values) {
+        Arrays.fill(values, null);
+        if (submissionData == null || submissionData.isEmpty()) {
+            return;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(submissionData)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                Integer index = indexByKey.get(parser.getCurrentName());
+                JsonToken token = parser.nextToken();
+                if (index == null || values[index] != null) {
+                    parser.skipChildren();
+                } else if (token == JsonToken.START_ARRAY) {
+                    values[index] = joinArray(parser);
+                } else if (token == JsonToken.START_OBJECT) {
+                    values[index] = copyObject(parser);
+                } else if (token != JsonToken.VALUE_NULL) {
+                    values[index] = parser.getText();
+                }
+            }
+        } catch (IOException e) {
+            // Malformed data: keep whatever was read before the error
+        }
+    }
+
+    private static String joinArray(JsonParser parser) throws IOException {
+        StringBuilder joined = new StringBuilder();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token.isStructStart()) {
+                parser.skipChildren();
+                continue;
+            }
+            if (token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            if (joined.length() > 0) {
+                joined.append(';');
+            }
+            joined.append(parser.getText());
+        }
+        return joined.toString();
+    }
+
+    private static String copyObject(JsonParser parser) throws IOException {
+        StringWriter text = new StringWriter();
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(text)) {
+            json.copyCurrentStructure(parser);
+        }
+        return text.toString();
+    }
+}
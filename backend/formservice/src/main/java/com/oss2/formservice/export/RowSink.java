@@ -0,0 +1,15 @@
+package com.oss2.formservice.export;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Output format of an export; receives rows in order and must not keep more than a bounded
+ * number of them
+ */
+interface RowSink {
+
+    void row(long id, LocalDateTime submittedAt, String submittedBy, String[] values) throws IOException;
+
+    void finish() throws IOException;
+}
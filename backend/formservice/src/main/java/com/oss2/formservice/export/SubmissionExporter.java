@@ -0,0 +1,154 @@
+package com.oss2.formservice.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oss2.formservice.archive.SubmissionArchive;
+import com.oss2.formservice.repository.FormSchemaRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped CSV or columnar export of all submissions of a form, flattened into one column per
+ * schema field.
+ * <p>
+ * Rows come from the archive and then from a server-side cursor over plain JDBC on the export
+ * data source (no entities and no persistence context), are flattened one at a time and written straight into the gzip
+ * stream. Memory use is bounded by the fetch size and the columnar row group, not by the number
+ * of submissions.
+ */
+@Service
+public class SubmissionExporter {
+
+    static final String[] FIXED_COLUMNS = {"id", "submittedAt", "submittedBy"};
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String SELECT_ROWS = "SELECT id, submission_data, submitted_by, submitted_at"
+            + " FROM form_submissions WHERE form_schema_id = ? AND submitted_at >= ? ORDER BY submitted_at, id";
+    private static final String SELECT_ALL_ROWS = "SELECT id, submission_data, submitted_by, submitted_at"
+            + " FROM form_submissions WHERE form_schema_id = ? ORDER BY submitted_at, id";
+
+    private final FormSchemaRepository formSchemaRepository;
+    private final SubmissionArchive archive;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final int rowGroupSize;
+
+    public SubmissionExporter(FormSchemaRepository formSchemaRepository, SubmissionArchive archive,
+                              @Qualifier("exportDataSource") DataSource exportDataSource, ObjectMapper objectMapper,
+                              @Value("${oss2.submissions.export.fetch-size:1000}") int fetchSize,
+                              @Value("${oss2.submissions.export.row-group-size:8192}") int rowGroupSize) {
+        this.formSchemaRepository = formSchemaRepository;
+        this.archive = archive;
+        this.jdbcTemplate = new JdbcTemplate(exportDataSource);
+        this.objectMapper = objectMapper;
+        this.fetchSize = Math.max(1, fetchSize);
+        this.rowGroupSize = Math.max(1, rowGroupSize);
+    }
+
+    public enum Format {
+        CSV("csv"),
+        COLUMNAR("columnar.ndjson");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String fileName(Long formId) {
+            return "form-" + formId + "-submissions." + extension + ".gz";
+        }
+
+        /**
+         * @throws IllegalArgumentException if the name is not a known format
+         */
+        public static Format of(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Write the gzipped export of a form's submissions, oldest first
+     *
+     * @throws IllegalArgumentException if the form does not exist
+     */
+    public void export(Long formId, Format format, OutputStream out) throws IOException {
+        if (!formSchemaRepository.existsById(formId)) {
+            throw new IllegalArgumentException("Form not found: " + formId);
+        }
+        // Runs on an async thread without an open session, so read the (lazy) schema column directly
+        String schemaJson = formSchemaRepository.findSchemaJsonById(formId).orElse(null);
+        ExportColumns columns = ExportColumns.fromSchema(schemaJson, objectMapper);
+
+        // Fastest level: the export is bound by compression, and text compresses well even so
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        };
+        if (format == Format.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+            write(formId, columns, new CsvRowSink(writer, columns));
+            writer.flush();
+        } else {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(gzip)) {
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                write(formId, columns, new ColumnarRowSink(json, columns, rowGroupSize));
+            }
+        }
+        // Writes the gzip trailer; the response stream itself is closed by the container
+        gzip.finish();
+        gzip.flush();
+    }
+
+    private void write(Long formId, ExportColumns columns, RowSink sink) throws IOException {
+        String[] values = new String[columns.size()];
+        archive.forEach(formId, submission -> {
+            columns.flatten(submission.getSubmissionData(), values);
+            sink.row(submission.getId(), submission.getSubmittedAt(), submission.getSubmittedBy(), values);
+        });
+        // Months up to the horizon came from the archive, even if their partition is still there
+        LocalDateTime horizon = archive.horizon();
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(horizon != null ? SELECT_ROWS : SELECT_ALL_ROWS,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setLong(1, formId);
+                if (horizon != null) {
+                    statement.setObject(2, horizon);
+                }
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                columns.flatten(rs.getString(2), values);
+                try {
+                    sink.row(rs.getLong(1), rs.getObject(4, LocalDateTime.class), rs.getString(3), values);
+                } catch (IOException e) {
+                    // Typically the client went away; abort the query
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        sink.finish();
+    }
+}
@@ -0,0 +1,32 @@
+package com.oss2.formservice.model;
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * How often one option of a choice field (select, radio, checkbox) was picked within a stats scope
+ */
+@Entity
+@Table(name = "form_choice_stats", uniqueConstraints = @UniqueConstraint(
+        name = "uk_form_choice_stats", columnNames = {"formSchemaId", "scopeKey", "scopeValue", "fieldId", "choiceValue"}))
+@Data
+public class FormChoiceStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long formSchemaId;
+
+    @Column(length = 64)
+    private String scopeKey;
+
+    @Column(length = FormSubmissionContext.MAX_VALUE_LENGTH)
+    private String scopeValue;
+
+    @Column(length = 100)
+    private String fieldId;
+
+    @Column(length = FormSubmissionContext.MAX_VALUE_LENGTH)
+    private String choiceValue;
+
+    private Long choiceCount;
+}
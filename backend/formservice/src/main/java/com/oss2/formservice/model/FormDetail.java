@@ -0,0 +1,16 @@
+package com.oss2.formservice.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A form with its schema JSON, read in one query. Serializes like {@link FormSchema}, but unlike the
+ * entity (whose schemaJson loads lazily) a list of these costs one SELECT, not one per form.
+ */
+public record FormDetail(Long id, String title, String schemaJson, String context, String createdBy,
+                         LocalDateTime createdAt, LocalDateTime updatedAt, Boolean active, String schemaVersion) {
+
+    public static FormDetail of(FormSchema form) {
+        return new FormDetail(form.getId(), form.getTitle(), form.getSchemaJson(), form.getContext(), form.getCreatedBy(),
+                form.getCreatedAt(), form.getUpdatedAt(), form.getActive(), form.getSchemaVersion());
+    }
+}
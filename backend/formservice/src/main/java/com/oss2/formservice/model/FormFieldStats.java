@@ -0,0 +1,35 @@
+package com.oss2.formservice.model;
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Running count/sum/min/max of one numeric form field within a stats scope
+ */
+@Entity
+@Table(name = "form_field_stats", uniqueConstraints = @UniqueConstraint(
+        name = "uk_form_field_stats", columnNames = {"formSchemaId", "scopeKey", "scopeValue", "fieldId"}))
+@Data
+public class FormFieldStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long formSchemaId;
+
+    @Column(length = 64)
+    private String scopeKey;
+
+    @Column(length = FormSubmissionContext.MAX_VALUE_LENGTH)
+    private String scopeValue;
+
+    @Column(length = 100)
+    private String fieldId;
+
+    private Long valueCount;
+
+    private Double valueSum;
+
+    private Double minValue;
+
+    private Double maxValue;
+}
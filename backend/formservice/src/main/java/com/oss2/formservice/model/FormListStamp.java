@@ -0,0 +1,9 @@
+package com.oss2.formservice.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregate version of the active form list: changes whenever a form is added, updated or deactivated
+ */
+public record FormListStamp(Long count, Long idSum, LocalDateTime lastUpdatedAt) {
+}
@@ -1,6 +1,8 @@
 package com.oss2.formservice.model;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.time.LocalDateTime;
 @Entity
 @Table(name = "form_schemas")
@@ -12,7 +14,13 @@ public class FormSchema {
     
     private String title;
     
+    // Lazy (needs the Hibernate bytecode enhancement in the build), so loading forms does not drag
+    // the schema TEXT along unless it is actually read. Kept out of toString/equals/hashCode, which
+    // would otherwise load it (one SELECT per form) on every log line or set insert
+    @Basic(fetch = FetchType.LAZY)
     @Column(columnDefinition = "TEXT")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String schemaJson;  // Store the JSON schema
 
     @Column(unique = true)
@@ -25,6 +33,10 @@ public class FormSchema {
     private LocalDateTime updatedAt;
     
     private Boolean active = true;
+
+    // Content hash of the current FormSchemaVersion; changes exactly when schemaJson does
+    @Column(length = 64)
+    private String schemaVersion;
     
     @PrePersist
     protected void onCreate() {
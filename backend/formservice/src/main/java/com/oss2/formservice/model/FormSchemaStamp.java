@@ -0,0 +1,14 @@
+package com.oss2.formservice.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version columns of a form schema, read without the schemaJson TEXT column
+ */
+public interface FormSchemaStamp {
+    Long getId();
+
+    LocalDateTime getUpdatedAt();
+
+    String getSchemaVersion();
+}
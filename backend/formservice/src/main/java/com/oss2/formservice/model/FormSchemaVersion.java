@@ -0,0 +1,45 @@
+package com.oss2.formservice.model;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.Immutable;
+import java.time.LocalDateTime;
+
+/**
+ * One saved content of a form schema, identified by the SHA-256 of its JSON.
+ * Rows are written once and never changed, so a version can be cached forever by anyone.
+ */
+@Entity
+@Immutable
+@Table(name = "form_schema_versions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_form_schema_version_hash",
+                columnNames = {"formSchemaId", "contentHash"}),
+        indexes = @Index(name = "idx_form_schema_version_number", columnList = "formSchemaId, versionNumber"))
+@Data
+public class FormSchemaVersion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long formSchemaId;
+
+    // 1, 2, 3, ... per form, in order of first save
+    @Column(nullable = false)
+    private Integer versionNumber;
+
+    // Hex SHA-256 of schemaJson; also the version's public identifier
+    @Column(length = 64, nullable = false)
+    private String contentHash;
+
+    @Column(columnDefinition = "TEXT")
+    private String schemaJson;
+
+    private String createdBy;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
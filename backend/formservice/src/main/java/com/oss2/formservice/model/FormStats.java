@@ -0,0 +1,27 @@
+package com.oss2.formservice.model;
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Submission count of a form, overall (empty scope) or for one context value such as bookId=42.
+ * Maintained incrementally on insert by SubmissionStatsService.
+ */
+@Entity
+@Table(name = "form_stats", uniqueConstraints = @UniqueConstraint(
+        name = "uk_form_stats_scope", columnNames = {"formSchemaId", "scopeKey", "scopeValue"}))
+@Data
+public class FormStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long formSchemaId;
+
+    @Column(length = 64)
+    private String scopeKey;
+
+    @Column(length = FormSubmissionContext.MAX_VALUE_LENGTH)
+    private String scopeValue;
+
+    private Long submissionCount;
+}
@@ -1,13 +1,18 @@
 package com.oss2.formservice.model;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
 @Entity
-@Table(name = "form_submissions")
+@Table(name = "form_submissions", indexes = {
+        // Keyset pagination and streaming walk submissions of one form in (submittedAt, id) order
+        @Index(name = "idx_submission_form_time", columnList = "formSchemaId, submittedAt, id")
+})
 @Data
 public class FormSubmission {
+    // Assigned from pre-allocated blocks (SubmissionIdAllocator), so batched inserts need no key round trip
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
     private Long formSchemaId;
@@ -18,6 +23,20 @@ public class FormSubmission {
     private String submittedBy;
     
     private LocalDateTime submittedAt;
+
+    // FormSchemaVersion (content hash) the submission was validated against
+    @Column(length = 64)
+    private String schemaVersion;
+    
+    // Callers send the data either as JSON text (frontend) or as a JSON object (backend services)
+    @JsonSetter("submissionData")
+    public void setSubmissionDataJson(JsonNode data) {
+        if (data == null || data.isNull()) {
+            submissionData = null;
+        } else {
+            submissionData = data.isTextual() ? data.asText() : data.toString();
+        }
+    }
     
     @PrePersist
     protected void onCreate() {
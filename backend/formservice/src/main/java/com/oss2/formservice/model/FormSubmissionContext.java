@@ -0,0 +1,36 @@
+package com.oss2.formservice.model;
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * One context key of a submission (e.g. bookId=42), copied out of submissionData at write time
+ * so submissions can be looked up by context through an index instead of by scanning the form
+ */
+@Entity
+@Table(name = "form_submission_context", indexes = {
+        @Index(name = "idx_submission_context_lookup",
+                columnList = "formSchemaId, contextKey, contextValue, submittedAt, submissionId"),
+        @Index(name = "idx_submission_context_submission", columnList = "submissionId")
+})
+@Data
+public class FormSubmissionContext {
+    public static final int MAX_VALUE_LENGTH = 191;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long submissionId;
+
+    private Long formSchemaId;
+
+    @Column(length = 64)
+    private String contextKey;
+
+    @Column(length = MAX_VALUE_LENGTH)
+    private String contextValue;
+
+    // Copied from the submission so context pages use the same (submittedAt, id) keyset as form pages
+    private LocalDateTime submittedAt;
+}
@@ -0,0 +1,10 @@
+package com.oss2.formservice.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A form as shown in lists and pickers: everything but the schema JSON
+ */
+public record FormSummary(Long id, String title, String context, LocalDateTime createdAt,
+                          LocalDateTime updatedAt, String schemaVersion) {
+}
@@ -0,0 +1,18 @@
+package com.oss2.formservice.model;
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * High-water mark of a block-allocated id sequence; one row per sequence
+ */
+@Entity
+@Table(name = "submission_id_block")
+@Data
+public class SubmissionIdBlock {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    // First id not yet handed out to any allocator
+    private Long nextValue;
+}
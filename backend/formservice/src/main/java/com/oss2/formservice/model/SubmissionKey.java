@@ -0,0 +1,9 @@
+package com.oss2.formservice.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyset position of one submission: what locates it in the database index or in an archived block
+ */
+public record SubmissionKey(LocalDateTime submittedAt, Long id) {
+}
@@ -0,0 +1,9 @@
+package com.oss2.formservice.model;
+
+import java.util.List;
+
+/**
+ * One keyset page of submissions; {@code nextCursor} is null on the last page
+ */
+public record SubmissionPage(List<FormSubmission> items, String nextCursor) {
+}
@@ -0,0 +1,14 @@
+package com.oss2.formservice.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of full-text search hits, best match first; {@code total} counts all matches
+ */
+public record SubmissionSearchResult(long total, int page, int size, List<Hit> hits) {
+
+    public record Hit(Long id, Long formSchemaId, String submittedBy, LocalDateTime submittedAt,
+                      String schemaVersion, String submissionData, float score) {
+    }
+}
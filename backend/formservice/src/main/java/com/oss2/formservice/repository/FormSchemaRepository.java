@@ -1,12 +1,59 @@
 package com.oss2.formservice.repository;
+import com.oss2.formservice.model.FormDetail;
+import com.oss2.formservice.model.FormListStamp;
 import com.oss2.formservice.model.FormSchema;
+import com.oss2.formservice.model.FormSchemaStamp;
+import com.oss2.formservice.model.FormSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 @Repository
 public interface FormSchemaRepository extends JpaRepository<FormSchema, Long> {
+    // Entity lists load schemaJson lazily, one SELECT per form read; list endpoints use the projections below
     List<FormSchema> findByActiveTrue();
     List<FormSchema> findByCreatedBy(String createdBy);
     Optional<FormSchema> findByContextAndActiveTrue(String context);
-}
\ No newline at end of file
+
+    @Query("select f.id from FormSchema f where f.schemaVersion is null order by f.id")
+    List<Long> findIdsBySchemaVersionIsNull();
+
+    // Serializes version writes of one form; must be the first read of the transaction
+    @Query(value = "SELECT id FROM form_schemas WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+
+    // Version lookups for conditional GETs: id + updatedAt + schema version only, never the schema JSON
+    @Query("select f.id as id, f.updatedAt as updatedAt, f.schemaVersion as schemaVersion from FormSchema f where f.id = :id")
+    Optional<FormSchemaStamp> findStampById(@Param("id") Long id);
+
+    @Query("select f.id as id, f.updatedAt as updatedAt, f.schemaVersion as schemaVersion from FormSchema f"
+            + " where f.context = :context and f.active = true")
+    Optional<FormSchemaStamp> findStampByContext(@Param("context") String context);
+
+    // Form list without schema bodies
+    @Query("select new com.oss2.formservice.model.FormSummary(f.id, f.title, f.context, f.createdAt, f.updatedAt, f.schemaVersion)"
+            + " from FormSchema f where f.active = true order by f.title, f.id")
+    List<FormSummary> findActiveSummaries();
+
+    // Full forms, schema JSON included, in one SELECT each (the entity would load every schema separately)
+    @Query("select new com.oss2.formservice.model.FormDetail(f.id, f.title, f.schemaJson, f.context, f.createdBy,"
+            + " f.createdAt, f.updatedAt, f.active, f.schemaVersion) from FormSchema f where f.active = true")
+    List<FormDetail> findActiveDetails();
+
+    @Query("select new com.oss2.formservice.model.FormDetail(f.id, f.title, f.schemaJson, f.context, f.createdBy,"
+            + " f.createdAt, f.updatedAt, f.active, f.schemaVersion) from FormSchema f where f.id in :ids")
+    List<FormDetail> findDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select f.id from FormSchema f order by f.id")
+    List<Long> findAllIds();
+
+    // The schema alone, e.g. for work done outside the request's persistence context
+    @Query("select f.schemaJson from FormSchema f where f.id = :id")
+    Optional<String> findSchemaJsonById(@Param("id") Long id);
+
+    @Query("select new com.oss2.formservice.model.FormListStamp(count(f), sum(f.id), max(f.updatedAt)) from FormSchema f where f.active = true")
+    FormListStamp findActiveListStamp();
+}
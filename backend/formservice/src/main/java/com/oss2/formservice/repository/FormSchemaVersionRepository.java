@@ -0,0 +1,20 @@
+package com.oss2.formservice.repository;
+
+import com.oss2.formservice.model.FormSchemaVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FormSchemaVersionRepository extends JpaRepository<FormSchemaVersion, Long> {
+    Optional<FormSchemaVersion> findByFormSchemaIdAndContentHash(Long formSchemaId, String contentHash);
+
+    List<FormSchemaVersion> findByFormSchemaIdOrderByVersionNumberDesc(Long formSchemaId);
+
+    @Query("select coalesce(max(v.versionNumber), 0) from FormSchemaVersion v where v.formSchemaId = :formSchemaId")
+    int findLastVersionNumber(@Param("formSchemaId") Long formSchemaId);
+}
@@ -0,0 +1,47 @@
+package com.oss2.formservice.repository;
+
+import com.oss2.formservice.model.FormSubmissionContext;
+import com.oss2.formservice.model.SubmissionKey;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FormSubmissionContextRepository extends JpaRepository<FormSubmissionContext, Long> {
+
+    @Modifying
+    @Query("delete from FormSubmissionContext c where c.formSchemaId = :formSchemaId")
+    int deleteByFormSchemaId(@Param("formSchemaId") Long formSchemaId);
+
+    // First keyset page of archived submissions (older than the horizon) carrying one context value;
+    // the context rows of archived months stay in the database, the submissions are read from the archive
+    @Query("select new com.oss2.formservice.model.SubmissionKey(c.submittedAt, c.submissionId)"
+            + " from FormSubmissionContext c where c.formSchemaId = :formSchemaId"
+            + " and c.contextKey = :contextKey and c.contextValue = :contextValue and c.submittedAt < :horizon"
+            + " order by c.submittedAt, c.submissionId")
+    List<SubmissionKey> findArchivedKeys(@Param("formSchemaId") Long formSchemaId,
+                                         @Param("contextKey") String contextKey,
+                                         @Param("contextValue") String contextValue,
+                                         @Param("horizon") LocalDateTime horizon,
+                                         Pageable pageable);
+
+    // Next keyset page of archived submissions carrying one context value
+    @Query("select new com.oss2.formservice.model.SubmissionKey(c.submittedAt, c.submissionId)"
+            + " from FormSubmissionContext c where c.formSchemaId = :formSchemaId"
+            + " and c.contextKey = :contextKey and c.contextValue = :contextValue and c.submittedAt < :horizon"
+            + " and c.submittedAt >= :submittedAt and (c.submittedAt > :submittedAt or c.submissionId > :id)"
+            + " order by c.submittedAt, c.submissionId")
+    List<SubmissionKey> findArchivedKeysAfter(@Param("formSchemaId") Long formSchemaId,
+                                              @Param("contextKey") String contextKey,
+                                              @Param("contextValue") String contextValue,
+                                              @Param("submittedAt") LocalDateTime submittedAt,
+                                              @Param("id") Long id,
+                                              @Param("horizon") LocalDateTime horizon,
+                                              Pageable pageable);
+}
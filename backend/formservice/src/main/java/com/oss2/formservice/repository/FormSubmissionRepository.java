@@ -1,13 +1,50 @@
 package com.oss2.formservice.repository;
 
 import com.oss2.formservice.model.FormSubmission;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface FormSubmissionRepository extends JpaRepository<FormSubmission, Long> {
     List<FormSubmission> findByFormSchemaId(Long formSchemaId);
     List<FormSubmission> findBySubmittedBy(String submittedBy);
+
+    // First keyset page: oldest submissions of a form
+    List<FormSubmission> findByFormSchemaIdOrderBySubmittedAtAscIdAsc(Long formSchemaId, Pageable pageable);
+
+    // Next keyset page: submissions strictly after (submittedAt, id); the >= bound keeps the index range scan
+    @Query("select s from FormSubmission s where s.formSchemaId = :formSchemaId"
+            + " and s.submittedAt >= :submittedAt and (s.submittedAt > :submittedAt or s.id > :id)"
+            + " order by s.submittedAt, s.id")
+    List<FormSubmission> findPageAfter(@Param("formSchemaId") Long formSchemaId,
+                                       @Param("submittedAt") LocalDateTime submittedAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    // First keyset page of the submissions carrying one context value (e.g. bookId=42)
+    @Query("select s from FormSubmission s, FormSubmissionContext c where c.submissionId = s.id"
+            + " and c.formSchemaId = :formSchemaId and c.contextKey = :contextKey and c.contextValue = :contextValue"
+            + " order by c.submittedAt, c.submissionId")
+    List<FormSubmission> findByContext(@Param("formSchemaId") Long formSchemaId,
+                                       @Param("contextKey") String contextKey,
+                                       @Param("contextValue") String contextValue,
+                                       Pageable pageable);
+
+    // Next keyset page of the submissions carrying one context value
+    @Query("select s from FormSubmission s, FormSubmissionContext c where c.submissionId = s.id"
+            + " and c.formSchemaId = :formSchemaId and c.contextKey = :contextKey and c.contextValue = :contextValue"
+            + " and c.submittedAt >= :submittedAt and (c.submittedAt > :submittedAt or c.submissionId > :id)"
+            + " order by c.submittedAt, c.submissionId")
+    List<FormSubmission> findByContextAfter(@Param("formSchemaId") Long formSchemaId,
+                                            @Param("contextKey") String contextKey,
+                                            @Param("contextValue") String contextValue,
+                                            @Param("submittedAt") LocalDateTime submittedAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
 }
@@ -0,0 +1,76 @@
+package com.oss2.formservice.repository;
+
+import com.oss2.formservice.archive.SubmissionArchive;
+import com.oss2.formservice.model.FormSubmission;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+
+/**
+ * All database submissions of a form, oldest first, through a server-side cursor on the export
+ * data source. Rows are plain objects (no persistence context), so memory use is one fetch.
+ * <p>
+ * Rows older than the {@link SubmissionArchive#horizon() archive horizon} are skipped: the archive
+ * serves those months, also while a partition that could not be dropped still holds them.
+ */
+@Component
+public class SubmissionCursor {
+
+    private static final String SELECT_ROWS = "SELECT id, submission_data, submitted_by, submitted_at, schema_version"
+            + " FROM form_submissions WHERE form_schema_id = ? AND submitted_at >= ? ORDER BY submitted_at, id";
+    private static final String SELECT_ALL_ROWS = "SELECT id, submission_data, submitted_by, submitted_at, schema_version"
+            + " FROM form_submissions WHERE form_schema_id = ? ORDER BY submitted_at, id";
+
+    private final SubmissionArchive archive;
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    public SubmissionCursor(SubmissionArchive archive, @Qualifier("exportDataSource") DataSource exportDataSource,
+                            @Value("${oss2.submissions.export.fetch-size:1000}") int fetchSize) {
+        this.archive = archive;
+        this.jdbcTemplate = new JdbcTemplate(exportDataSource);
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+
+    public void forEach(Long formSchemaId, SubmissionArchive.Visitor visitor) throws IOException {
+        LocalDateTime horizon = archive.horizon();
+        try {
+            jdbcTemplate.query(connection -> {
+                // Without an archive, rows stored before partitioning may have no time at all
+                PreparedStatement statement = connection.prepareStatement(horizon != null ? SELECT_ROWS : SELECT_ALL_ROWS,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setLong(1, formSchemaId);
+                if (horizon != null) {
+                    statement.setObject(2, horizon);
+                }
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                FormSubmission submission = new FormSubmission();
+                submission.setId(rs.getLong(1));
+                submission.setFormSchemaId(formSchemaId);
+                submission.setSubmissionData(rs.getString(2));
+                submission.setSubmittedBy(rs.getString(3));
+                submission.setSubmittedAt(rs.getObject(4, LocalDateTime.class));
+                submission.setSchemaVersion(rs.getString(5));
+                try {
+                    visitor.visit(submission);
+                } catch (IOException e) {
+                    // Typically the client went away; abort the query
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
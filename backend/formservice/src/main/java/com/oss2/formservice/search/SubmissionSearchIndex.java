@@ -0,0 +1,406 @@
+package com.oss2.formservice.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oss2.formservice.archive.SubmissionArchive;
+import com.oss2.formservice.model.FormSchemaVersion;
+import com.oss2.formservice.model.FormSubmission;
+import com.oss2.formservice.model.SubmissionSearchResult;
+import com.oss2.formservice.repository.FormSchemaRepository;
+import com.oss2.formservice.repository.FormSchemaVersionRepository;
+import com.oss2.formservice.repository.SubmissionCursor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full-text index of form submissions (Lucene, on local disk).
+ * <p>
+ * One document per submission: the free-text fields of its schema version (see {@link TextFields})
+ * are analyzed into a single {@code text} field, and the submission itself is stored so hits are
+ * answered from the index alone, archived submissions included. Submissions are added after their
+ * transaction commits; searches see them after the next refresh ({@code refresh-ms}), and they
+ * are made durable on disk every {@code commit-ms}. Anything lost in between (or stored before
+ * the index existed) is restored with {@link #rebuild}.
+ * <p>
+ * A rebuild writes a separate staging index and swaps it in at the end, so searches keep seeing
+ * the old documents until the new ones are complete, and a failed rebuild leaves them untouched.
+ */
+@Slf4j
+@Component
+public class SubmissionSearchIndex {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    // Deepest hit a page may reach; ranking costs grow with it
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    private static final String ID = "id";
+    private static final String FORM_ID = "formId";
+    private static final String SUBMITTED_BY = "submittedBy";
+    private static final String SUBMITTED_AT = "submittedAt";
+    private static final String SCHEMA_VERSION = "schemaVersion";
+    private static final String DATA = "submissionData";
+    private static final String TEXT = "text";
+
+    private final FormSchemaRepository formSchemaRepository;
+    private final FormSchemaVersionRepository versionRepository;
+    private final SubmissionArchive archive;
+    private final SubmissionCursor cursor;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path dir;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    // Schema versions are immutable, so their text fields never go stale
+    private final Map<VersionKey, TextFields> textFieldsByVersion = new ConcurrentHashMap<>();
+    // Shared by everything using the writer or searcher; exclusive while a rebuild swaps documents
+    // in (nothing may refresh or commit a half-swapped index) or reopens the writer
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private FSDirectory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    // The index a running rebuild is writing, which also receives submissions added meanwhile
+    private Staging staging;
+
+    public SubmissionSearchIndex(FormSchemaRepository formSchemaRepository,
+                                 FormSchemaVersionRepository versionRepository,
+                                 SubmissionArchive archive, SubmissionCursor cursor, ObjectMapper objectMapper,
+                                 @Value("${oss2.submissions.search.enabled:true}") boolean enabled,
+                                 @Value("${oss2.submissions.search.dir:./data/search-index}") String dir) {
+        this.formSchemaRepository = formSchemaRepository;
+        this.versionRepository = versionRepository;
+        this.archive = archive;
+        this.cursor = cursor;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(dir);
+        directory = FSDirectory.open(dir);
+        openWriter();
+        log.info("Submission search index at {} holds {} submissions", dir.toAbsolutePath(), writer.getDocStats().numDocs);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        searcherManager.close();
+        // Closing commits pending changes
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Add (or replace) committed submissions. Failures are logged, not thrown: the submissions are
+     * stored either way and a rebuild indexes them.
+     */
+    public void index(Collection<FormSubmission> submissions) {
+        if (writer == null || submissions.isEmpty()) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            for (FormSubmission submission : submissions) {
+                Document doc = document(submission);
+                add(writer, doc);
+                if (staging != null && staging.covers(submission.getFormSchemaId())) {
+                    // The rebuild may have read past it already
+                    add(staging.writer(), doc);
+                }
+            }
+        } catch (IOException | AlreadyClosedException e) {
+            log.warn("Could not index {} submissions (first id {}); rebuild the search index to add them",
+                    submissions.size(), submissions.iterator().next().getId(), e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked full-text search; {@code q} uses the classic query syntax ({@code word}, {@code "a phrase"},
+     * {@code late OR slow}, {@code deliver*}), all words required by default
+     *
+     * @param formSchemaId only this form's submissions, or null for all forms
+     * @throws IllegalArgumentException if the query is empty or the page lies beyond {@link #MAX_RESULT_WINDOW}
+     */
+    public SubmissionSearchResult search(String q, Long formSchemaId, int page, int size) throws IOException {
+        if (q == null || q.isBlank()) {
+            throw new IllegalArgumentException("Empty query");
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int pageNumber = Math.max(page, 0);
+        if ((long) (pageNumber + 1) * pageSize > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Only the first " + MAX_RESULT_WINDOW + " hits can be paged through");
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder().add(parse(q), BooleanClause.Occur.MUST);
+        if (formSchemaId != null) {
+            // Filter clause: restricts the matches without affecting their scores
+            query.add(new TermQuery(new Term(FORM_ID, formSchemaId.toString())), BooleanClause.Occur.FILTER);
+        }
+        Query built = query.build();
+
+        lock.readLock().lock();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            int total = searcher.count(built);
+            TopDocs top = searcher.search(built, (pageNumber + 1) * pageSize);
+            ScoreDoc[] scoreDocs = top.scoreDocs;
+            int from = pageNumber * pageSize;
+            List<SubmissionSearchResult.Hit> hits = new ArrayList<>(Math.max(0, Math.min(pageSize, scoreDocs.length - from)));
+            StoredFields stored = searcher.storedFields();
+            for (int i = from; i < scoreDocs.length; i++) {
+                hits.add(hit(stored.document(scoreDocs[i].doc), scoreDocs[i].score));
+            }
+            return new SubmissionSearchResult(total, pageNumber, pageSize, hits);
+        } finally {
+            searcherManager.release(searcher);
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Re-index all stored submissions of a form (or of every form), archived ones included
+     *
+     * @return the number of submissions indexed
+     */
+    public synchronized long rebuild(Long formSchemaId) throws IOException {
+        if (writer == null) {
+            throw new IllegalStateException("Submission search is disabled");
+        }
+        List<Long> formIds = formSchemaId != null ? List.of(formSchemaId) : formSchemaRepository.findAllIds();
+        // Also drops the text fields of unversioned submissions, which follow the current schema
+        textFieldsByVersion.clear();
+        Path stagingDir = dir.resolveSibling(dir.getFileName() + "-rebuild");
+        IOUtils.rm(stagingDir);
+        long[] indexed = {0};
+        try (FSDirectory stagingDirectory = FSDirectory.open(stagingDir)) {
+            try (IndexWriter stagingWriter = new IndexWriter(stagingDirectory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE))) {
+                setStaging(new Staging(stagingWriter, formSchemaId));
+                try {
+                    for (Long formId : formIds) {
+                        SubmissionArchive.Visitor indexer = submission -> {
+                            add(stagingWriter, document(submission));
+                            indexed[0]++;
+                        };
+                        archive.forEach(formId, indexer);
+                        cursor.forEach(formId, indexer);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    setStaging(null);
+                    stagingWriter.rollback();
+                    throw e;
+                }
+                swapIn(formSchemaId, stagingWriter, stagingDirectory);
+            }
+        } finally {
+            IOUtils.rm(stagingDir);
+        }
+        log.info("Rebuilt the search index of {}: {} submissions",
+                formSchemaId != null ? "form " + formSchemaId : "all forms", indexed[0]);
+        return indexed[0];
+    }
+
+    // Makes recently added submissions searchable
+    @Scheduled(fixedDelayString = "${oss2.submissions.search.refresh-ms:1000}")
+    public void refresh() throws IOException {
+        if (searcherManager == null) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            searcherManager.maybeRefresh();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Makes recently added submissions durable on disk
+    @Scheduled(fixedDelayString = "${oss2.submissions.search.commit-ms:30000}")
+    public void commit() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Replaces the rebuilt form's (or all) documents with the staging index in one commit. Staging
+    // is only cleared and committed once the write lock is held, so no submission indexed in between
+    // can miss both the staging index and the deletes below.
+    private void swapIn(Long formSchemaId, IndexWriter stagingWriter, FSDirectory stagingDirectory) throws IOException {
+        lock.writeLock().lock();
+        try {
+            staging = null;
+            stagingWriter.commit();
+            // addIndexes takes the staging directory's write lock
+            stagingWriter.close();
+            // Whatever was added so far is durable, so a failed swap can roll back to it
+            writer.commit();
+            try {
+                if (formSchemaId != null) {
+                    writer.deleteDocuments(new Term(FORM_ID, formSchemaId.toString()));
+                } else {
+                    writer.deleteAll();
+                }
+                writer.addIndexes(stagingDirectory);
+                writer.commit();
+            } catch (IOException | RuntimeException e) {
+                // Discards the deletes; searches go on with the index as committed above
+                searcherManager.close();
+                writer.rollback();
+                openWriter();
+                throw e;
+            }
+            searcherManager.maybeRefresh();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setStaging(Staging next) {
+        lock.writeLock().lock();
+        try {
+            staging = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void openWriter() throws IOException {
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    private static void add(IndexWriter target, Document doc) throws IOException {
+        // Keyed by id, so indexing a submission twice (e.g. during a rebuild) leaves one document
+        target.updateDocument(new Term(ID, doc.get(ID)), doc);
+    }
+
+    private Document document(FormSubmission submission) {
+        String id = submission.getId().toString();
+        Document doc = new Document();
+        doc.add(new StringField(ID, id, Field.Store.YES));
+        doc.add(new StringField(FORM_ID, submission.getFormSchemaId().toString(), Field.Store.YES));
+        if (submission.getSubmittedBy() != null) {
+            doc.add(new StoredField(SUBMITTED_BY, submission.getSubmittedBy()));
+        }
+        if (submission.getSubmittedAt() != null) {
+            doc.add(new StoredField(SUBMITTED_AT, submission.getSubmittedAt().toString()));
+        }
+        if (submission.getSchemaVersion() != null) {
+            doc.add(new StoredField(SCHEMA_VERSION, submission.getSchemaVersion()));
+        }
+        if (submission.getSubmissionData() != null) {
+            doc.add(new StoredField(DATA, submission.getSubmissionData()));
+        }
+        String text = textFields(submission.getFormSchemaId(), submission.getSchemaVersion())
+                .extract(submission.getSubmissionData());
+        doc.add(new TextField(TEXT, text, Field.Store.NO));
+        return doc;
+    }
+
+    private TextFields textFields(Long formSchemaId, String version) {
+        return textFieldsByVersion.computeIfAbsent(new VersionKey(formSchemaId, version), key -> {
+            Optional<String> schemaJson = version != null
+                    ? versionRepository.findByFormSchemaIdAndContentHash(formSchemaId, version).map(FormSchemaVersion::getSchemaJson)
+                    : formSchemaRepository.findSchemaJsonById(formSchemaId);
+            try {
+                return TextFields.fromSchema(schemaJson.orElse(null), objectMapper);
+            } catch (IOException e) {
+                log.warn("Schema of form {} is not valid JSON; indexing every text value of its submissions", formSchemaId);
+                return TextFields.ALL;
+            }
+        });
+    }
+
+    private Query parse(String q) {
+        // QueryParser is not thread-safe: one per search
+        QueryParser parser = new QueryParser(TEXT, analyzer);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        try {
+            return parser.parse(q);
+        } catch (ParseException e) {
+            // Not valid query syntax (e.g. an unbalanced quote): search the words literally
+            try {
+                return parser.parse(QueryParser.escape(q));
+            } catch (ParseException literal) {
+                throw new IllegalArgumentException("Invalid query: " + q, literal);
+            }
+        }
+    }
+
+    private static SubmissionSearchResult.Hit hit(Document doc, float score) {
+        String submittedAt = doc.get(SUBMITTED_AT);
+        return new SubmissionSearchResult.Hit(Long.valueOf(doc.get(ID)), Long.valueOf(doc.get(FORM_ID)),
+                doc.get(SUBMITTED_BY), submittedAt != null ? LocalDateTime.parse(submittedAt) : null,
+                doc.get(SCHEMA_VERSION), doc.get(DATA), score);
+    }
+
+    private record VersionKey(Long formSchemaId, String version) {
+    }
+
+    private record Staging(IndexWriter writer, Long formSchemaId) {
+        boolean covers(Long formId) {
+            return formSchemaId == null || formSchemaId.equals(formId);
+        }
+    }
+}
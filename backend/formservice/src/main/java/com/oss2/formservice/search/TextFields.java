@@ -0,0 +1,94 @@
+package com.oss2.formservice.search;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The free-text fields of one schema version (text, textarea and email inputs), and the extraction
+ * of their values from submission data.
+ * <p>
+ * Submission data is read with a token stream; only top-level values under a text field's id or
+ * label are kept (string lists such as multi-selects are joined), everything else is skipped.
+ */
+final class TextFields {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final Set<String> TEXT_TYPES = Set.of("text", "textarea", "email");
+
+    /**
+     * Used when the schema is unknown: every string value of the submission is text
+     */
+    static final TextFields ALL = new TextFields(null);
+
+    // Field ids and labels; null means any key
+    private final Set<String> keys;
+
+    private TextFields(Set<String> keys) {
+        this.keys = keys;
+    }
+
+    static TextFields fromSchema(String schemaJson, ObjectMapper objectMapper) throws IOException {
+        if (schemaJson == null || schemaJson.isBlank()) {
+            return ALL;
+        }
+        Set<String> keys = new HashSet<>();
+        for (JsonNode field : objectMapper.readTree(schemaJson).path("fields")) {
+            if (!TEXT_TYPES.contains(field.path("type").asText())) {
+                continue;
+            }
+            String id = field.path("id").asText("");
+            String label = field.path("label").asText("");
+            if (!id.isEmpty()) {
+                keys.add(id);
+            }
+            if (!label.isEmpty()) {
+                keys.add(label);
+            }
+        }
+        return new TextFields(Set.copyOf(keys));
+    }
+
+    /**
+     * The text of a submission's free-text fields, one value per line; empty if there is none
+     */
+    String extract(String submissionData) {
+        if (submissionData == null || submissionData.isBlank() || (keys != null && keys.isEmpty())) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        try (JsonParser parser = JSON_FACTORY.createParser(submissionData)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return "";
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (keys != null && !keys.contains(name)) {
+                    parser.skipChildren();
+                } else if (value == JsonToken.VALUE_STRING) {
+                    text.append(parser.getText()).append('\n');
+                } else if (value == JsonToken.START_ARRAY) {
+                    while ((value = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        if (value == JsonToken.VALUE_STRING) {
+                            text.append(parser.getText()).append('\n');
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            // Unparseable data: index what was read before the error
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package com.oss2.formservice.service;
+
+import com.oss2.formservice.model.FormSchema;
+import com.oss2.formservice.model.FormSchemaVersion;
+import com.oss2.formservice.repository.FormSchemaRepository;
+import com.oss2.formservice.repository.FormSchemaVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Saves form schemas as immutable, content-addressed versions.
+ * <p>
+ * Every save hashes the schema JSON; new content gets a new {@link FormSchemaVersion} row and the
+ * form's {@code schemaVersion} is pointed at it. Saving content that was saved before (including
+ * reverting to an earlier schema) reuses the existing version, so a version id always names the
+ * same bytes and caches keyed on it never need to revalidate.
+ * <p>
+ * Saves of an existing form lock its row first, so two concurrent saves cannot both miss the
+ * version lookup or hand out the same version number.
+ */
+@Slf4j
+@Service
+public class FormSchemaVersionService {
+
+    private final FormSchemaRepository formSchemaRepository;
+    private final FormSchemaVersionRepository versionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public FormSchemaVersionService(FormSchemaRepository formSchemaRepository,
+                                    FormSchemaVersionRepository versionRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.formSchemaRepository = formSchemaRepository;
+        this.versionRepository = versionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Save a form and record its schema content as the current version
+     */
+    @Transactional
+    public FormSchema save(FormSchema form) {
+        if (form.getId() != null) {
+            // Before any plain read: InnoDB takes the snapshot at the first one, and later reads
+            // must see the versions a save that held the lock before us has committed
+            formSchemaRepository.lockById(form.getId());
+        }
+        FormSchema saved = formSchemaRepository.save(form);
+        String hash = contentHash(saved.getSchemaJson());
+        if (!hash.equals(saved.getSchemaVersion())) {
+            versionRepository.findByFormSchemaIdAndContentHash(saved.getId(), hash)
+                    .orElseGet(() -> versionRepository.save(newVersion(saved, hash)));
+            saved.setSchemaVersion(hash);
+        }
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<FormSchemaVersion> find(Long formSchemaId, String contentHash) {
+        return versionRepository.findByFormSchemaIdAndContentHash(formSchemaId, contentHash);
+    }
+
+    /**
+     * Versions of a form, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<FormSchemaVersion> list(Long formSchemaId) {
+        return versionRepository.findByFormSchemaIdOrderByVersionNumberDesc(formSchemaId);
+    }
+
+    /**
+     * Give forms saved before versioning existed their first version
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<Long> unversioned = formSchemaRepository.findIdsBySchemaVersionIsNull();
+        for (Long id : unversioned) {
+            // One transaction per form, so the lock in save is its first statement
+            transactionTemplate.executeWithoutResult(status -> {
+                formSchemaRepository.lockById(id);
+                formSchemaRepository.findById(id)
+                        .filter(form -> form.getSchemaVersion() == null)
+                        .ifPresent(this::save);
+            });
+        }
+        if (!unversioned.isEmpty()) {
+            log.info("Recorded initial schema versions of {} forms", unversioned.size());
+        }
+    }
+
+    /**
+     * Hex SHA-256 of the schema JSON text (a missing schema hashes as empty text)
+     */
+    public static String contentHash(String schemaJson) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((schemaJson != null ? schemaJson : "").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private FormSchemaVersion newVersion(FormSchema form, String hash) {
+        FormSchemaVersion version = new FormSchemaVersion();
+        version.setFormSchemaId(form.getId());
+        version.setVersionNumber(versionRepository.findLastVersionNumber(form.getId()) + 1);
+        version.setContentHash(hash);
+        version.setSchemaJson(form.getSchemaJson());
+        version.setCreatedBy(form.getCreatedBy());
+        return version;
+    }
+}
@@ -0,0 +1,10 @@
+package com.oss2.formservice.service;
+
+/**
+ * The ingestion queue cannot take another submission; callers should retry later
+ */
+public class IngestQueueFullException extends RuntimeException {
+    public IngestQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,69 @@
+package com.oss2.formservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hands out submission ids from blocks reserved in the {@code submission_id_block} table.
+ * <p>
+ * One short transaction reserves {@code block-size} ids at a time; ids inside a block are
+ * handed out from memory. Ids are unique across instances but not gap-free: the unused rest
+ * of a block is lost on restart.
+ */
+@Component
+public class SubmissionIdAllocator {
+
+    private static final String SEQUENCE = "form_submissions";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+
+    private long next;
+    private long blockEnd = -1;
+
+    public SubmissionIdAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 @Value("${oss2.submissions.id-block-size:1000}") int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Id block size must be positive: " + blockSize);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Reserve in a separate transaction so a caller's rollback never hands out a block twice
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Call outside any transaction: a block rollover opens a transaction on a new connection while
+     * holding this lock, so callers that already hold a connection can exhaust the pool.
+     */
+    public synchronized long nextId() {
+        if (next > blockEnd) {
+            next = reserveBlock();
+            blockEnd = next + blockSize - 1;
+        }
+        return next++;
+    }
+
+    private long reserveBlock() {
+        Long first = transactionTemplate.execute(status -> {
+            // First use: start the sequence above every id already stored (including AUTO_INCREMENT ones)
+            jdbcTemplate.update("INSERT IGNORE INTO submission_id_block (name, next_value)"
+                    + " SELECT ?, COALESCE(MAX(id), 0) + 1 FROM form_submissions", SEQUENCE);
+            Long value = jdbcTemplate.queryForObject(
+                    "SELECT next_value FROM submission_id_block WHERE name = ? FOR UPDATE", Long.class, SEQUENCE);
+            jdbcTemplate.update("UPDATE submission_id_block SET next_value = next_value + ? WHERE name = ?",
+                    blockSize, SEQUENCE);
+            return value;
+        });
+        if (first == null) {
+            throw new IllegalStateException("Could not reserve submission ids");
+        }
+        return first;
+    }
+}
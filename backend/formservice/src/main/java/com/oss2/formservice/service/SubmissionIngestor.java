@@ -0,0 +1,252 @@
+package com.oss2.formservice.service;
+
+import com.oss2.formservice.model.FormSubmission;
+import com.oss2.formservice.model.FormSubmissionContext;
+import com.oss2.formservice.search.SubmissionSearchIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Write-behind ingestion of form submissions with group commit.
+ * <p>
+ * Requests put submissions (with ids already assigned) on a bounded queue; a single flusher
+ * thread drains whatever has accumulated, up to {@code batch-size}, and writes it with
+ * multi-row INSERTs in one transaction. Under load many submissions share one commit; when
+ * idle a submission is written as soon as it arrives. A full queue is rejected rather than
+ * buffered without bound.
+ * <p>
+ * Durability is configurable: with {@code wait-for-flush} (the default) a request returns once
+ * its batch is committed; without it, as soon as the submission is queued, so a crash can lose
+ * queued submissions that were already acknowledged.
+ */
+@Slf4j
+@Component
+public class SubmissionIngestor {
+
+    private static final String SUBMISSION_COLUMNS =
+            "INSERT INTO form_submissions (id, form_schema_id, submission_data, submitted_by, submitted_at, schema_version) VALUES ";
+    private static final String CONTEXT_COLUMNS =
+            "INSERT INTO form_submission_context (submission_id, form_schema_id, context_key, context_value, submitted_at) VALUES ";
+
+    private final SubmissionService submissionService;
+    private final SubmissionStatsService statsService;
+    private final SubmissionIdAllocator idAllocator;
+    private final SubmissionSearchIndex searchIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final boolean waitForFlush;
+    private final long flushTimeoutMillis;
+    private final int batchSize;
+    private final BlockingQueue<Pending> queue;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public SubmissionIngestor(SubmissionService submissionService, SubmissionStatsService statsService,
+                              SubmissionIdAllocator idAllocator, SubmissionSearchIndex searchIndex,
+                              JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              @Value("${oss2.submissions.ingest.enabled:false}") boolean enabled,
+                              @Value("${oss2.submissions.ingest.wait-for-flush:true}") boolean waitForFlush,
+                              @Value("${oss2.submissions.ingest.flush-timeout:5s}") Duration flushTimeout,
+                              @Value("${oss2.submissions.ingest.queue-capacity:10000}") int queueCapacity,
+                              @Value("${oss2.submissions.ingest.batch-size:500}") int batchSize) {
+        this.submissionService = submissionService;
+        this.statsService = statsService;
+        this.idAllocator = idAllocator;
+        this.searchIndex = searchIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.waitForFlush = waitForFlush;
+        this.flushTimeoutMillis = flushTimeout.toMillis();
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "submission-ingest");
+        flusher.start();
+    }
+
+    /**
+     * Queue a submission and, when configured to (and the caller did not ask for an asynchronous
+     * answer), wait until its batch is committed
+     *
+     * @param async the caller only needs the assigned id, not durability
+     * @throws IngestQueueFullException if the queue is full
+     * @throws IllegalStateException if the batch holding the submission failed to commit
+     */
+    public Accepted submit(FormSubmission submission, boolean async) {
+        CompletableFuture<FormSubmission> committed = enqueue(submission);
+        if (async || !waitForFlush) {
+            return new Accepted(submission, committed.isDone() && !committed.isCompletedExceptionally());
+        }
+        try {
+            committed.get(flushTimeoutMillis, TimeUnit.MILLISECONDS);
+            return new Accepted(submission, true);
+        } catch (TimeoutException e) {
+            // Still queued: the id is valid, the write is just not confirmed yet
+            return new Accepted(submission, false);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not store submission: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Accepted(submission, false);
+        }
+    }
+
+    /**
+     * Queue a submission for the next group commit. The id and submittedAt are assigned here.
+     *
+     * @return completes when the batch holding the submission is committed
+     * @throws IngestQueueFullException if the queue is full (or the ingestor is stopping)
+     */
+    public CompletableFuture<FormSubmission> enqueue(FormSubmission submission) {
+        if (!running) {
+            throw new IngestQueueFullException("Submission ingestion is not running");
+        }
+        if (queue.remainingCapacity() == 0) {
+            throw new IngestQueueFullException("Submission queue is full (" + queue.size() + " waiting)");
+        }
+        submission.setId(idAllocator.nextId());
+        submission.setSubmittedAt(LocalDateTime.now());
+        Pending pending = new Pending(submission, submissionService.extractContext(submission), new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new IngestQueueFullException("Submission queue is full (" + queue.size() + " waiting)");
+        }
+        return pending.committed();
+    }
+
+    public int queuedCount() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        // Stop accepting, then let the flusher drain what is already queued
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        Pending left;
+        while ((left = queue.poll()) != null) {
+            left.committed().completeExceptionally(new IllegalStateException("Ingestion stopped before the submission was written"));
+        }
+    }
+
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<FormSubmission> submissions = new ArrayList<>(batch.size());
+        List<FormSubmissionContext> contexts = new ArrayList<>();
+        for (Pending pending : batch) {
+            submissions.add(pending.submission());
+            contexts.addAll(pending.contexts());
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                insertSubmissions(batch);
+                insertContexts(contexts);
+                // One set of statistics upserts for the whole batch
+                statsService.record(submissions, contexts);
+            });
+            batch.forEach(pending -> pending.committed().complete(pending.submission()));
+            // Committed; searchable from the next index refresh
+            searchIndex.index(submissions);
+        } catch (RuntimeException e) {
+            log.error("Group commit of {} submissions failed (ids {}..{})", batch.size(),
+                    batch.get(0).submission().getId(), batch.get(batch.size() - 1).submission().getId(), e);
+            batch.forEach(pending -> pending.committed().completeExceptionally(e));
+        }
+    }
+
+    private void insertSubmissions(List<Pending> batch) {
+        StringBuilder sql = new StringBuilder(SUBMISSION_COLUMNS);
+        List<Object> args = new ArrayList<>(batch.size() * 6);
+        for (Pending pending : batch) {
+            FormSubmission submission = pending.submission();
+            sql.append(args.isEmpty() ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+            args.add(submission.getId());
+            args.add(submission.getFormSchemaId());
+            args.add(submission.getSubmissionData());
+            args.add(submission.getSubmittedBy());
+            args.add(Timestamp.valueOf(submission.getSubmittedAt()));
+            args.add(submission.getSchemaVersion());
+        }
+        jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    private void insertContexts(List<FormSubmissionContext> contexts) {
+        if (contexts.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(CONTEXT_COLUMNS);
+        List<Object> args = new ArrayList<>(contexts.size() * 5);
+        for (FormSubmissionContext context : contexts) {
+            sql.append(args.isEmpty() ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+            args.add(context.getSubmissionId());
+            args.add(context.getFormSchemaId());
+            args.add(context.getContextKey());
+            args.add(context.getContextValue());
+            args.add(Timestamp.valueOf(context.getSubmittedAt()));
+        }
+        jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    /**
+     * A queued submission with its assigned id; {@code committed} tells whether it is already stored
+     */
+    public record Accepted(FormSubmission submission, boolean committed) {
+    }
+
+    private record Pending(FormSubmission submission, List<FormSubmissionContext> contexts,
+                           CompletableFuture<FormSubmission> committed) {
+    }
+}
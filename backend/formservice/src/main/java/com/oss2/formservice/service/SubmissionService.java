@@ -0,0 +1,407 @@
+package com.oss2.formservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.oss2.formservice.archive.SubmissionArchive;
+import com.oss2.formservice.model.FormSubmission;
+import com.oss2.formservice.model.FormSubmissionContext;
+import com.oss2.formservice.model.SubmissionKey;
+import com.oss2.formservice.model.SubmissionPage;
+import com.oss2.formservice.repository.FormSubmissionContextRepository;
+import com.oss2.formservice.repository.FormSubmissionRepository;
+import com.oss2.formservice.repository.SubmissionCursor;
+import com.oss2.formservice.search.SubmissionSearchIndex;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes and bounded reads of form submissions.
+ * <p>
+ * On write, the configured context keys (bookId, productId, ...) are copied out of the
+ * submission data into {@link FormSubmissionContext} rows, so per-entity lookups are an index
+ * range scan. Reads are keyset pages or streams; none holds more than one page (or one cursor
+ * fetch) of rows in memory.
+ * <p>
+ * Months moved to the {@link SubmissionArchive} are older than anything still in the database,
+ * so reads go through the archive first and continue in the database in the same order. Database
+ * reads start at the archive horizon, so a month whose partition could not be dropped yet is
+ * still read once, from the archive. Context rows of archived months stay in the database, so
+ * reads by context find archived submissions through the index too and open only their blocks.
+ */
+@Slf4j
+@Service
+public class SubmissionService {
+
+    public static final int MAX_PAGE_SIZE = 500;
+    private static final int STREAM_FLUSH_EVERY = 100;
+    private static final int STATS_CHUNK = 1000;
+
+    private final FormSubmissionRepository submissionRepository;
+    private final FormSubmissionContextRepository contextRepository;
+    private final SubmissionIdAllocator idAllocator;
+    private final SubmissionStatsService statsService;
+    private final SubmissionArchive archive;
+    private final SubmissionSearchIndex searchIndex;
+    private final SubmissionCursor cursor;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Set<String> contextKeys;
+
+    public SubmissionService(FormSubmissionRepository submissionRepository,
+                             FormSubmissionContextRepository contextRepository,
+                             SubmissionIdAllocator idAllocator,
+                             SubmissionStatsService statsService,
+                             SubmissionArchive archive,
+                             SubmissionSearchIndex searchIndex,
+                             SubmissionCursor cursor,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${oss2.submissions.context-keys:bookId,productId,orderId,userId}") List<String> contextKeys) {
+        this.submissionRepository = submissionRepository;
+        this.contextRepository = contextRepository;
+        this.idAllocator = idAllocator;
+        this.statsService = statsService;
+        this.archive = archive;
+        this.searchIndex = searchIndex;
+        this.cursor = cursor;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.contextKeys = new LinkedHashSet<>(contextKeys);
+    }
+
+    /**
+     * Store a submission together with its context rows and statistics updates, in one transaction.
+     * It is added to the search index once the transaction has committed.
+     * <p>
+     * Not transactional itself: the id is allocated before the write transaction opens, because
+     * reserving a new id block takes a connection of its own and must not wait for one while this
+     * request already holds another.
+     */
+    public FormSubmission submit(FormSubmission submission) {
+        submission.setId(idAllocator.nextId());
+        return transactionTemplate.execute(status -> store(submission));
+    }
+
+    private FormSubmission store(FormSubmission submission) {
+        // Ids are assigned up front, so persist (not save/merge) to insert without a lookup
+        entityManager.persist(submission);
+        List<FormSubmissionContext> contexts = extractContext(submission);
+        contextRepository.saveAll(contexts);
+        statsService.record(List.of(submission), contexts);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                searchIndex.index(List.of(submission));
+            }
+        });
+        return submission;
+    }
+
+    /**
+     * Re-extract the context rows of every submission of a form, e.g. after changing the
+     * configured context keys or for submissions stored before context indexing existed.
+     * Archived submissions are included, so this also restores the context rows of months whose
+     * context partition was dropped together with the submissions.
+     *
+     * @return the number of submissions processed
+     */
+    @Transactional
+    public long rebuildContext(Long formSchemaId) {
+        contextRepository.deleteByFormSchemaId(formSchemaId);
+        long[] processed = {0};
+        List<FormSubmissionContext> batch = new ArrayList<>();
+        SubmissionArchive.Visitor extractor = submission -> {
+            batch.addAll(extractContext(submission));
+            if (++processed[0] % STREAM_FLUSH_EVERY == 0) {
+                contextRepository.saveAll(batch);
+                batch.clear();
+                entityManager.flush();
+                entityManager.clear();
+            }
+        };
+        try {
+            archive.forEach(formSchemaId, extractor);
+            cursor.forEach(formSchemaId, extractor);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read submissions of form " + formSchemaId, e);
+        }
+        contextRepository.saveAll(batch);
+        return processed[0];
+    }
+
+    /**
+     * Recompute the statistics of a form from its stored submissions
+     *
+     * @return the number of submissions counted
+     */
+    @Transactional
+    public long rebuildStats(Long formSchemaId) {
+        statsService.clear(formSchemaId);
+        long[] processed = {0};
+        List<FormSubmission> chunk = new ArrayList<>(STATS_CHUNK);
+        List<FormSubmissionContext> contexts = new ArrayList<>();
+        try {
+            archive.forEach(formSchemaId, submission -> {
+                chunk.add(submission);
+                contexts.addAll(extractContext(submission));
+                if (chunk.size() == STATS_CHUNK) {
+                    statsService.record(chunk, contexts);
+                    processed[0] += chunk.size();
+                    chunk.clear();
+                    contexts.clear();
+                }
+            });
+        } catch (IOException e) {
+            // Unchecked, so the cleared statistics are rolled back
+            throw new UncheckedIOException("Cannot read archived submissions of form " + formSchemaId, e);
+        }
+        try {
+            cursor.forEach(formSchemaId, submission -> {
+                chunk.add(submission);
+                contexts.addAll(extractContext(submission));
+                if (chunk.size() == STATS_CHUNK) {
+                    statsService.record(chunk, contexts);
+                    processed[0] += chunk.size();
+                    chunk.clear();
+                    contexts.clear();
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read submissions of form " + formSchemaId, e);
+        }
+        statsService.record(chunk, contexts);
+        return processed[0] + chunk.size();
+    }
+
+    /**
+     * One page of a form's submissions in (submittedAt, id) order, starting after the given cursor
+     *
+     * @throws IllegalArgumentException if the cursor was not produced by this service
+     */
+    @Transactional(readOnly = true)
+    public SubmissionPage page(Long formSchemaId, int limit, String cursor) {
+        return page(formSchemaId, null, null, limit, cursor);
+    }
+
+    /**
+     * One page of a form's submissions, restricted to those whose context key has the given
+     * value when {@code contextKey} is set
+     *
+     * @throws IllegalArgumentException if the cursor is invalid or the key is not a context key
+     */
+    @Transactional(readOnly = true)
+    public SubmissionPage page(Long formSchemaId, String contextKey, String contextValue, int limit, String cursor) {
+        boolean byContext = contextKey != null && !contextKey.isEmpty();
+        if (byContext) {
+            checkContextFilter(contextKey, contextValue);
+        }
+        int size = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        Cursor position = cursor == null || cursor.isEmpty() ? null : Cursor.decode(cursor);
+        // One extra row tells whether there is a next page without a count query
+        List<FormSubmission> rows = new ArrayList<>(size + 1);
+        LocalDateTime horizon = archive.horizon();
+        boolean fromArchive = horizon != null && (position == null || position.submittedAt().isBefore(horizon));
+        if (fromArchive) {
+            if (byContext) {
+                // Context rows give the keys; only the blocks holding them are read
+                PageRequest window = PageRequest.of(0, size + 1);
+                List<SubmissionKey> keys = position == null
+                        ? contextRepository.findArchivedKeys(formSchemaId, contextKey, contextValue, horizon, window)
+                        : contextRepository.findArchivedKeysAfter(formSchemaId, contextKey, contextValue,
+                                position.submittedAt(), position.id(), horizon, window);
+                rows.addAll(archive.read(formSchemaId, keys));
+            } else {
+                rows.addAll(archive.read(formSchemaId, position == null ? null : position.submittedAt(),
+                        position == null ? null : position.id(), size + 1));
+            }
+            // Past the archive, the database part starts at the horizon
+            position = new Cursor(horizon, Long.MIN_VALUE);
+        }
+        if (rows.size() <= size) {
+            PageRequest window = PageRequest.of(0, size + 1 - rows.size());
+            if (byContext) {
+                rows.addAll(position == null
+                        ? submissionRepository.findByContext(formSchemaId, contextKey, contextValue, window)
+                        : submissionRepository.findByContextAfter(formSchemaId, contextKey, contextValue,
+                                position.submittedAt(), position.id(), window));
+            } else {
+                rows.addAll(position == null
+                        ? submissionRepository.findByFormSchemaIdOrderBySubmittedAtAscIdAsc(formSchemaId, window)
+                        : submissionRepository.findPageAfter(formSchemaId, position.submittedAt(), position.id(), window));
+            }
+        }
+        if (rows.size() <= size) {
+            return new SubmissionPage(rows, null);
+        }
+        List<FormSubmission> items = rows.subList(0, size);
+        FormSubmission last = items.get(size - 1);
+        return new SubmissionPage(List.copyOf(items), new Cursor(last.getSubmittedAt(), last.getId()).encode());
+    }
+
+    /**
+     * Write every submission of a form as NDJSON, reading through a database cursor
+     */
+    public void writeNdjson(Long formSchemaId, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(FormSubmission.class);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            int[] archived = {0};
+            archive.forEach(formSchemaId, submission -> {
+                writer.writeValue(json, submission);
+                json.writeRaw('\n');
+                if (++archived[0] % STREAM_FLUSH_EVERY == 0) {
+                    json.flush();
+                }
+            });
+            int[] written = {0};
+            cursor.forEach(formSchemaId, submission -> {
+                writer.writeValue(json, submission);
+                json.writeRaw('\n');
+                if (++written[0] % STREAM_FLUSH_EVERY == 0) {
+                    json.flush();
+                }
+            });
+            json.flush();
+        }
+    }
+
+    /**
+     * Write the submissions of a form as one JSON array, oldest first, restricted to one context
+     * value when {@code contextKey} is set. Like the NDJSON stream, only one cursor fetch (or one
+     * page, through the context index) is held in memory.
+     *
+     * @throws IllegalArgumentException if the key is not a context key; checked before anything is written
+     */
+    public void writeJsonArray(Long formSchemaId, String contextKey, String contextValue, OutputStream out)
+            throws IOException {
+        boolean byContext = contextKey != null && !contextKey.isEmpty();
+        if (byContext) {
+            checkContextFilter(contextKey, contextValue);
+        }
+        ObjectWriter writer = objectMapper.writerFor(FormSubmission.class);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartArray();
+            if (byContext) {
+                String next = null;
+                do {
+                    SubmissionPage page = page(formSchemaId, contextKey, contextValue, MAX_PAGE_SIZE, next);
+                    for (FormSubmission submission : page.items()) {
+                        writer.writeValue(json, submission);
+                    }
+                    json.flush();
+                    next = page.nextCursor();
+                } while (next != null);
+            } else {
+                int[] written = {0};
+                SubmissionArchive.Visitor element = submission -> {
+                    writer.writeValue(json, submission);
+                    if (++written[0] % STREAM_FLUSH_EVERY == 0) {
+                        json.flush();
+                    }
+                };
+                archive.forEach(formSchemaId, element);
+                cursor.forEach(formSchemaId, element);
+            }
+            json.writeEndArray();
+            json.flush();
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException unless {@code contextKey} is a configured context key and a value is given
+     */
+    public void checkContextFilter(String contextKey, String contextValue) {
+        if (!contextKeys.contains(contextKey) || contextValue == null) {
+            throw new IllegalArgumentException("Not a context filter: " + contextKey + "=" + contextValue);
+        }
+    }
+
+    /**
+     * Context rows of a submission whose id and submittedAt are already set
+     */
+    List<FormSubmissionContext> extractContext(FormSubmission submission) {
+        String data = submission.getSubmissionData();
+        if (data == null || data.isBlank()) {
+            return List.of();
+        }
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(data);
+        } catch (JsonProcessingException e) {
+            log.warn("Submission {} has unparseable data; no context indexed", submission.getId());
+            return List.of();
+        }
+        if (!root.isObject()) {
+            return List.of();
+        }
+        List<FormSubmissionContext> contexts = new ArrayList<>(contextKeys.size());
+        for (String key : contextKeys) {
+            JsonNode value = root.get(key);
+            if (value == null || !value.isValueNode() || value.isNull()) {
+                continue;
+            }
+            String text = value.asText();
+            if (text.isEmpty() || text.length() > FormSubmissionContext.MAX_VALUE_LENGTH) {
+                continue;
+            }
+            FormSubmissionContext context = new FormSubmissionContext();
+            context.setSubmissionId(submission.getId());
+            context.setFormSchemaId(submission.getFormSchemaId());
+            context.setContextKey(key);
+            context.setContextValue(text);
+            context.setSubmittedAt(submission.getSubmittedAt());
+            contexts.add(context);
+        }
+        return contexts;
+    }
+
+    /**
+     * Opaque keyset position: base64url of "submittedAt|id"
+     */
+    private record Cursor(LocalDateTime submittedAt, Long id) {
+
+        String encode() {
+            String raw = submittedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+            }
+        }
+    }
+}
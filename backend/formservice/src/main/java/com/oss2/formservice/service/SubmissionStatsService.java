@@ -0,0 +1,341 @@
+package com.oss2.formservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oss2.formservice.model.FormSchema;
+import com.oss2.formservice.model.FormSchemaStamp;
+import com.oss2.formservice.model.FormSubmission;
+import com.oss2.formservice.model.FormSubmissionContext;
+import com.oss2.formservice.repository.FormSchemaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-form and per-context submission statistics, maintained incrementally.
+ * <p>
+ * Every insert adds its submissions to three aggregate tables with upserts, inside the inserting
+ * transaction: the submission count, count/sum/min/max of each numeric field, and a histogram of
+ * each choice field (select, radio, checkbox). Which fields are numeric or choices comes from the
+ * form schema. A stats read touches a number of rows bounded by the schema, not by the number of
+ * submissions.
+ */
+@Slf4j
+@Service
+public class SubmissionStatsService {
+
+    /**
+     * Scope key/value of the whole-form aggregates
+     */
+    public static final String FORM_SCOPE = "";
+
+    private static final String UPSERT_COUNT = "INSERT INTO form_stats"
+            + " (form_schema_id, scope_key, scope_value, submission_count) VALUES (?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE submission_count = submission_count + VALUES(submission_count)";
+    private static final String UPSERT_NUMERIC = "INSERT INTO form_field_stats"
+            + " (form_schema_id, scope_key, scope_value, field_id, value_count, value_sum, min_value, max_value)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE value_count = value_count + VALUES(value_count),"
+            + " value_sum = value_sum + VALUES(value_sum),"
+            + " min_value = LEAST(min_value, VALUES(min_value)),"
+            + " max_value = GREATEST(max_value, VALUES(max_value))";
+    private static final String UPSERT_CHOICE = "INSERT INTO form_choice_stats"
+            + " (form_schema_id, scope_key, scope_value, field_id, choice_value, choice_count) VALUES (?, ?, ?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE choice_count = choice_count + VALUES(choice_count)";
+
+    // Upserts are applied in key order so concurrent batches lock rows in the same order
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::formSchemaId)
+            .thenComparing(Key::scopeKey)
+            .thenComparing(Key::scopeValue)
+            .thenComparing(Key::fieldId)
+            .thenComparing(Key::choice);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FormSchemaRepository formSchemaRepository;
+    private final ObjectMapper objectMapper;
+    private final Map<Long, StatFields> fieldsByForm = new ConcurrentHashMap<>();
+
+    public SubmissionStatsService(JdbcTemplate jdbcTemplate, FormSchemaRepository formSchemaRepository,
+                                  ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.formSchemaRepository = formSchemaRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Add submissions and their context rows to the aggregates; call inside the inserting transaction
+     */
+    public void record(List<FormSubmission> submissions, List<FormSubmissionContext> contexts) {
+        if (submissions.isEmpty()) {
+            return;
+        }
+        Map<Long, List<FormSubmissionContext>> contextsBySubmission = new HashMap<>();
+        for (FormSubmissionContext context : contexts) {
+            contextsBySubmission.computeIfAbsent(context.getSubmissionId(), id -> new ArrayList<>()).add(context);
+        }
+
+        // Aggregate the whole batch in memory first: one upsert per touched row, not per submission
+        Map<Key, long[]> counts = new TreeMap<>(KEY_ORDER);
+        Map<Key, double[]> numerics = new TreeMap<>(KEY_ORDER);
+        Map<Key, long[]> choices = new TreeMap<>(KEY_ORDER);
+        Map<Long, StatFields> fieldsInBatch = new HashMap<>();
+        for (FormSubmission submission : submissions) {
+            Long formId = submission.getFormSchemaId();
+            if (formId == null) {
+                continue;
+            }
+            StatFields fields = fieldsInBatch.computeIfAbsent(formId, this::fieldsFor);
+            JsonNode data = parse(submission);
+
+            List<String[]> scopes = new ArrayList<>();
+            scopes.add(new String[]{FORM_SCOPE, FORM_SCOPE});
+            for (FormSubmissionContext context : contextsBySubmission.getOrDefault(submission.getId(), List.of())) {
+                scopes.add(new String[]{context.getContextKey(), context.getContextValue()});
+            }
+            for (String[] scope : scopes) {
+                counts.computeIfAbsent(new Key(formId, scope[0], scope[1], FORM_SCOPE, FORM_SCOPE), k -> new long[1])[0]++;
+                if (data == null) {
+                    continue;
+                }
+                for (StatField field : fields.fields()) {
+                    JsonNode value = field.valueIn(data);
+                    if (value == null) {
+                        continue;
+                    }
+                    if (field.numeric()) {
+                        Double number = toNumber(value);
+                        if (number != null) {
+                            double[] acc = numerics.computeIfAbsent(new Key(formId, scope[0], scope[1], field.id(), FORM_SCOPE),
+                                    k -> new double[]{0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY});
+                            acc[0]++;
+                            acc[1] += number;
+                            acc[2] = Math.min(acc[2], number);
+                            acc[3] = Math.max(acc[3], number);
+                        }
+                    } else {
+                        for (String choice : toChoices(value)) {
+                            choices.computeIfAbsent(new Key(formId, scope[0], scope[1], field.id(), choice), k -> new long[1])[0]++;
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Object[]> countRows = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> countRows.add(new Object[]{key.formSchemaId(), key.scopeKey(), key.scopeValue(), count[0]}));
+        List<Object[]> numericRows = new ArrayList<>(numerics.size());
+        numerics.forEach((key, acc) -> numericRows.add(new Object[]{key.formSchemaId(), key.scopeKey(), key.scopeValue(),
+                key.fieldId(), (long) acc[0], acc[1], acc[2], acc[3]}));
+        List<Object[]> choiceRows = new ArrayList<>(choices.size());
+        choices.forEach((key, count) -> choiceRows.add(new Object[]{key.formSchemaId(), key.scopeKey(), key.scopeValue(),
+                key.fieldId(), key.choice(), count[0]}));
+
+        jdbcTemplate.batchUpdate(UPSERT_COUNT, countRows);
+        if (!numericRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_NUMERIC, numericRows);
+        }
+        if (!choiceRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_CHOICE, choiceRows);
+        }
+    }
+
+    /**
+     * Drop all aggregates of a form (before recomputing them)
+     */
+    public void clear(Long formSchemaId) {
+        jdbcTemplate.update("DELETE FROM form_stats WHERE form_schema_id = ?", formSchemaId);
+        jdbcTemplate.update("DELETE FROM form_field_stats WHERE form_schema_id = ?", formSchemaId);
+        jdbcTemplate.update("DELETE FROM form_choice_stats WHERE form_schema_id = ?", formSchemaId);
+        fieldsByForm.remove(formSchemaId);
+    }
+
+    /**
+     * Statistics of a form, overall or (with a scope key and value) for one context value such as bookId=42
+     */
+    public Map<String, Object> read(Long formSchemaId, String scopeKey, String scopeValue) {
+        String key = scopeKey != null ? scopeKey : FORM_SCOPE;
+        String value = scopeValue != null ? scopeValue : FORM_SCOPE;
+        StatFields fields = fieldsFor(formSchemaId);
+
+        List<Long> count = jdbcTemplate.queryForList("SELECT submission_count FROM form_stats"
+                + " WHERE form_schema_id = ? AND scope_key = ? AND scope_value = ?", Long.class, formSchemaId, key, value);
+
+        Map<String, Object> numeric = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT field_id, value_count, value_sum, min_value, max_value FROM form_field_stats"
+                + " WHERE form_schema_id = ? AND scope_key = ? AND scope_value = ? ORDER BY field_id", rs -> {
+            long valueCount = rs.getLong("value_count");
+            double sum = rs.getDouble("value_sum");
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("label", fields.labelOf(rs.getString("field_id")));
+            stats.put("count", valueCount);
+            stats.put("sum", sum);
+            stats.put("min", rs.getDouble("min_value"));
+            stats.put("max", rs.getDouble("max_value"));
+            stats.put("avg", valueCount > 0 ? sum / valueCount : null);
+            numeric.put(rs.getString("field_id"), stats);
+        }, formSchemaId, key, value);
+
+        Map<String, Map<String, Object>> choices = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT field_id, choice_value, choice_count FROM form_choice_stats"
+                + " WHERE form_schema_id = ? AND scope_key = ? AND scope_value = ? ORDER BY field_id, choice_count DESC", rs -> {
+            String fieldId = rs.getString("field_id");
+            Map<String, Object> histogram = choices.computeIfAbsent(fieldId, id -> {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("label", fields.labelOf(id));
+                entry.put("counts", new LinkedHashMap<String, Long>());
+                return entry;
+            });
+            @SuppressWarnings("unchecked")
+            Map<String, Long> histogramCounts = (Map<String, Long>) histogram.get("counts");
+            histogramCounts.put(rs.getString("choice_value"), rs.getLong("choice_count"));
+        }, formSchemaId, key, value);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("formId", formSchemaId);
+        if (!FORM_SCOPE.equals(key)) {
+            result.put("contextKey", key);
+            result.put("contextValue", value);
+        }
+        result.put("count", count.isEmpty() ? 0L : count.get(0));
+        result.put("numeric", numeric);
+        result.put("choices", choices);
+        return result;
+    }
+
+    /**
+     * Numeric and choice fields of a form's current schema, re-parsed only when the form changes
+     */
+    private StatFields fieldsFor(Long formSchemaId) {
+        Optional<FormSchemaStamp> stamp = formSchemaRepository.findStampById(formSchemaId);
+        if (stamp.isEmpty()) {
+            return StatFields.NONE;
+        }
+        LocalDateTime version = stamp.get().getUpdatedAt();
+        StatFields cached = fieldsByForm.get(formSchemaId);
+        if (cached != null && Objects.equals(cached.version(), version)) {
+            return cached;
+        }
+        StatFields parsed = formSchemaRepository.findById(formSchemaId)
+                .map(form -> parseFields(form, version))
+                .orElse(StatFields.NONE);
+        fieldsByForm.put(formSchemaId, parsed);
+        return parsed;
+    }
+
+    private StatFields parseFields(FormSchema form, LocalDateTime version) {
+        List<StatField> fields = new ArrayList<>();
+        try {
+            JsonNode schema = form.getSchemaJson() != null ? objectMapper.readTree(form.getSchemaJson()) : null;
+            JsonNode list = schema != null ? schema.get("fields") : null;
+            if (list != null && list.isArray()) {
+                for (JsonNode field : list) {
+                    String id = field.path("id").asText("");
+                    String type = field.path("type").asText("");
+                    if (id.isEmpty() || id.length() > 100) {
+                        continue;
+                    }
+                    String label = field.path("label").asText("");
+                    switch (type) {
+                        case "number" -> fields.add(new StatField(id, label, true));
+                        case "select", "radio", "checkbox" -> fields.add(new StatField(id, label, false));
+                        default -> { }
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Schema of form {} is not valid JSON; no field statistics", form.getId());
+        }
+        return new StatFields(version, fields);
+    }
+
+    private JsonNode parse(FormSubmission submission) {
+        String data = submission.getSubmissionData();
+        if (data == null || data.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(data);
+            return root.isObject() ? root : null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static Double toNumber(JsonNode value) {
+        if (value.isNumber()) {
+            return value.doubleValue();
+        }
+        if (value.isTextual() && !value.asText().isBlank()) {
+            try {
+                double parsed = Double.parseDouble(value.asText().trim());
+                return Double.isFinite(parsed) ? parsed : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static List<String> toChoices(JsonNode value) {
+        List<String> choices = new ArrayList<>(1);
+        if (value.isArray()) {
+            value.forEach(item -> addChoice(item, choices));
+        } else {
+            addChoice(value, choices);
+        }
+        return choices;
+    }
+
+    private static void addChoice(JsonNode value, List<String> choices) {
+        if (!value.isValueNode() || value.isNull()) {
+            return;
+        }
+        String text = value.asText();
+        if (!text.isEmpty() && text.length() <= FormSubmissionContext.MAX_VALUE_LENGTH) {
+            choices.add(text);
+        }
+    }
+
+    private record Key(Long formSchemaId, String scopeKey, String scopeValue, String fieldId, String choice) {
+    }
+
+    private record StatField(String id, String label, boolean numeric) {
+
+        /**
+         * Submissions are keyed by field id (frontend) or by label (some backend callers)
+         */
+        JsonNode valueIn(JsonNode data) {
+            JsonNode value = data.get(id);
+            if ((value == null || value.isNull()) && !label.isEmpty()) {
+                value = data.get(label);
+            }
+            return value == null || value.isNull() ? null : value;
+        }
+    }
+
+    private record StatFields(LocalDateTime version, List<StatField> fields) {
+        static final StatFields NONE = new StatFields(null, List.of());
+
+        String labelOf(String fieldId) {
+            for (StatField field : fields) {
+                if (field.id().equals(fieldId)) {
+                    return field.label();
+                }
+            }
+            return fieldId;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.oss2.formservice.validation;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Validation rule of one schema field, compiled from its definition.
+ * Optional constraints ({@code min}, {@code max}, {@code minLength}, {@code maxLength},
+ * {@code pattern}) are honored when the schema carries them.
+ */
+final class FieldRule {
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final Pattern TEL = Pattern.compile("^[0-9+()\\-.\\s]{3,32}$");
+    private static final Pattern COLOR = Pattern.compile("^#[0-9a-fA-F]{6}$");
+
+    final int index;
+    final String id;
+    final String label;
+    final FieldType type;
+    final boolean required;
+    private final Set<String> options;
+    private final Double min;
+    private final Double max;
+    private final Integer minLength;
+    private final Integer maxLength;
+    private final Pattern pattern;
+
+    FieldRule(int index, String id, String label, FieldType type, boolean required, Set<String> options,
+              Double min, Double max, Integer minLength, Integer maxLength, Pattern pattern) {
+        this.index = index;
+        this.id = id;
+        this.label = label;
+        this.type = type;
+        this.required = required;
+        this.options = options;
+        this.min = min;
+        this.max = max;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.pattern = pattern;
+    }
+
+    /**
+     * Check one non-empty scalar value; returns an error message or null
+     */
+    String checkText(String value) {
+        switch (type) {
+            case NUMBER:
+                double number;
+                try {
+                    number = Double.parseDouble(value.trim());
+                } catch (NumberFormatException e) {
+                    return "must be a number";
+                }
+                return checkNumber(number);
+            case EMAIL:
+                if (!EMAIL.matcher(value).matches()) {
+                    return "must be an email address";
+                }
+                break;
+            case URL:
+                if (!isUrl(value)) {
+                    return "must be an http(s) URL";
+                }
+                break;
+            case TEL:
+                if (!TEL.matcher(value).matches()) {
+                    return "must be a phone number";
+                }
+                break;
+            case COLOR:
+                if (!COLOR.matcher(value).matches()) {
+                    return "must be a color like #a1b2c3";
+                }
+                break;
+            case DATE:
+                return parses(() -> LocalDate.parse(value), "must be a date (yyyy-mm-dd)");
+            case TIME:
+                return parses(() -> LocalTime.parse(value), "must be a time (hh:mm)");
+            case DATETIME_LOCAL:
+                return parses(() -> LocalDateTime.parse(value), "must be a date and time (yyyy-mm-ddThh:mm)");
+            case SELECT:
+            case RADIO:
+            case CHECKBOX:
+                if (!options.isEmpty() && !options.contains(value)) {
+                    return "must be one of " + options;
+                }
+                return null;
+            default:
+                break;
+        }
+        if (minLength != null && value.length() < minLength) {
+            return "must be at least " + minLength + " characters";
+        }
+        if (maxLength != null && value.length() > maxLength) {
+            return "must be at most " + maxLength + " characters";
+        }
+        if (pattern != null && !pattern.matcher(value).matches()) {
+            return "has an invalid format";
+        }
+        return null;
+    }
+
+    String checkNumber(double number) {
+        if (type != FieldType.NUMBER) {
+            return checkText(numberText(number));
+        }
+        if (!Double.isFinite(number)) {
+            return "must be a number";
+        }
+        if (min != null && number < min) {
+            return "must be at least " + numberText(min);
+        }
+        if (max != null && number > max) {
+            return "must be at most " + numberText(max);
+        }
+        return null;
+    }
+
+    /**
+     * Booleans are only meaningful for a checkbox without options
+     */
+    String checkBoolean(boolean value) {
+        if (type == FieldType.CHECKBOX && options.isEmpty()) {
+            return null;
+        }
+        return checkText(Boolean.toString(value));
+    }
+
+    /**
+     * Arrays are only accepted for a checkbox with options (several picked)
+     */
+    boolean acceptsArray() {
+        return type == FieldType.CHECKBOX && !options.isEmpty();
+    }
+
+    /**
+     * File and unknown fields are only checked for being filled in, not for their content
+     */
+    boolean presenceOnly() {
+        return type == FieldType.FILE || type == FieldType.OTHER;
+    }
+
+    private static String numberText(double number) {
+        return number == Math.rint(number) && Math.abs(number) < 1e15 ? Long.toString((long) number) : Double.toString(number);
+    }
+
+    private static boolean isUrl(String value) {
+        try {
+            URI uri = new URI(value);
+            return ("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()))
+                    && uri.getHost() != null;
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    private static String parses(Runnable parse, String message) {
+        try {
+            parse.run();
+            return null;
+        } catch (DateTimeParseException e) {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.oss2.formservice.validation;
+
+/**
+ * Field types of the form builder, as stored in {@code fields[].type}
+ */
+enum FieldType {
+    TEXT, TEXTAREA, EMAIL, NUMBER, SELECT, CHECKBOX, RADIO, DATE, TIME, DATETIME_LOCAL, FILE, URL, TEL, COLOR, OTHER;
+
+    static FieldType of(String type) {
+        if (type == null) {
+            return OTHER;
+        }
+        return switch (type) {
+            case "text" -> TEXT;
+            case "textarea" -> TEXTAREA;
+            case "email" -> EMAIL;
+            case "number" -> NUMBER;
+            case "select" -> SELECT;
+            case "checkbox" -> CHECKBOX;
+            case "radio" -> RADIO;
+            case "date" -> DATE;
+            case "time" -> TIME;
+            case "datetime-local" -> DATETIME_LOCAL;
+            case "file" -> FILE;
+            case "url" -> URL;
+            case "tel" -> TEL;
+            case "color" -> COLOR;
+            default -> OTHER;
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.oss2.formservice.validation;
+
+import java.util.Map;
+
+/**
+ * A submission does not satisfy its form's schema; carries one message per offending field
+ */
+public class SubmissionValidationException extends RuntimeException {
+
+    private final Map<String, String> fieldErrors;
+
+    public SubmissionValidationException(Map<String, String> fieldErrors) {
+        super("Invalid submission: " + fieldErrors);
+        this.fieldErrors = Map.copyOf(fieldErrors);
+    }
+
+    public Map<String, String> getFieldErrors() {
+        return fieldErrors;
+    }
+}
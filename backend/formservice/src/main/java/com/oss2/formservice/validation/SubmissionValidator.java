@@ -0,0 +1,259 @@
+package com.oss2.formservice.validation;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Validator for the submissions of one schema version.
+ * <p>
+ * Compiled once from the schema JSON into a table of {@link FieldRule}s keyed by field id and
+ * label (submissions use either). Validating reads the submission with a single token stream
+ * and looks each key up in that table: no tree is built and nothing is re-read from the schema.
+ * Keys that are not schema fields (e.g. bookId added by the calling service) are allowed.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class SubmissionValidator {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ObjectMapper SCHEMA_READER = new ObjectMapper();
+    private static final String OK = "ok";
+    private static final String EMPTY = "";
+
+    private final FieldRule[] rules;
+    private final Map<String, FieldRule> rulesByKey;
+
+    private SubmissionValidator(FieldRule[] rules, Map<String, FieldRule> rulesByKey) {
+        this.rules = rules;
+        this.rulesByKey = rulesByKey;
+    }
+
+    /**
+     * Compile the rules of a form schema ({@code {"fields":[{id,type,label,required,options,...}]}})
+     *
+     * @throws IllegalArgumentException if the schema is not valid JSON
+     */
+    public static SubmissionValidator compile(String schemaJson) {
+        if (schemaJson == null || schemaJson.isBlank()) {
+            return new SubmissionValidator(new FieldRule[0], Map.of());
+        }
+        JsonNode fields;
+        try {
+            fields = SCHEMA_READER.readTree(schemaJson).path("fields");
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Form schema is not valid JSON", e);
+        }
+        List<FieldRule> rules = new ArrayList<>();
+        Map<String, FieldRule> byKey = new HashMap<>();
+        for (JsonNode field : fields) {
+            String id = field.path("id").asText("");
+            if (id.isEmpty() || byKey.containsKey(id)) {
+                continue;
+            }
+            String label = field.path("label").asText("");
+            Set<String> options = new LinkedHashSet<>();
+            field.path("options").forEach(option -> {
+                if (option.isValueNode()) {
+                    options.add(option.asText());
+                }
+            });
+            FieldRule rule = new FieldRule(rules.size(), id, label, FieldType.of(field.path("type").asText(null)),
+                    field.path("required").asBoolean(false), Collections.unmodifiableSet(options),
+                    number(field, "min"), number(field, "max"),
+                    integer(field, "minLength"), integer(field, "maxLength"), pattern(field));
+            rules.add(rule);
+            byKey.put(id, rule);
+        }
+        // Labels are a fallback key; an id always wins over another field's label
+        for (FieldRule rule : rules) {
+            if (!rule.label.isEmpty()) {
+                byKey.putIfAbsent(rule.label, rule);
+            }
+        }
+        return new SubmissionValidator(rules.toArray(new FieldRule[0]), Map.copyOf(byKey));
+    }
+
+    /**
+     * Validate submission data given as JSON text
+     *
+     * @return field id to error message, in schema order; empty when the submission is valid
+     */
+    public Map<String, String> validate(String submissionJson) {
+        // Per rule: null = not seen, "" = seen but empty, otherwise "ok" or the error message
+        String[] outcome = new String[rules.length];
+        if (submissionJson != null && !submissionJson.isBlank()) {
+            try (JsonParser parser = JSON_FACTORY.createParser(submissionJson)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return Map.of("submissionData", "must be a JSON object");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    FieldRule rule = rulesByKey.get(parser.getCurrentName());
+                    JsonToken value = parser.nextToken();
+                    if (rule == null) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    String result = checkValue(rule, value, parser);
+                    // The first error of a field (given by id and label) wins
+                    if (!isError(outcome[rule.index])) {
+                        outcome[rule.index] = result;
+                    }
+                }
+            } catch (IOException e) {
+                return Map.of("submissionData", "is not valid JSON");
+            }
+        }
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (FieldRule rule : rules) {
+            String result = outcome[rule.index];
+            if (result == null || result == EMPTY) {
+                if (rule.required) {
+                    errors.put(rule.id, "is required");
+                }
+            } else if (result != OK) {
+                errors.put(rule.id, result);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Check the value the parser is positioned on; returns {@link #OK}, {@link #EMPTY} (null, "",
+     * unticked checkbox, empty list) or an error message
+     */
+    private static String checkValue(FieldRule rule, JsonToken token, JsonParser parser) throws IOException {
+        if (rule.presenceOnly()) {
+            return checkPresence(token, parser);
+        }
+        String error;
+        switch (token) {
+            case VALUE_NULL:
+                return EMPTY;
+            case VALUE_STRING:
+                String text = parser.getText();
+                if (text.isEmpty()) {
+                    return EMPTY;
+                }
+                error = rule.checkText(text);
+                break;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                error = rule.checkNumber(parser.getDoubleValue());
+                break;
+            case VALUE_TRUE:
+                error = rule.checkBoolean(true);
+                break;
+            case VALUE_FALSE:
+                // An unticked checkbox counts as not filled in, like in the form renderer
+                if (rule.type == FieldType.CHECKBOX) {
+                    return EMPTY;
+                }
+                error = rule.checkBoolean(false);
+                break;
+            case START_ARRAY:
+                if (!rule.acceptsArray()) {
+                    parser.skipChildren();
+                    return "must be a single value";
+                }
+                boolean any = false;
+                error = null;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken().isStructStart()) {
+                        parser.skipChildren();
+                        error = error != null ? error : "must be a list of options";
+                        continue;
+                    }
+                    String item = parser.getText();
+                    any = true;
+                    if (error == null) {
+                        error = rule.checkText(item);
+                    }
+                }
+                if (error == null && !any) {
+                    return EMPTY;
+                }
+                break;
+            default:
+                parser.skipChildren();
+                return "must be a single value";
+        }
+        return error != null ? error : OK;
+    }
+
+    /**
+     * File (and unknown) fields carry whatever the client sends: a file name, a data URL or an
+     * object. A browser File passed through JSON.stringify arrives as {@code {}} (an unpicked one
+     * is left out), so any object counts as filled in; an empty list does not.
+     */
+    private static String checkPresence(JsonToken token, JsonParser parser) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                return EMPTY;
+            case VALUE_STRING:
+                return parser.getText().isEmpty() ? EMPTY : OK;
+            case START_OBJECT:
+                parser.skipChildren();
+                return OK;
+            case START_ARRAY:
+                boolean any = false;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    parser.skipChildren();
+                    any = true;
+                }
+                return any ? OK : EMPTY;
+            default:
+                return OK;
+        }
+    }
+
+    // OK and EMPTY are compared by identity: error messages are never these instances
+    private static boolean isError(String result) {
+        return result != null && result != EMPTY && result != OK;
+    }
+
+    private static Double number(JsonNode field, String name) {
+        JsonNode value = field.get(name);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (value.isNumber()) {
+            return value.doubleValue();
+        }
+        try {
+            return value.asText().isBlank() ? null : Double.parseDouble(value.asText().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Integer integer(JsonNode field, String name) {
+        Double value = number(field, name);
+        return value != null && value >= 0 ? value.intValue() : null;
+    }
+
+    private static Pattern pattern(JsonNode field) {
+        String regex = field.path("pattern").asText("");
+        if (regex.isEmpty()) {
+            return null;
+        }
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+}
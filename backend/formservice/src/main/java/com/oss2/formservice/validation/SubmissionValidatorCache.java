@@ -0,0 +1,113 @@
+package com.oss2.formservice.validation;
+
+import com.oss2.formservice.model.FormSchemaStamp;
+import com.oss2.formservice.model.FormSchemaVersion;
+import com.oss2.formservice.model.FormSubmission;
+import com.oss2.formservice.repository.FormSchemaRepository;
+import com.oss2.formservice.repository.FormSchemaVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Compiled {@link SubmissionValidator}s, one per schema version.
+ * <p>
+ * Versions are immutable and content-addressed, so a compiled validator never goes stale and
+ * needs no invalidation: the form's current version is read with the cheap stamp query, and the
+ * schema JSON is loaded and compiled only the first time a version is seen. Validating a
+ * submission therefore costs one indexed lookup plus one streaming pass over the submission data.
+ * At most {@code cache-size} validators are kept; the least recently used one is dropped first.
+ */
+@Slf4j
+@Component
+public class SubmissionValidatorCache {
+
+    private final FormSchemaRepository formSchemaRepository;
+    private final FormSchemaVersionRepository versionRepository;
+    private final boolean enabled;
+    private final Map<VersionKey, SubmissionValidator> validatorsByVersion;
+
+    public SubmissionValidatorCache(FormSchemaRepository formSchemaRepository,
+                                    FormSchemaVersionRepository versionRepository,
+                                    @Value("${oss2.submissions.validation.enabled:true}") boolean enabled,
+                                    @Value("${oss2.submissions.validation.cache-size:256}") int cacheSize) {
+        this.formSchemaRepository = formSchemaRepository;
+        this.versionRepository = versionRepository;
+        this.enabled = enabled;
+        int maxSize = Math.max(1, cacheSize);
+        this.validatorsByVersion = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<VersionKey, SubmissionValidator> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Check a submission against the current schema version of its form
+     *
+     * @return the schema version the submission was checked against (null for a form saved
+     * before versioning that has not been backfilled yet)
+     * @throws SubmissionValidationException if the form does not exist or a field is invalid
+     */
+    public String validate(FormSubmission submission) {
+        Long formSchemaId = submission.getFormSchemaId();
+        Optional<FormSchemaStamp> stamp = formSchemaId != null ? formSchemaRepository.findStampById(formSchemaId) : Optional.empty();
+        if (!enabled) {
+            return stamp.map(FormSchemaStamp::getSchemaVersion).orElse(null);
+        }
+        if (stamp.isEmpty()) {
+            throw new SubmissionValidationException(Map.of("formSchemaId", "unknown form"));
+        }
+        String version = stamp.get().getSchemaVersion();
+        Map<String, String> errors = validatorFor(formSchemaId, version).validate(submission.getSubmissionData());
+        if (!errors.isEmpty()) {
+            throw new SubmissionValidationException(errors);
+        }
+        return version;
+    }
+
+    private SubmissionValidator validatorFor(Long formSchemaId, String version) {
+        VersionKey key = new VersionKey(formSchemaId, version);
+        SubmissionValidator cached = version != null ? cached(key) : null;
+        if (cached != null) {
+            return cached;
+        }
+        Optional<FormSchemaVersion> saved = version != null
+                ? versionRepository.findByFormSchemaIdAndContentHash(formSchemaId, version)
+                : Optional.empty();
+        if (saved.isEmpty()) {
+            // Not versioned yet, so nothing stable to cache under; compile the current schema
+            return compile(formSchemaId, formSchemaRepository.findSchemaJsonById(formSchemaId).orElse(null));
+        }
+        SubmissionValidator compiled = compile(formSchemaId, saved.get().getSchemaJson());
+        synchronized (validatorsByVersion) {
+            SubmissionValidator raced = validatorsByVersion.putIfAbsent(key, compiled);
+            return raced != null ? raced : compiled;
+        }
+    }
+
+    private SubmissionValidator cached(VersionKey key) {
+        // Access order: get moves the entry, so reads need the lock too
+        synchronized (validatorsByVersion) {
+            return validatorsByVersion.get(key);
+        }
+    }
+
+    private static SubmissionValidator compile(Long formSchemaId, String schemaJson) {
+        try {
+            return SubmissionValidator.compile(schemaJson);
+        } catch (IllegalArgumentException e) {
+            // Nothing to check against; accept submissions rather than reject every one
+            log.warn("Schema of form {} is not valid JSON; submissions are not validated", formSchemaId);
+            return SubmissionValidator.compile(null);
+        }
+    }
+
+    private record VersionKey(Long formSchemaId, String version) {
+    }
+}
@@ -8,12 +8,23 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Collection;
+import java.util.List;
+
 @FeignClient(name = "book-service", path = "/books", configuration = FeignClientConfig.class)
 public interface BookClient {
 
     @GetMapping("/{id}")
     BookDTO getBookById(@PathVariable Long id);
 
+    /**
+     * Many books in one call (at most {@link #MAX_BATCH_SIZE} ids); ids that do not exist are left out
+     */
+    @GetMapping("/batch")
+    List<BookDTO> getBooksByIds(@RequestParam("ids") Collection<Long> ids);
+
+    int MAX_BATCH_SIZE = 100;
+
     @PutMapping("/{id}/reduce-stock")
     void reduceStock(@PathVariable Long id, @RequestParam Integer quantity);
 }
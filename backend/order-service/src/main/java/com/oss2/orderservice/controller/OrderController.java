@@ -2,6 +2,7 @@ package com.oss2.orderservice.controller;
 
 import com.oss2.common.form.client.FormServiceClient;
 import com.oss2.common.form.dto.FormSubmissionDTO;
+import com.oss2.common.form.dto.SubmissionPageDTO;
 import com.oss2.orderservice.model.Order;
 import com.oss2.orderservice.service.OrderService;
 import org.springframework.http.ResponseEntity;
@@ -81,13 +82,15 @@ public class OrderController {
     }
 
     /**
-     * Get all feedback for an order
-     * Example: GET /orders/123/feedback?formId=5
+     * Get the feedback submitted for an order, one page at a time
+     * Example: GET /orders/123/feedback?formId=5&limit=50&cursor=<nextCursor>
      */
     @GetMapping("/{orderId}/feedback")
-    public ResponseEntity<FormSubmissionDTO[]> getOrderFeedback(
+    public ResponseEntity<SubmissionPageDTO> getOrderFeedback(
             @PathVariable Long orderId,
             @RequestParam Long formId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
             @AuthenticationPrincipal Jwt jwt) {
 
         String userId = jwt.getSubject();
@@ -102,7 +105,8 @@ public class OrderController {
             return ResponseEntity.status(403).build();
         }
 
-        FormSubmissionDTO[] submissions = formServiceClient.getFormSubmissions(formId);
+        // Only this order's submissions, one keyset page at a time; pass nextCursor back to continue
+        SubmissionPageDTO submissions = formServiceClient.getFormSubmissionsPage(formId, "orderId", orderId, limit, cursor);
         return ResponseEntity.ok(submissions);
     }
 }
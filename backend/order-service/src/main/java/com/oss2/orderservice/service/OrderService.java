@@ -1,30 +1,44 @@
 package com.oss2.orderservice.service;
 
+import com.oss2.common.batch.RequestBatcher;
 import com.oss2.orderservice.client.BookClient;
 import com.oss2.orderservice.dto.BookDTO;
 import com.oss2.orderservice.model.Order;
 import com.oss2.orderservice.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
     private final OrderRepository orderRepository;
     private final BookClient bookClient;
+    // Book lookups of orders placed at about the same time share one GET /books/batch
+    private final RequestBatcher<Long, BookDTO> books;
 
-    public OrderService(OrderRepository orderRepository, BookClient bookClient) {
+    public OrderService(OrderRepository orderRepository, BookClient bookClient,
+                        @Value("${oss2.orders.book-batch.window:5ms}") Duration bookBatchWindow) {
         this.orderRepository = orderRepository;
         this.bookClient = bookClient;
+        this.books = new RequestBatcher<>(ids -> bookClient.getBooksByIds(ids).stream()
+                .collect(Collectors.toMap(BookDTO::getId, Function.identity(), (first, second) -> first)),
+                bookBatchWindow, BookClient.MAX_BATCH_SIZE);
     }
 
     @Transactional
     public Order placeOrder(Order order, String userId) {
         // Fetch book details first
-        BookDTO book = bookClient.getBookById(order.getBookId());
+        BookDTO book = books.get(order.getBookId());
+        if (book == null) {
+            throw new RuntimeException("Book not found");
+        }
 
         // Snapshot data
         order.setBookTitle(book.getTitle());
@@ -0,0 +1,44 @@
+package com.oss2.productservice.catalog;
+
+import java.util.Set;
+
+/**
+ * Filters, order and page of a catalog query. Values within a facet are OR-ed (any of these brands),
+ * different filters are AND-ed; empty sets and null bounds do not filter. Bounds are inclusive.
+ */
+public record CatalogQuery(Set<String> categories,
+                           Set<String> brands,
+                           Double minPrice,
+                           Double maxPrice,
+                           Integer minStock,
+                           Integer maxStock,
+                           Sort sort,
+                           int page,
+                           int size) {
+
+    public enum Sort {
+        ID, PRICE_ASC, PRICE_DESC;
+
+        /**
+         * "id", "price" or "-price"
+         *
+         * @throws IllegalArgumentException for anything else
+         */
+        public static Sort parse(String value) {
+            if (value == null || value.isBlank() || value.equals("id")) {
+                return ID;
+            }
+            return switch (value) {
+                case "price" -> PRICE_ASC;
+                case "-price" -> PRICE_DESC;
+                default -> throw new IllegalArgumentException("Unknown sort: " + value + " (use id, price or -price)");
+            };
+        }
+    }
+
+    public CatalogQuery {
+        categories = categories != null ? Set.copyOf(categories) : Set.of();
+        brands = brands != null ? Set.copyOf(brands) : Set.of();
+        sort = sort != null ? sort : Sort.ID;
+    }
+}
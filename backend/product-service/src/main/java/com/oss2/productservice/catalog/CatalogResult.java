@@ -0,0 +1,21 @@
+package com.oss2.productservice.catalog;
+
+import com.oss2.productservice.model.Product;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a catalog query with the facet counts of all matches.
+ * <p>
+ * The counts of a facet leave out that facet's own filter, so they show what each value would
+ * give if selected too: with brand A selected, {@code brands} still counts brand B.
+ * Counts are ordered by count, highest first; values with no match are left out.
+ */
+public record CatalogResult(long total,
+                            int page,
+                            int size,
+                            List<Product> products,
+                            Map<String, Integer> categories,
+                            Map<String, Integer> brands) {
+}
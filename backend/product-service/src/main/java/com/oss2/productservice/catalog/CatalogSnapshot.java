@@ -0,0 +1,553 @@
+package com.oss2.productservice.catalog;
+
+import com.oss2.productservice.model.Product;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Immutable column store of the catalog, answering {@link CatalogQuery}s.
+ * <p>
+ * Products are rows numbered in id order. Category and brand are dictionary-encoded, with a bitmap of
+ * rows per value; price and stock are primitive columns with a copy sorted by value, so a range is a
+ * slice found with two binary searches, turned into rows with a few bitmap operations. A query ORs the bitmaps of the selected values of each facet,
+ * ANDs the facets and ranges together, and counts facet values either with one AND per value or,
+ * for fewer matches, by looking up the value of each match.
+ * <p>
+ * A change of price or stock alone is applied with {@link #withValues}, which moves the one row within
+ * the sorted columns and shares everything else with this snapshot.
+ */
+final class CatalogSnapshot {
+
+    static final CatalogSnapshot EMPTY = build(List.of());
+
+    // Sorted pages of results matching at least one row in this many are read off the sorted column
+    private static final int DENSE_FACTOR = 8;
+    // Facet counts scan the matches when there are fewer than this many per value, else AND per value
+    private static final int SCAN_PER_VALUE = 1000;
+    // Sorted columns keep the rows of this many prefixes of their order as bitmaps
+    private static final int RANGE_BLOCKS = 128;
+
+    private final Product[] rows;
+    private final RoaringBitmap allRows;
+    private final Dictionary categories;
+    private final Dictionary brands;
+    private final SortedColumn prices;
+    private final SortedColumn stocks;
+
+    private CatalogSnapshot(Product[] rows, RoaringBitmap allRows, Dictionary categories, Dictionary brands,
+                            SortedColumn prices, SortedColumn stocks) {
+        this.rows = rows;
+        this.allRows = allRows;
+        this.categories = categories;
+        this.brands = brands;
+        this.prices = prices;
+        this.stocks = stocks;
+    }
+
+    static CatalogSnapshot build(Collection<Product> products) {
+        Product[] rows = products.toArray(new Product[0]);
+        Arrays.sort(rows, Comparator.comparing(Product::getId));
+        RoaringBitmap allRows = new RoaringBitmap();
+        allRows.add(0L, rows.length);
+        return new CatalogSnapshot(rows, allRows, new Dictionary(rows, Product::getCategory),
+                new Dictionary(rows, Product::getBrand),
+                new SortedColumn(rows, CatalogSnapshot::price), new SortedColumn(rows, CatalogSnapshot::stock));
+    }
+
+    /**
+     * This snapshot with a product's new price and stock, sharing the rest; null when the change needs
+     * a full build (a product not in the snapshot, another category or brand, a price or stock set or
+     * cleared)
+     */
+    CatalogSnapshot withValues(Product product) {
+        int row = rowOf(product.getId());
+        if (row < 0) {
+            return null;
+        }
+        Product current = rows[row];
+        if (current == product) {
+            return this;
+        }
+        if (!Objects.equals(current.getCategory(), product.getCategory())
+                || !Objects.equals(current.getBrand(), product.getBrand())) {
+            return null;
+        }
+        SortedColumn newPrices = prices.with(row, price(product));
+        SortedColumn newStocks = stocks.with(row, stock(product));
+        if (newPrices == null || newStocks == null) {
+            return null;
+        }
+        Product[] newRows = rows.clone();
+        newRows[row] = product;
+        return new CatalogSnapshot(newRows, allRows, categories, brands, newPrices, newStocks);
+    }
+
+    int size() {
+        return rows.length;
+    }
+
+    CatalogResult query(CatalogQuery query, int pageSize) {
+        RoaringBitmap ranges = allRows;
+        if (query.minPrice() != null || query.maxPrice() != null) {
+            ranges = prices.range(query.minPrice(), query.maxPrice());
+        }
+        if (query.minStock() != null || query.maxStock() != null) {
+            RoaringBitmap stock = stocks.range(toDouble(query.minStock()), toDouble(query.maxStock()));
+            ranges = RoaringBitmap.and(ranges, stock);
+        }
+        RoaringBitmap categoryRows = categories.anyOf(query.categories());
+        RoaringBitmap brandRows = brands.anyOf(query.brands());
+
+        // Each facet is counted under every filter but its own
+        RoaringBitmap forCategories = brandRows != null ? RoaringBitmap.and(ranges, brandRows) : ranges;
+        RoaringBitmap forBrands = categoryRows != null ? RoaringBitmap.and(ranges, categoryRows) : ranges;
+        RoaringBitmap matched = categoryRows != null ? RoaringBitmap.and(forCategories, categoryRows) : forCategories;
+
+        int page = Math.max(query.page(), 0);
+        return new CatalogResult(matched.getLongCardinality(), page, pageSize,
+                page(matched, query.sort(), (long) page * pageSize, pageSize),
+                categories.counts(forCategories), brands.counts(forBrands));
+    }
+
+    private List<Product> page(RoaringBitmap matched, CatalogQuery.Sort sort, long from, int size) {
+        int total = matched.getCardinality();
+        if (from >= total) {
+            return List.of();
+        }
+        int start = (int) from;
+        int end = Math.min(total, start + size);
+        List<Product> page = new ArrayList<>(end - start);
+        if (sort == CatalogQuery.Sort.ID) {
+            // Rows are in id order already: jump to the first row of the page
+            PeekableIntIterator it = matched.getIntIterator();
+            it.advanceIfNeeded(matched.select(start));
+            while (page.size() < end - start && it.hasNext()) {
+                page.add(rows[it.next()]);
+            }
+            return page;
+        }
+        boolean descending = sort == CatalogQuery.Sort.PRICE_DESC;
+        if ((long) total * DENSE_FACTOR >= rows.length) {
+            // Most rows match: walking the price order finds the page sooner than sorting the matches
+            for (int row : prices.walk(matched, descending, start, end - start)) {
+                page.add(rows[row]);
+            }
+            return page;
+        }
+        long[] keys = smallest(prices.sortKeys(matched, descending), end);
+        for (int i = start; i < end; i++) {
+            page.add(rows[(int) keys[i]]);
+        }
+        return page;
+    }
+
+    /**
+     * The {@code count} smallest keys, sorted; a bounded max-heap when that is a small share of them
+     */
+    private static long[] smallest(long[] keys, int count) {
+        if ((long) count * 4 >= keys.length) {
+            Arrays.sort(keys);
+            return keys;
+        }
+        long[] heap = Arrays.copyOf(keys, count);
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(heap, i, count);
+        }
+        for (int i = count; i < keys.length; i++) {
+            if (keys[i] < heap[0]) {
+                heap[0] = keys[i];
+                siftDown(heap, 0, count);
+            }
+        }
+        Arrays.sort(heap);
+        return heap;
+    }
+
+    private static void siftDown(long[] heap, int i, int size) {
+        long value = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+
+    private int rowOf(Long id) {
+        int lo = 0;
+        int hi = rows.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int order = rows[mid].getId().compareTo(id);
+            if (order < 0) {
+                lo = mid + 1;
+            } else if (order > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static double price(Product product) {
+        return product.getPrice() != null ? product.getPrice() : Double.NaN;
+    }
+
+    private static double stock(Product product) {
+        return product.getStock() != null ? product.getStock() : Double.NaN;
+    }
+
+    private static Double toDouble(Integer value) {
+        return value != null ? value.doubleValue() : null;
+    }
+
+    /**
+     * A dictionary-encoded text column: distinct values (matched without regard to case), and the
+     * rows holding each
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final int[] codeByRow;
+        private final RoaringBitmap[] rowsByCode;
+        // Counts over all rows
+        private final int[] totalCounts;
+        private final Map<String, Integer> totals;
+
+        Dictionary(Product[] rows, Function<Product, String> column) {
+            codeByRow = new int[rows.length];
+            for (int row = 0; row < rows.length; row++) {
+                String value = column.apply(rows[row]);
+                if (value == null || value.isBlank()) {
+                    codeByRow[row] = -1;
+                    continue;
+                }
+                // The first spelling met (lowest id) is the one shown
+                codeByRow[row] = codes.computeIfAbsent(key(value), key -> {
+                    values.add(value.strip());
+                    return values.size() - 1;
+                });
+            }
+            rowsByCode = new RoaringBitmap[values.size()];
+            for (int code = 0; code < rowsByCode.length; code++) {
+                rowsByCode[code] = new RoaringBitmap();
+            }
+            for (int row = 0; row < rows.length; row++) {
+                if (codeByRow[row] >= 0) {
+                    rowsByCode[codeByRow[row]].add(row);
+                }
+            }
+            for (RoaringBitmap bitmap : rowsByCode) {
+                bitmap.runOptimize();
+            }
+            totalCounts = new int[rowsByCode.length];
+            for (int code = 0; code < totalCounts.length; code++) {
+                totalCounts[code] = rowsByCode[code].getCardinality();
+            }
+            totals = sorted(totalCounts);
+        }
+
+        /**
+         * Rows having any of the values; null when no value is given (no filter)
+         */
+        RoaringBitmap anyOf(Set<String> selected) {
+            if (selected.isEmpty()) {
+                return null;
+            }
+            List<RoaringBitmap> bitmaps = new ArrayList<>(selected.size());
+            for (String value : selected) {
+                Integer code = codes.get(key(value));
+                if (code != null) {
+                    bitmaps.add(rowsByCode[code]);
+                }
+            }
+            return bitmaps.isEmpty() ? new RoaringBitmap() : FastAggregation.or(bitmaps.iterator());
+        }
+
+        /**
+         * Matching rows per value, highest count first
+         */
+        Map<String, Integer> counts(RoaringBitmap candidates) {
+            long matches = candidates.getLongCardinality();
+            if (matches == codeByRow.length) {
+                return totals;
+            }
+            if (matches > codeByRow.length / 2) {
+                // Most rows match: count the few that do not and subtract
+                int[] counts = count(RoaringBitmap.flip(candidates, 0L, codeByRow.length));
+                for (int code = 0; code < counts.length; code++) {
+                    counts[code] = totalCounts[code] - counts[code];
+                }
+                return sorted(counts);
+            }
+            return sorted(count(candidates));
+        }
+
+        private int[] count(RoaringBitmap candidates) {
+            int[] counts = new int[rowsByCode.length];
+            if (candidates.getLongCardinality() < (long) rowsByCode.length * SCAN_PER_VALUE) {
+                candidates.forEach((int row) -> {
+                    if (codeByRow[row] >= 0) {
+                        counts[codeByRow[row]]++;
+                    }
+                });
+            } else {
+                for (int code = 0; code < rowsByCode.length; code++) {
+                    counts[code] = RoaringBitmap.andCardinality(rowsByCode[code], candidates);
+                }
+            }
+            return counts;
+        }
+
+        private Map<String, Integer> sorted(int[] counts) {
+            List<Integer> present = new ArrayList<>();
+            for (int code = 0; code < counts.length; code++) {
+                if (counts[code] > 0) {
+                    present.add(code);
+                }
+            }
+            present.sort(Comparator.<Integer>comparingInt(code -> counts[code]).reversed()
+                    .thenComparing(values::get));
+            Map<String, Integer> result = new LinkedHashMap<>();
+            for (int code : present) {
+                result.put(values.get(code), counts[code]);
+            }
+            return result;
+        }
+
+        private static String key(String value) {
+            return value.strip().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * A numeric column, and its rows ordered by value for range scans and sorting; rows without a
+     * value are in no range and sort last
+     */
+    private static final class SortedColumn {
+        // Rows with a value, by value; sortedValues holds those values
+        private final int[] sortedRows;
+        private final double[] sortedValues;
+        // Position of each row in sortedRows, or sortedRows.length for rows without a value
+        private final int[] rank;
+        // prefixes[k] holds the rows at positions below k * block, so a range of positions is
+        // the difference of two of them plus the rows at both ends
+        private final int block;
+        private final RoaringBitmap[] prefixes;
+
+        SortedColumn(Product[] rows, ToDoubleFunction<Product> column) {
+            double[] values = new double[rows.length];
+            int present = 0;
+            for (int row = 0; row < rows.length; row++) {
+                values[row] = column.applyAsDouble(rows[row]);
+                if (!Double.isNaN(values[row])) {
+                    present++;
+                }
+            }
+            Integer[] order = new Integer[present];
+            for (int row = 0, i = 0; row < rows.length; row++) {
+                if (!Double.isNaN(values[row])) {
+                    order[i++] = row;
+                }
+            }
+            Arrays.sort(order, Comparator.comparingDouble(row -> values[row]));
+            sortedRows = new int[present];
+            sortedValues = new double[present];
+            rank = new int[rows.length];
+            Arrays.fill(rank, present);
+            for (int i = 0; i < present; i++) {
+                sortedRows[i] = order[i];
+                sortedValues[i] = values[order[i]];
+                rank[order[i]] = i;
+            }
+            block = Math.max(256, (present + RANGE_BLOCKS - 1) / RANGE_BLOCKS);
+            prefixes = new RoaringBitmap[present / block + 1];
+            prefixes[0] = new RoaringBitmap();
+            for (int k = 1; k < prefixes.length; k++) {
+                prefixes[k] = prefixes[k - 1].clone();
+                prefixes[k].addN(sortedRows, (k - 1) * block, block);
+            }
+        }
+
+        private SortedColumn(int[] sortedRows, double[] sortedValues, int[] rank, int block, RoaringBitmap[] prefixes) {
+            this.sortedRows = sortedRows;
+            this.sortedValues = sortedValues;
+            this.rank = rank;
+            this.block = block;
+            this.prefixes = prefixes;
+        }
+
+        /**
+         * This column with one row's value changed; null when the row gains or loses its value, which
+         * would shift every block. The rows between the old and new position move by one, so only the
+         * prefix bitmaps of the blocks in between change: each loses one row and gains another.
+         */
+        SortedColumn with(int row, double value) {
+            int present = sortedRows.length;
+            int from = rank[row];
+            if ((from == present) != Double.isNaN(value)) {
+                return null;
+            }
+            if (from == present || Double.compare(sortedValues[from], value) == 0) {
+                return this;
+            }
+            // Rows are ordered by value, then row, as the build's stable sort left them
+            int below = countBelow(value, row);
+            int to = Double.compare(sortedValues[from], value) < 0 ? below - 1 : below;
+            int[] newRows = sortedRows.clone();
+            double[] newValues = sortedValues.clone();
+            int[] newRank = rank.clone();
+            RoaringBitmap[] newPrefixes = prefixes.clone();
+            if (from < to) {
+                for (int k = from / block + 1; k <= to / block; k++) {
+                    newPrefixes[k] = prefixes[k].clone();
+                    newPrefixes[k].remove(row);
+                    newPrefixes[k].add(sortedRows[k * block]);
+                }
+                System.arraycopy(sortedRows, from + 1, newRows, from, to - from);
+                System.arraycopy(sortedValues, from + 1, newValues, from, to - from);
+                for (int i = from; i < to; i++) {
+                    newRank[newRows[i]] = i;
+                }
+            } else {
+                for (int k = to / block + 1; k <= from / block; k++) {
+                    newPrefixes[k] = prefixes[k].clone();
+                    newPrefixes[k].remove(sortedRows[k * block - 1]);
+                    newPrefixes[k].add(row);
+                }
+                System.arraycopy(sortedRows, to, newRows, to + 1, from - to);
+                System.arraycopy(sortedValues, to, newValues, to + 1, from - to);
+                for (int i = to + 1; i <= from; i++) {
+                    newRank[newRows[i]] = i;
+                }
+            }
+            newRows[to] = row;
+            newValues[to] = value;
+            newRank[row] = to;
+            return new SortedColumn(newRows, newValues, newRank, block, newPrefixes);
+        }
+
+        /**
+         * Rows with a value within the inclusive bounds; a null bound is open
+         */
+        RoaringBitmap range(Double min, Double max) {
+            int from = min != null ? firstAtLeast(min, false) : 0;
+            int to = max != null ? firstAtLeast(max, true) : sortedValues.length;
+            if (from >= to) {
+                return new RoaringBitmap();
+            }
+            int firstBlock = (from + block - 1) / block;
+            int lastBlock = to / block;
+            if (firstBlock >= lastBlock) {
+                RoaringBitmap rows = new RoaringBitmap();
+                rows.addN(sortedRows, from, to - from);
+                return rows;
+            }
+            RoaringBitmap rows = RoaringBitmap.andNot(prefixes[lastBlock], prefixes[firstBlock]);
+            rows.addN(sortedRows, from, firstBlock * block - from);
+            rows.addN(sortedRows, lastBlock * block, to - lastBlock * block);
+            return rows;
+        }
+
+        /**
+         * Sort keys for the given rows: position by value in the high half and the row in the low half,
+         * so sorting the keys orders the rows by value (then by id); rows without a value go last
+         */
+        long[] sortKeys(RoaringBitmap rows, boolean descending) {
+            long[] keys = new long[rows.getCardinality()];
+            int present = sortedRows.length;
+            IntIterator it = rows.getIntIterator();
+            for (int i = 0; it.hasNext(); i++) {
+                int row = it.next();
+                long position = rank[row];
+                if (descending && position < present) {
+                    position = present - 1 - position;
+                }
+                keys[i] = position << 32 | row;
+            }
+            return keys;
+        }
+
+        /**
+         * The given rows in value order (ascending or descending, rows without a value last), skipping
+         * the first {@code skip} and returning at most {@code limit}
+         */
+        int[] walk(RoaringBitmap rows, boolean descending, int skip, int limit) {
+            int[] out = new int[limit];
+            int found = 0;
+            int seen = 0;
+            for (int i = 0; i < sortedRows.length && found < limit; i++) {
+                int row = sortedRows[descending ? sortedRows.length - 1 - i : i];
+                if (rows.contains(row) && seen++ >= skip) {
+                    out[found++] = row;
+                }
+            }
+            for (IntIterator it = rows.getIntIterator(); it.hasNext() && found < limit; ) {
+                int row = it.next();
+                if (rank[row] == sortedRows.length && seen++ >= skip) {
+                    out[found++] = row;
+                }
+            }
+            return Arrays.copyOf(out, found);
+        }
+
+        // Number of positions ordered before (value, row)
+        private int countBelow(double value, int row) {
+            int lo = 0;
+            int hi = sortedValues.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int order = Double.compare(sortedValues[mid], value);
+                if (order < 0 || (order == 0 && sortedRows[mid] < row)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * Index of the first value not below the bound, or above it when {@code past}
+         */
+        private int firstAtLeast(double bound, boolean past) {
+            int lo = 0;
+            int hi = sortedValues.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sortedValues[mid] < bound || (past && sortedValues[mid] == bound)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.oss2.productservice.catalog;
+
+import com.oss2.productservice.event.ProductChangedEvent;
+import com.oss2.productservice.model.Product;
+import com.oss2.productservice.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Read side of the catalog for faceted browsing: answers filter and facet queries from memory,
+ * never from the database.
+ * <p>
+ * Loaded at startup, then kept current from {@link ProductChangedEvent}s after each change commits.
+ * Changes go to a map of current products; a background thread builds a new {@link CatalogSnapshot}
+ * from it and swaps it in, so queries never wait. Changes within {@code rebuild-delay} share one build.
+ * Price and stock changes of a known product (e.g. every order's stock decrement) skip the build: the
+ * same thread patches them into the current snapshot, one batch at a time.
+ */
+@Slf4j
+@Component
+public class ProductCatalog {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final ProductRepository productRepository;
+    private final int loadBatchSize;
+    private final long rebuildDelayMillis;
+    private final Map<Long, Product> products = new ConcurrentHashMap<>();
+    // Ids changed while loading: the batch that reads them may predate the change, so the change wins
+    private final Set<Long> changedDuringLoad = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final Set<Long> pendingPatches = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean patchScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+    private volatile boolean ready;
+
+    public ProductCatalog(ProductRepository productRepository,
+                          @Value("${oss2.products.search.rebuild-batch-size:1000}") int loadBatchSize,
+                          @Value("${oss2.products.catalog.rebuild-delay:100ms}") Duration rebuildDelay) {
+        this.productRepository = productRepository;
+        this.loadBatchSize = Math.max(1, loadBatchSize);
+        this.rebuildDelayMillis = Math.max(0, rebuildDelay.toMillis());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Long after = 0L;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, loadBatchSize));
+            for (Product product : batch) {
+                products.compute(product.getId(),
+                        (id, current) -> changedDuringLoad.contains(id) ? current : product);
+            }
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == loadBatchSize);
+        rebuild();
+        ready = true;
+        changedDuringLoad.clear();
+        log.info("Loaded {} products into the catalog", snapshot.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!ready) {
+            // Before the map changes, so a load of the same id either runs first or sees it
+            changedDuringLoad.add(event.productId());
+        }
+        Product previous = event.isDeleted()
+                ? products.remove(event.productId())
+                : products.put(event.productId(), event.product());
+        if (ready && previous != null && !event.isDeleted()) {
+            // Possibly price or stock only; the patch falls back to a build when it is not
+            pendingPatches.add(event.productId());
+            if (patchScheduled.compareAndSet(false, true)) {
+                rebuilder.execute(this::patch);
+            }
+            return;
+        }
+        scheduleRebuild();
+    }
+
+    /**
+     * One page of the products matching all filters, with facet counts; pages hold at most {@link #MAX_PAGE_SIZE}
+     */
+    public CatalogResult query(CatalogQuery query) {
+        return snapshot.query(query, Math.min(Math.max(query.size(), 1), MAX_PAGE_SIZE));
+    }
+
+    @PreDestroy
+    void close() {
+        rebuilder.shutdownNow();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.schedule(() -> {
+                // Cleared first: a change made while building schedules the next build
+                rebuildScheduled.set(false);
+                rebuild();
+            }, rebuildDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Applies the current state of the changed products; runs on the rebuild thread, so never alongside a build
+    private synchronized void patch() {
+        // Cleared first: a change made while patching schedules the next patch
+        patchScheduled.set(false);
+        boolean needsBuild = false;
+        try {
+            CatalogSnapshot patched = snapshot;
+            for (Iterator<Long> ids = pendingPatches.iterator(); ids.hasNext(); ) {
+                Long id = ids.next();
+                ids.remove();
+                Product current = products.get(id);
+                CatalogSnapshot next = current != null ? patched.withValues(current) : null;
+                if (next != null) {
+                    patched = next;
+                } else {
+                    needsBuild = true;
+                }
+            }
+            snapshot = patched;
+        } catch (RuntimeException e) {
+            log.error("Could not patch the catalog; rebuilding it", e);
+            needsBuild = true;
+        }
+        if (needsBuild) {
+            scheduleRebuild();
+        }
+    }
+
+    private synchronized void rebuild() {
+        try {
+            long started = System.nanoTime();
+            CatalogSnapshot built = CatalogSnapshot.build(List.copyOf(products.values()));
+            snapshot = built;
+            log.debug("Rebuilt the catalog: {} products in {} ms", built.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Could not rebuild the catalog; still serving the previous one", e);
+        }
+    }
+}
@@ -2,9 +2,18 @@ package com.oss2.productservice.controller;
 
 import com.oss2.common.form.client.FormServiceClient;
 import com.oss2.common.form.dto.FormSubmissionDTO;
+import com.oss2.common.form.dto.SubmissionPageDTO;
+import com.oss2.common.form.schema.CacheStats;
+import com.oss2.common.page.KeysetParams;
+import com.oss2.common.search.Suggestion;
+import com.oss2.productservice.catalog.CatalogQuery;
+import com.oss2.productservice.catalog.CatalogResult;
 import com.oss2.productservice.model.Product;
 import com.oss2.productservice.service.ProductService;
 import com.oss2.productservice.service.FormFieldMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -12,7 +21,9 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+@Slf4j
 @RestController
 @RequestMapping("/products")
 @CrossOrigin(origins = "*")
@@ -28,35 +39,115 @@ public class ProductController {
         this.formFieldMapper = formFieldMapper;
     }
 
+    // Without paging parameters: every product, as before. With any of limit, cursor, sort (name, price, stock)
+    // or fields: one keyset page {items, nextCursor} of just those fields; pass nextCursor back for the next page.
+    // Example: GET /products?limit=50&sort=price&fields=id,name,price
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<?> getAllProducts(KeysetParams paging) {
+        if (!paging.isPaged()) {
+            return ResponseEntity.ok(productService.getAllProducts());
+        }
+        return ResponseEntity.ok(productService.pageProducts(paging.sort(), paging.fields(),
+                paging.limitOrDefault(), paging.cursor()));
+    }
+
+    // Example: GET /products/batch?ids=1,2,3 (at most 100 ids)
+    @GetMapping("/batch")
+    public List<Product> getProductsByIds(@RequestParam List<Long> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
+    // Autocomplete on product names, most popular first
+    // Example: GET /products/suggest?prefix=wire&limit=10
+    @GetMapping("/suggest")
+    public List<Suggestion> suggestProducts(@RequestParam String prefix,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        return productService.suggestProducts(prefix, limit);
     }
 
     @GetMapping("/{id}")
     public Product getProductById(@PathVariable Long id) {
-        return productService.getProductById(id);
+        Product product = productService.getProductById(id);
+        productService.recordView(id);
+        return product;
     }
 
+    // Paging parameters as for GET /products
     @GetMapping("/category/{category}")
-    public List<Product> getProductsByCategory(@PathVariable String category) {
-        return productService.getProductsByCategory(category);
+    public ResponseEntity<?> getProductsByCategory(@PathVariable String category, KeysetParams paging) {
+        if (!paging.isPaged()) {
+            return ResponseEntity.ok(productService.getProductsByCategory(category));
+        }
+        return ResponseEntity.ok(productService.pageProductsByCategory(category, paging.sort(), paging.fields(),
+                paging.limitOrDefault(), paging.cursor()));
     }
 
+    // Paging parameters as for GET /products
     @GetMapping("/brand/{brand}")
-    public List<Product> getProductsByBrand(@PathVariable String brand) {
-        return productService.getProductsByBrand(brand);
+    public ResponseEntity<?> getProductsByBrand(@PathVariable String brand, KeysetParams paging) {
+        if (!paging.isPaged()) {
+            return ResponseEntity.ok(productService.getProductsByBrand(brand));
+        }
+        return ResponseEntity.ok(productService.pageProductsByBrand(brand, paging.sort(), paging.fields(),
+                paging.limitOrDefault(), paging.cursor()));
     }
 
+    // Ranked search over name, brand, category and description; X-Total-Count has the number of matches.
+    // Pages are by relevance, so they stay offset pages; fields=... selects only those fields.
+    // Example: GET /products/search?q=wireless mouse&page=0&size=20&fields=id,name,price
     @GetMapping("/search")
-    public List<Product> searchProducts(@RequestParam String q) {
-        return productService.searchProducts(q);
+    public ResponseEntity<List<?>> searchProducts(@RequestParam String q,
+                                                  @RequestParam(defaultValue = "0") int page,
+                                                  @RequestParam(defaultValue = "20") int size,
+                                                  @RequestParam(required = false) List<String> fields) {
+        Page<?> results = fields == null
+                ? productService.searchProducts(q, page, size)
+                : productService.searchProducts(q, page, size, fields);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(results.getTotalElements()))
+                .body(results.getContent());
+    }
+
+    // Faceted browsing from memory: filters combine (values of one facet are alternatives), and the
+    // facet counts of the matches come back with the page. Sort is id, price or -price.
+    // Example: GET /products/query?category=Electronics&brand=Acme&brand=Globex&minPrice=10&maxPrice=50&minStock=1&sort=price
+    @GetMapping("/query")
+    public ResponseEntity<?> queryProducts(@RequestParam(required = false) Set<String> category,
+                                           @RequestParam(required = false) Set<String> brand,
+                                           @RequestParam(required = false) Double minPrice,
+                                           @RequestParam(required = false) Double maxPrice,
+                                           @RequestParam(required = false) Integer minStock,
+                                           @RequestParam(required = false) Integer maxStock,
+                                           @RequestParam(required = false) String sort,
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(defaultValue = "20") int size) {
+        CatalogQuery query = new CatalogQuery(category, brand, minPrice, maxPrice, minStock, maxStock,
+                CatalogQuery.Sort.parse(sort), page, size);
+        try {
+            CatalogResult result = productService.queryCatalog(query);
+            return ResponseEntity.ok(result);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Hits, misses and hit rate of the product-by-id cache
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public CacheStats getCacheStats() {
+        return productService.cacheStats();
     }
 
+    // Paging parameters as for GET /products
     @GetMapping("/low-stock")
     @PreAuthorize("hasRole('ADMIN')")
-    public List<Product> getLowStockProducts(@RequestParam(defaultValue = "5") Integer threshold) {
-        return productService.getLowStockProducts(threshold);
+    public ResponseEntity<?> getLowStockProducts(@RequestParam(defaultValue = "5") Integer threshold, KeysetParams paging) {
+        if (!paging.isPaged()) {
+            return ResponseEntity.ok(productService.getLowStockProducts(threshold));
+        }
+        return ResponseEntity.ok(productService.pageLowStockProducts(threshold, paging.sort(), paging.fields(),
+                paging.limitOrDefault(), paging.cursor()));
     }
 
     @PostMapping
@@ -113,11 +204,14 @@ public class ProductController {
     }
 
     @GetMapping("/{productId}/reviews")
-    public ResponseEntity<FormSubmissionDTO[]> getProductReviews(
+    public ResponseEntity<SubmissionPageDTO> getProductReviews(
             @PathVariable Long productId,
-            @RequestParam Long formId) {
+            @RequestParam Long formId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor) {
         
-        FormSubmissionDTO[] submissions = formServiceClient.getFormSubmissions(formId);
+        // Only this product's submissions, one keyset page at a time; pass nextCursor back to continue
+        SubmissionPageDTO submissions = formServiceClient.getFormSubmissionsPage(formId, "productId", productId, limit, cursor);
         return ResponseEntity.ok(submissions);
     }
 
@@ -127,16 +221,17 @@ public class ProductController {
             @RequestParam Long formId,
             @RequestBody Map<String, Object> formData) {
         
-        System.out.println("DEBUG: Entering createProductFromForm with formId: " + formId);
+        log.debug("Entering createProductFromForm with formId: {}", formId);
         
         try {
             // First check if schema was provided in the request body
             String schemaJson = null;
+            String schemaVersion = null;
             if (formData.containsKey("_schemaJson")) {
                 Object schemaObj = formData.get("_schemaJson");
                 if (schemaObj != null) {
                     schemaJson = schemaObj.toString();
-                    System.out.println("DEBUG: Using frontend-provided schema");
+                    log.debug("Using frontend-provided schema");
                 }
                 // Remove from map to avoid interfering with field mapping
                 formData.remove("_schemaJson");
@@ -148,21 +243,22 @@ public class ProductController {
                     com.oss2.common.form.dto.FormSchemaDTO formSchema = formServiceClient.getForm(formId);
                     if (formSchema != null) {
                         schemaJson = formSchema.getSchemaJson();
-                        System.out.println("DEBUG: Fetched schema for form " + formId);
+                        schemaVersion = formSchema.getSchemaVersion();
+                        log.debug("Fetched schema for form {}", formId);
                     }
                 } catch (Exception e) {
-                    System.err.println("WARN: Could not fetch form schema for formId " + formId + ": " + e.getMessage());
+                    log.warn("Could not fetch form schema for formId {}: {}", formId, e.getMessage());
                     // Continue without schema (will use fallback mapping)
                 }
             }
 
             // Map form data to Product entity using schema for label lookup
-            Product product = formFieldMapper.mapToProduct(formData, schemaJson);
+            Product product = formFieldMapper.mapToProduct(formData, formId, schemaVersion, schemaJson);
             
             // Validate required fields
             java.util.List<String> errors = formFieldMapper.getValidationErrors(product);
             if (!errors.isEmpty()) {
-                System.out.println("WARN: Missing fields: " + errors + ". Using defaults for Product creation.");
+                log.warn("Missing fields: {}. Using defaults for Product creation.", errors);
             }
             
             // Save the product
@@ -171,12 +267,11 @@ public class ProductController {
             return ResponseEntity.ok(savedProduct);
             
         } catch (IllegalArgumentException e) {
-            System.err.println("ERROR: Bad Request in createProductFromForm: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Bad Request in createProductFromForm: {}", e.getMessage(), e);
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to create product from form {}", formId, e);
             return ResponseEntity.internalServerError()
                 .body(Map.of("error", "Failed to create product: " + e.getMessage()));
         }
@@ -184,8 +279,7 @@ public class ProductController {
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleException(Exception e) {
-        System.out.println("DEBUG: Global Exception Handler caught: " + e.getMessage());
-        e.printStackTrace();
+        log.error("Global Exception Handler caught: {}", e.getMessage(), e);
         return ResponseEntity.badRequest()
             .body(Map.of("error", "Server Error: " + e.getMessage()));
     }
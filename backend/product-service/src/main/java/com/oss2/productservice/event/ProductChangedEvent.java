@@ -0,0 +1,22 @@
+package com.oss2.productservice.event;
+
+import com.oss2.productservice.model.Product;
+
+/**
+ * A product was created, updated or deleted; {@code product} is its saved state, or null once deleted.
+ * Published by {@code ProductService}, delivered after the change commits.
+ */
+public record ProductChangedEvent(Long productId, Product product) {
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(product.getId(), product);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, null);
+    }
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
@@ -1,11 +1,20 @@
 package com.oss2.productservice.model;
 
+import com.oss2.common.form.binder.FormField;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+// Keyset pages filtered by category or brand, or sorted by name, price or stock, are range scans
+@Table(indexes = {
+        @Index(name = "idx_product_category_id", columnList = "category, id"),
+        @Index(name = "idx_product_brand_id", columnList = "brand, id"),
+        @Index(name = "idx_product_name_id", columnList = "name, id"),
+        @Index(name = "idx_product_price_id", columnList = "price, id"),
+        @Index(name = "idx_product_stock_id", columnList = "stock, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,17 +23,34 @@ public class Product {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @FormField(aliases = {"name", "Name", "Product Name", "productName", "product_name"}, defaultValue = "Draft Product (from Form)")
     private String name;
     
     @Column(length = 1000)
+    @FormField(aliases = {"description", "Description", "Product Description", "productDescription", "product_description", "Details"}, defaultValue = "")
     private String description;
     
+    @FormField(aliases = {"category", "Category", "Product Category", "productCategory", "product_category", "Type"}, defaultValue = "General")
     private String category;
+
+    @FormField(aliases = {"brand", "Brand", "Manufacturer", "brandName", "brand_name"}, defaultValue = "Unknown")
     private String brand;
+
+    @FormField(aliases = {"sku", "SKU", "Product Code", "productCode", "product_code", "Code"}, defaultValue = "N/A")
     private String sku;
+
+    @FormField(aliases = {"price", "Price", "Cost", "Amount", "unitPrice", "unit_price"}, defaultValue = "0.0")
     private Double price;
+
+    @FormField(aliases = {"stock", "Stock", "Quantity", "Available", "Inventory", "stockQuantity", "stock_quantity"}, defaultValue = "0")
     private Integer stock;
+
+    @FormField(aliases = {"imageUrl", "image_url", "Image URL", "Image", "Picture", "Photo"})
     private String imageUrl;
+
+    @FormField(aliases = {"weight", "Weight", "productWeight", "product_weight"})
     private Double weight;
+
+    @FormField(aliases = {"dimensions", "Dimensions", "Size", "productDimensions", "product_dimensions"})
     private String dimensions;
 }
@@ -1,6 +1,8 @@
 package com.oss2.productservice.repository;
 
 import com.oss2.productservice.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,5 +13,8 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategory(String category);
     List<Product> findByBrand(String brand);
     List<Product> findByStockLessThan(Integer threshold);
-    List<Product> findByNameContainingIgnoreCase(String name);
+    Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    // Keyset walk of the whole table, e.g. to build the search index
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
@@ -0,0 +1,309 @@
+package com.oss2.productservice.search;
+
+import com.oss2.productservice.event.ProductChangedEvent;
+import com.oss2.productservice.model.Product;
+import com.oss2.productservice.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.NGramTokenFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory inverted index of the product catalog (Lucene), over name, brand, category and description.
+ * <p>
+ * Each field is indexed twice: as words, and as character trigrams of those words. Every query word
+ * must match some field, either as a whole word (best), as a word prefix ({@code lapt}), or through
+ * most of its trigrams, which finds substrings and tolerates a typo ({@code labtop}). Matches in the
+ * name count most, then brand and category, then description.
+ * <p>
+ * The index is built from the database at startup and then kept current from
+ * {@link ProductChangedEvent}s after each change commits. Until the first build is done,
+ * {@link #isReady()} is false and callers fall back to the database.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    // Deepest hit a page may reach; ranking costs grow with it
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    private static final int GRAM = 3;
+    private static final String ID = "id";
+    private static final String GRAMS = "_grams";
+    // Searched fields and their weights
+    private static final Map<String, Float> FIELDS = Map.of("name", 4f, "brand", 2f, "category", 2f, "description", 1f);
+    private static final float WORD_BOOST = 3f;
+    private static final float PREFIX_BOOST = 1.5f;
+    // Share of a word's trigrams a field must contain to count as a (fuzzy) match
+    private static final float GRAM_MATCH = 0.6f;
+
+    private final ProductRepository productRepository;
+    private final int rebuildBatchSize;
+    private final Analyzer words = analyzer(false);
+    private final ByteBuffersDirectory directory = new ByteBuffersDirectory();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    // Ids changed while the first build runs: the batch that reads them may predate the change, so
+    // the build skips them. Guarded by itself, which also makes check-and-add atomic against events
+    private final Set<Long> changedDuringRebuild = new HashSet<>();
+
+    private volatile boolean ready;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Value("${oss2.products.search.rebuild-batch-size:1000}") int rebuildBatchSize) throws IOException {
+        this.productRepository = productRepository;
+        this.rebuildBatchSize = Math.max(1, rebuildBatchSize);
+        Map<String, Analyzer> perField = new HashMap<>();
+        Analyzer grams = analyzer(true);
+        FIELDS.keySet().forEach(field -> perField.put(field + GRAMS, grams));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(new PerFieldAnalyzerWrapper(words, perField)));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Index the whole catalog, walking the product table in id order one batch at a time
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() throws IOException {
+        long started = System.nanoTime();
+        long indexed = 0;
+        Long after = 0L;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, rebuildBatchSize));
+            synchronized (changedDuringRebuild) {
+                for (Product product : batch) {
+                    if (!changedDuringRebuild.contains(product.getId())) {
+                        add(product);
+                    }
+                }
+            }
+            indexed += batch.size();
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == rebuildBatchSize);
+        searcherManager.maybeRefreshBlocking();
+        synchronized (changedDuringRebuild) {
+            ready = true;
+            changedDuringRebuild.clear();
+        }
+        log.info("Indexed {} products for search in {} ms", indexed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Runs after the change commits, or at once when it was made outside a transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        try {
+            if (ready) {
+                apply(event);
+            } else {
+                synchronized (changedDuringRebuild) {
+                    changedDuringRebuild.add(event.productId());
+                    apply(event);
+                }
+            }
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            // Only memory is involved, so this is not expected; the next restart rebuilds the index
+            log.error("Could not update product {} in the search index", event.productId(), e);
+        }
+    }
+
+    /**
+     * One page of matching product ids, best match first
+     *
+     * @throws IllegalArgumentException if the page lies beyond {@link #MAX_RESULT_WINDOW}
+     */
+    public ProductSearchResult search(String q, int page, int size) throws IOException {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int pageNumber = Math.max(page, 0);
+        if ((long) (pageNumber + 1) * pageSize > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Only the first " + MAX_RESULT_WINDOW + " results can be paged through");
+        }
+        Query query = parse(q);
+        if (query == null) {
+            return new ProductSearchResult(0, List.of());
+        }
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            int total = searcher.count(query);
+            TopDocs top = searcher.search(query, (pageNumber + 1) * pageSize);
+            ScoreDoc[] hits = top.scoreDocs;
+            StoredFields stored = searcher.storedFields();
+            List<Long> ids = new ArrayList<>(pageSize);
+            for (int i = pageNumber * pageSize; i < hits.length; i++) {
+                ids.add(Long.valueOf(stored.document(hits[i].doc).get(ID)));
+            }
+            return new ProductSearchResult(total, ids);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private void apply(ProductChangedEvent event) throws IOException {
+        if (event.isDeleted()) {
+            writer.deleteDocuments(new Term(ID, event.productId().toString()));
+        } else {
+            add(event.product());
+        }
+    }
+
+    private void add(Product product) throws IOException {
+        String id = product.getId().toString();
+        Document doc = new Document();
+        doc.add(new StringField(ID, id, Field.Store.YES));
+        addText(doc, "name", product.getName());
+        addText(doc, "brand", product.getBrand());
+        addText(doc, "category", product.getCategory());
+        addText(doc, "description", product.getDescription());
+        writer.updateDocument(new Term(ID, id), doc);
+    }
+
+    private static void addText(Document doc, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            doc.add(new TextField(field, value, Field.Store.NO));
+            doc.add(new TextField(field + GRAMS, value, Field.Store.NO));
+        }
+    }
+
+    /**
+     * All query words required, each in any field; null if the query has no words
+     */
+    private Query parse(String q) {
+        List<String> queryWords = terms(q);
+        if (queryWords.isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder all = new BooleanQuery.Builder();
+        for (String word : queryWords) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            List<String> grams = word.length() >= GRAM ? grams(word) : List.of();
+            for (Map.Entry<String, Float> field : FIELDS.entrySet()) {
+                String name = field.getKey();
+                float weight = field.getValue();
+                anyField.add(new BoostQuery(new TermQuery(new Term(name, word)), weight * WORD_BOOST), BooleanClause.Occur.SHOULD);
+                anyField.add(new BoostQuery(new PrefixQuery(new Term(name, word)), weight * PREFIX_BOOST), BooleanClause.Occur.SHOULD);
+                if (!grams.isEmpty()) {
+                    BooleanQuery.Builder gramQuery = new BooleanQuery.Builder()
+                            .setMinimumNumberShouldMatch(Math.max(1, Math.round(grams.size() * GRAM_MATCH)));
+                    for (String gram : grams) {
+                        gramQuery.add(new TermQuery(new Term(name + GRAMS, gram)), BooleanClause.Occur.SHOULD);
+                    }
+                    anyField.add(new BoostQuery(gramQuery.build(), weight), BooleanClause.Occur.SHOULD);
+                }
+            }
+            all.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return all.build();
+    }
+
+    /**
+     * Distinct trigrams of an (already normalized) word, as the indexing side produces them
+     */
+    private static List<String> grams(String word) {
+        List<String> grams = new ArrayList<>();
+        int[] codePoints = word.codePoints().toArray();
+        for (int i = 0; i + GRAM <= codePoints.length; i++) {
+            String gram = new String(codePoints, i, GRAM);
+            if (!grams.contains(gram)) {
+                grams.add(gram);
+            }
+        }
+        return grams;
+    }
+
+    private List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        try (TokenStream stream = words.tokenStream("", text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terms.size() < 16) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    /**
+     * Words: standard tokenization, lower-cased and folded to ASCII (é → e); optionally cut into trigrams
+     * (words shorter than a trigram are kept whole)
+     */
+    private static Analyzer analyzer(boolean trigrams) {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer source = new StandardTokenizer();
+                TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(source));
+                if (trigrams) {
+                    stream = new NGramTokenFilter(stream, GRAM, GRAM, true);
+                }
+                return new TokenStreamComponents(source, stream);
+            }
+
+            @Override
+            protected TokenStream normalize(String fieldName, TokenStream in) {
+                return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+            }
+        };
+    }
+}
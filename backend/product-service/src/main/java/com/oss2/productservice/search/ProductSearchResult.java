@@ -0,0 +1,9 @@
+package com.oss2.productservice.search;
+
+import java.util.List;
+
+/**
+ * Product ids of one page of search results, best match first; {@code total} counts all matches
+ */
+public record ProductSearchResult(long total, List<Long> ids) {
+}
@@ -0,0 +1,92 @@
+package com.oss2.productservice.search;
+
+import com.oss2.common.search.PrefixSuggester;
+import com.oss2.common.search.Suggestion;
+import com.oss2.productservice.event.ProductChangedEvent;
+import com.oss2.productservice.model.Product;
+import com.oss2.productservice.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autocomplete over product names, ranked by popularity (views and units sold since startup).
+ * <p>
+ * Loaded from the database at startup, then kept current from {@link ProductChangedEvent}s; the
+ * index behind it is rebuilt in the background and swapped in, see {@link PrefixSuggester}.
+ */
+@Slf4j
+@Component
+public class ProductSuggestions {
+
+    // A sale says more about interest than a view
+    private static final long VIEW_WEIGHT = 1;
+    private static final long SALE_WEIGHT = 10;
+
+    private final ProductRepository productRepository;
+    private final int loadBatchSize;
+    private final PrefixSuggester suggester;
+
+    public ProductSuggestions(ProductRepository productRepository,
+                              @Value("${oss2.products.search.rebuild-batch-size:1000}") int loadBatchSize,
+                              @Value("${oss2.products.suggest.debounce:200ms}") Duration debounce,
+                              @Value("${oss2.products.suggest.popularity-refresh:5m}") Duration popularityRefresh) {
+        this.productRepository = productRepository;
+        this.loadBatchSize = Math.max(1, loadBatchSize);
+        this.suggester = new PrefixSuggester("product", debounce, popularityRefresh);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<Long, String> names = new HashMap<>();
+        Long after = 0L;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, loadBatchSize));
+            for (Product product : batch) {
+                names.put(product.getId(), product.getName());
+            }
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == loadBatchSize);
+        suggester.load(names);
+        log.info("Loaded {} product names for suggestions", suggester.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            suggester.remove(event.productId());
+        } else {
+            suggester.put(event.productId(), event.product().getName());
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return suggester.suggest(prefix, limit);
+    }
+
+    public void recordView(Long productId) {
+        suggester.addPopularity(productId, VIEW_WEIGHT);
+    }
+
+    public void recordSale(Long productId, int quantity) {
+        suggester.addPopularity(productId, SALE_WEIGHT * Math.max(quantity, 0));
+    }
+
+    @PreDestroy
+    void close() {
+        suggester.close();
+    }
+}
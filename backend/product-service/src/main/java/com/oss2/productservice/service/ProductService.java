@@ -1,19 +1,73 @@
 package com.oss2.productservice.service;
 
+import com.oss2.common.cache.VersionedEntityCache;
+import com.oss2.common.form.schema.CacheStats;
+import com.oss2.common.page.KeysetPage;
+import com.oss2.common.page.KeysetQuery;
+import com.oss2.common.search.Suggestion;
+import com.oss2.productservice.catalog.CatalogQuery;
+import com.oss2.productservice.catalog.CatalogResult;
+import com.oss2.productservice.catalog.ProductCatalog;
+import com.oss2.productservice.event.ProductChangedEvent;
 import com.oss2.productservice.model.Product;
 import com.oss2.productservice.repository.ProductRepository;
+import com.oss2.productservice.search.ProductSearchIndex;
+import com.oss2.productservice.search.ProductSearchResult;
+import com.oss2.productservice.search.ProductSuggestions;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
+    // Most ids per multi-get: keeps the IN list and the response bounded
+    public static final int MAX_BATCH_SIZE = 100;
+
+    // Projected, keyset-paged reads for the list endpoints
+    private static final KeysetQuery<Product> PAGES = new KeysetQuery<>(Product.class,
+            List.of("id", "name", "description", "category", "brand", "sku", "price", "stock", "imageUrl", "weight", "dimensions"),
+            Set.of("name", "price", "stock"));
+
     private final ProductRepository productRepository;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSuggestions suggestions;
+    private final ProductCatalog catalog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    // Products by id for getProductById and getProductsByIds; writes read the database directly
+    private final VersionedEntityCache<Long, Product> cache;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ProductSearchIndex searchIndex,
+                          ProductSuggestions suggestions, ProductCatalog catalog,
+                          ApplicationEventPublisher eventPublisher, EntityManager entityManager,
+                          @Value("${oss2.products.cache.max-size:10000}") int cacheSize,
+                          @Value("${oss2.products.cache.ttl:10m}") Duration cacheTtl) {
         this.productRepository = productRepository;
+        this.searchIndex = searchIndex;
+        this.suggestions = suggestions;
+        this.catalog = catalog;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.cache = new VersionedEntityCache<>(cacheSize, cacheTtl, ProductService::copy);
     }
 
     public List<Product> getAllProducts() {
@@ -21,8 +75,39 @@ public class ProductService {
     }
 
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        Product product = cache.get(id, key -> productRepository.findById(key).orElse(null));
+        if (product == null) {
+            throw new RuntimeException("Product not found with id: " + id);
+        }
+        return product;
+    }
+
+    public CacheStats cacheStats() {
+        return cache.stats();
+    }
+
+    // Every write publishes the event; the cached copy goes once the write has committed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache.invalidate(event.productId());
+    }
+
+    /**
+     * Many products, served from the cache where possible and the rest with one {@code WHERE id IN (...)} query;
+     * unknown ids are left out, the rest come in the order given
+     */
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " ids per request");
+        }
+        if (distinct.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> found = cache.getAll(distinct, missing -> productRepository.findAllById(missing).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity())));
+        return distinct.stream().map(found::get).filter(Objects::nonNull).toList();
     }
 
     public List<Product> getProductsByCategory(String category) {
@@ -37,16 +122,111 @@ public class ProductService {
         return productRepository.findByStockLessThan(threshold);
     }
 
-    public List<Product> searchProducts(String query) {
-        return productRepository.findByNameContainingIgnoreCase(query);
+    /**
+     * One keyset page of products in (sort, id) order with only the given fields
+     *
+     * @throws IllegalArgumentException for an unknown field or sort, or an invalid cursor
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage pageProducts(String sort, List<String> fields, int limit, String cursor) {
+        return PAGES.page(entityManager, null, sort, fields, limit, cursor);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage pageProductsByCategory(String category, String sort, List<String> fields, int limit, String cursor) {
+        return PAGES.page(entityManager, (cb, root) -> cb.equal(root.get("category"), category), sort, fields, limit, cursor);
     }
 
+    @Transactional(readOnly = true)
+    public KeysetPage pageProductsByBrand(String brand, String sort, List<String> fields, int limit, String cursor) {
+        return PAGES.page(entityManager, (cb, root) -> cb.equal(root.get("brand"), brand), sort, fields, limit, cursor);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage pageLowStockProducts(Integer threshold, String sort, List<String> fields, int limit, String cursor) {
+        return PAGES.page(entityManager, (cb, root) -> cb.lessThan(root.get("stock"), threshold), sort, fields, limit, cursor);
+    }
+
+    /**
+     * One page of products matching the query in name, brand, category or description, best match first.
+     * While the search index is still being built after startup, falls back to a name scan.
+     */
+    public Page<Product> searchProducts(String query, int page, int size) {
+        int pageSize = Math.min(Math.max(size, 1), ProductSearchIndex.MAX_PAGE_SIZE);
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), pageSize);
+        if (!searchIndex.isReady()) {
+            return productRepository.findByNameContainingIgnoreCase(query, pageRequest);
+        }
+        Page<Long> ids = searchIds(query, pageRequest);
+        return new PageImpl<>(getProductsByIds(ids.getContent()), pageRequest, ids.getTotalElements());
+    }
+
+    /**
+     * Like {@link #searchProducts(String, int, int)}, selecting only the given fields of the matches
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> searchProducts(String query, int page, int size, List<String> fields) {
+        int pageSize = Math.min(Math.max(size, 1), ProductSearchIndex.MAX_PAGE_SIZE);
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), pageSize);
+        Page<Long> ids = searchIds(query, pageRequest);
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageRequest, ids.getTotalElements());
+        }
+        Map<Object, Map<String, Object>> rows = PAGES.list(entityManager, (cb, root) -> root.get("id").in(ids.getContent()), fields)
+                .stream()
+                .collect(Collectors.toMap(row -> row.get("id"), Function.identity()));
+        List<Map<String, Object>> ranked = ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(ranked, pageRequest, ids.getTotalElements());
+    }
+
+    private Page<Long> searchIds(String query, PageRequest pageRequest) {
+        if (!searchIndex.isReady()) {
+            return productRepository.findByNameContainingIgnoreCase(query, pageRequest).map(Product::getId);
+        }
+        try {
+            ProductSearchResult result = searchIndex.search(query, pageRequest.getPageNumber(), pageRequest.getPageSize());
+            return new PageImpl<>(result.ids(), pageRequest, result.total());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Products matching several filters at once, with facet counts, answered from the in-memory catalog
+     *
+     * @throws IllegalStateException while the catalog is still loading after startup
+     */
+    public CatalogResult queryCatalog(CatalogQuery query) {
+        if (!catalog.isReady()) {
+            throw new IllegalStateException("The catalog is still loading");
+        }
+        return catalog.query(query);
+    }
+
+    /**
+     * Product names with a word starting with the prefix, most viewed and sold first
+     */
+    public List<Suggestion> suggestProducts(String prefix, int limit) {
+        return suggestions.suggest(prefix, limit);
+    }
+
+    /**
+     * Count a product page view towards its suggestion ranking
+     */
+    public void recordView(Long id) {
+        suggestions.recordView(id);
+    }
+
+    @Transactional
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+        return saved;
     }
 
+    @Transactional
     public Product updateProduct(Long id, Product product) {
-        Product existing = getProductById(id);
+        Product existing = findForWrite(id);
         existing.setName(product.getName());
         existing.setDescription(product.getDescription());
         existing.setCategory(product.getCategory());
@@ -57,27 +237,46 @@ public class ProductService {
         existing.setImageUrl(product.getImageUrl());
         existing.setWeight(product.getWeight());
         existing.setDimensions(product.getDimensions());
-        return productRepository.save(existing);
+        Product saved = productRepository.save(existing);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+        return saved;
     }
 
+    @Transactional
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 
     @Transactional
     public void reduceStock(Long id, Integer quantity) {
-        Product product = getProductById(id);
+        Product product = findForWrite(id);
         if (product.getStock() < quantity) {
             throw new RuntimeException("Insufficient stock for product: " + product.getName());
         }
         product.setStock(product.getStock() - quantity);
-        productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+        suggestions.recordSale(id, quantity);
     }
 
     @Transactional
     public void increaseStock(Long id, Integer quantity) {
-        Product product = getProductById(id);
+        Product product = findForWrite(id);
         product.setStock(product.getStock() + quantity);
-        productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+    }
+
+    // Writes must start from the current row, never from a cached copy
+    private Product findForWrite(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+    }
+
+    private static Product copy(Product product) {
+        return new Product(product.getId(), product.getName(), product.getDescription(), product.getCategory(),
+                product.getBrand(), product.getSku(), product.getPrice(), product.getStock(), product.getImageUrl(),
+                product.getWeight(), product.getDimensions());
     }
 }
@@ -34,6 +34,7 @@ export default function BooksPage() {
 
     const fetchBooks = async () => {
         try {
+            // The whole list: search filters it here, and there is no server-side book search to page instead
             const response = await bookService.get('/books');
             setBooks(response.data);
             setFilteredBooks(response.data);
@@ -45,6 +46,15 @@ export default function BooksPage() {
         }
     };
 
+    // Refreshes one book's stock without reloading the whole list
+    const refreshBook = async (bookId: number) => {
+        const response = await bookService.get('/books/batch', { params: { ids: bookId } });
+        const updated: Book | undefined = response.data[0];
+        if (updated) {
+            setBooks(prev => prev.map(b => (b.id === bookId ? { ...b, stock: updated.stock } : b)));
+        }
+    };
+
     const placeOrder = async (bookId: number) => {
         if (!session) {
             toast.error('Please sign in to place an order');
@@ -57,7 +67,7 @@ export default function BooksPage() {
                 quantity: 1
             });
             toast.success('Order placed successfully!', { id: loadingToast });
-            fetchBooks(); // Refresh to show new stock
+            refreshBook(bookId).catch(console.error); // Refresh to show new stock
         } catch (error: any) {
             console.error('Failed to place order:', error);
             toast.error(error.response?.data?.message || 'Failed to place order.', { id: loadingToast });
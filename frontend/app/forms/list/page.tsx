@@ -1,11 +1,11 @@
 'use client';
 import React, { useEffect, useState } from 'react';
 import Link from 'next/link';
-import { getAllForms, FormSchema, deleteForm } from '@/lib/formApi';
+import { getFormSummaries, FormSummary, deleteForm } from '@/lib/formApi';
 import toast from 'react-hot-toast';
 
 export default function FormListPage() {
-    const [forms, setForms] = useState<FormSchema[]>([]);
+    const [forms, setForms] = useState<FormSummary[]>([]);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState<string | null>(null);
     const [currentPage, setCurrentPage] = useState(1);
@@ -19,7 +19,7 @@ export default function FormListPage() {
 
     const loadForms = async () => {
         try {
-            const data = await getAllForms();
+            const data = await getFormSummaries();
             setForms(data);
             setError(null);
         } catch (error) {
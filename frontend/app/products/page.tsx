@@ -1,6 +1,6 @@
 'use client';
 
-import { useEffect, useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import { productService } from '@/lib/api';
 import toast from 'react-hot-toast';
 
@@ -18,58 +18,124 @@ interface Product {
     dimensions?: string;
 }
 
+// Pages come from the server: /products/query (filters plus facet counts) while browsing, /products/search
+// (ranked) while a search is typed; the search covers every category and brand
+const PAGE_SIZE = 48;
+const PRODUCT_FIELDS = 'id,name,description,category,brand,price,stock,imageUrl';
+const SEARCH_DELAY_MS = 300;
+
+interface CatalogResult {
+    total: number;
+    products: Product[];
+    categories: Record<string, number>;
+    brands: Record<string, number>;
+}
+
 export default function ProductsPage() {
     const [products, setProducts] = useState<Product[]>([]);
-    const [filteredProducts, setFilteredProducts] = useState<Product[]>([]);
     const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
+    const [page, setPage] = useState(0);
+    const [hasMore, setHasMore] = useState(false);
+    const [matches, setMatches] = useState<number | null>(null);
+    const [categoryCounts, setCategoryCounts] = useState<Record<string, number>>({});
+    const [brandCounts, setBrandCounts] = useState<Record<string, number>>({});
+    const [totals, setTotals] = useState({ products: 0, available: 0 });
     const [searchQuery, setSearchQuery] = useState('');
     const [selectedCategory, setSelectedCategory] = useState('all');
     const [selectedBrand, setSelectedBrand] = useState('all');
+    // Only the latest request may update the list; earlier ones can answer after it
+    const requestSeq = useRef(0);
+
+    const searching = searchQuery.trim() !== '';
 
     useEffect(() => {
-        fetchProducts();
+        fetchTotals();
     }, []);
 
     useEffect(() => {
-        filterProducts();
-    }, [products, searchQuery, selectedCategory, selectedBrand]);
+        const timer = setTimeout(() => fetchFirstPage(), searching ? SEARCH_DELAY_MS : 0);
+        return () => clearTimeout(timer);
+    }, [searchQuery, selectedCategory, selectedBrand]);
 
-    const fetchProducts = async () => {
+    const fetchTotals = async () => {
         try {
-            const response = await productService.get('/products');
-            setProducts(response.data);
+            const [all, inStock] = await Promise.all([
+                productService.get<CatalogResult>('/products/query', { params: { size: 1 } }),
+                productService.get<CatalogResult>('/products/query', { params: { size: 1, minStock: 1 } }),
+            ]);
+            setTotals({ products: all.data.total, available: inStock.data.total });
         } catch (error) {
-            toast.error('Failed to load products');
             console.error(error);
-        } finally {
-            setLoading(false);
         }
     };
 
-    const filterProducts = () => {
-        let filtered = products;
-
-        if (searchQuery) {
-            filtered = filtered.filter(p =>
-                p.name.toLowerCase().includes(searchQuery.toLowerCase()) ||
-                p.description.toLowerCase().includes(searchQuery.toLowerCase())
-            );
+    const fetchPage = async (pageNumber: number) => {
+        if (searching) {
+            const response = await productService.get<Product[]>('/products/search', {
+                params: { q: searchQuery.trim(), page: pageNumber, size: PAGE_SIZE, fields: PRODUCT_FIELDS },
+            });
+            return { items: response.data, total: null, facets: null };
         }
+        const response = await productService.get<CatalogResult>('/products/query', {
+            params: {
+                category: selectedCategory !== 'all' ? selectedCategory : undefined,
+                brand: selectedBrand !== 'all' ? selectedBrand : undefined,
+                page: pageNumber,
+                size: PAGE_SIZE,
+            },
+        });
+        return { items: response.data.products, total: response.data.total, facets: response.data };
+    };
 
-        if (selectedCategory !== 'all') {
-            filtered = filtered.filter(p => p.category === selectedCategory);
+    const fetchFirstPage = async () => {
+        const seq = ++requestSeq.current;
+        try {
+            const result = await fetchPage(0);
+            if (seq !== requestSeq.current) return;
+            setProducts(result.items);
+            setPage(0);
+            setHasMore(result.total !== null ? result.items.length < result.total : result.items.length === PAGE_SIZE);
+            setMatches(result.total);
+            if (result.facets) {
+                setCategoryCounts(result.facets.categories);
+                setBrandCounts(result.facets.brands);
+            }
+        } catch (error) {
+            if (seq !== requestSeq.current) return;
+            toast.error('Failed to load products');
+            console.error(error);
+        } finally {
+            if (seq === requestSeq.current) setLoading(false);
         }
+    };
 
-        if (selectedBrand !== 'all') {
-            filtered = filtered.filter(p => p.brand === selectedBrand);
+    const loadMore = async () => {
+        const seq = requestSeq.current;
+        setLoadingMore(true);
+        try {
+            const result = await fetchPage(page + 1);
+            if (seq !== requestSeq.current) return;
+            const loaded = products.length + result.items.length;
+            setProducts(prev => [...prev, ...result.items]);
+            setPage(page + 1);
+            setHasMore(result.total !== null ? loaded < result.total : result.items.length === PAGE_SIZE);
+        } catch (error) {
+            toast.error('Failed to load more products');
+            console.error(error);
+        } finally {
+            setLoadingMore(false);
         }
-
-        setFilteredProducts(filtered);
     };
 
-    const categories = ['all', ...Array.from(new Set(products.map(p => p.category)))];
-    const brands = ['all', ...Array.from(new Set(products.map(p => p.brand)))];
-    const availableProducts = products.filter(p => p.stock > 0).length;
+    // Facet counts leave out their own filter, so every alternative stays listed; keep the selection even at 0
+    const options = (counts: Record<string, number>, selected: string) => {
+        const values = Object.keys(counts);
+        if (selected !== 'all' && !values.includes(selected)) values.unshift(selected);
+        return ['all', ...values];
+    };
+    const categories = options(categoryCounts, selectedCategory);
+    const brands = options(brandCounts, selectedBrand);
 
     if (loading) {
         return (
@@ -114,11 +180,13 @@ export default function ProductsPage() {
                         <select
                             value={selectedCategory}
                             onChange={(e) => setSelectedCategory(e.target.value)}
-                            className="px-4 py-3 border-2 border-gray-200 rounded-lg focus:ring-2 focus:ring-indigo-500 focus:border-transparent transition-all"
+                            disabled={searching}
+                            title={searching ? 'Clear the search to filter by category' : undefined}
+                            className="disabled:opacity-50 "px-4 py-3 border-2 border-gray-200 rounded-lg focus:ring-2 focus:ring-indigo-500 focus:border-transparent transition-all"
                         >
                             {categories.map(cat => (
                                 <option key={cat} value={cat}>
-                                    {cat === 'all' ? 'All Categories' : cat}
+                                    {cat === 'all' ? 'All Categories' : `${cat} (${categoryCounts[cat] ?? 0})`}
                                 </option>
                             ))}
                         </select>
@@ -127,11 +195,13 @@ export default function ProductsPage() {
                         <select
                             value={selectedBrand}
                             onChange={(e) => setSelectedBrand(e.target.value)}
-                            className="px-4 py-3 border-2 border-gray-200 rounded-lg focus:ring-2 focus:ring-indigo-500 focus:border-transparent transition-all"
+                            disabled={searching}
+                            title={searching ? 'Clear the search to filter by brand' : undefined}
+                            className="disabled:opacity-50 "px-4 py-3 border-2 border-gray-200 rounded-lg focus:ring-2 focus:ring-indigo-500 focus:border-transparent transition-all"
                         >
                             {brands.map(brand => (
                                 <option key={brand} value={brand}>
-                                    {brand === 'all' ? 'All Brands' : brand}
+                                    {brand === 'all' ? 'All Brands' : `${brand} (${brandCounts[brand] ?? 0})`}
                                 </option>
                             ))}
                         </select>
@@ -148,7 +218,7 @@ export default function ProductsPage() {
                         </div>
                         <div>
                             <p className="text-sm text-gray-500">Total Products</p>
-                            <p className="text-2xl font-bold text-gray-800">{products.length}</p>
+                            <p className="text-2xl font-bold text-gray-800">{totals.products}</p>
                         </div>
                     </div>
 
@@ -160,7 +230,7 @@ export default function ProductsPage() {
                         </div>
                         <div>
                             <p className="text-sm text-gray-500">Available</p>
-                            <p className="text-2xl font-bold text-gray-800">{availableProducts}</p>
+                            <p className="text-2xl font-bold text-gray-800">{totals.available}</p>
                         </div>
                     </div>
 
@@ -172,13 +242,13 @@ export default function ProductsPage() {
                         </div>
                         <div>
                             <p className="text-sm text-gray-500">Search Results</p>
-                            <p className="text-2xl font-bold text-gray-800">{filteredProducts.length}</p>
+                            <p className="text-2xl font-bold text-gray-800">{matches ?? `${products.length}${hasMore ? '+' : ''}`}</p>
                         </div>
                     </div>
                 </div>
 
                 {/* Products Grid */}
-                {filteredProducts.length === 0 ? (
+                {products.length === 0 ? (
                     <div className="text-center py-16">
                         <svg className="w-24 h-24 text-gray-300 mx-auto mb-4" fill="none" stroke="currentColor" viewBox="0 0 24 24">
                             <path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M20 7l-8-4-8 4m16 0l-8 4m8-4v10l-8 4m0-10L4 7m8 4v10M4 7v10l8 4" />
@@ -187,7 +257,7 @@ export default function ProductsPage() {
                     </div>
                 ) : (
                     <div className="grid grid-cols-1 sm:grid-cols-2 lg:grid-cols-3 xl:grid-cols-4 gap-6">
-                        {filteredProducts.map((product) => (
+                        {products.map((product) => (
                             <div key={product.id} className="bg-white rounded-xl shadow-md hover:shadow-xl transition-all duration-300 transform hover:-translate-y-2 overflow-hidden">
                                 {/* Product Image */}
                                 <div className="h-56 bg-gradient-to-br from-indigo-400 to-purple-400 flex items-center justify-center relative">
@@ -242,6 +312,18 @@ export default function ProductsPage() {
                         ))}
                     </div>
                 )}
+
+                {hasMore && (
+                    <div className="text-center mt-10">
+                        <button
+                            onClick={loadMore}
+                            disabled={loadingMore}
+                            className="px-8 py-3 rounded-lg font-semibold bg-gradient-to-r from-indigo-600 to-purple-600 text-white shadow-md hover:shadow-xl disabled:opacity-50 disabled:cursor-not-allowed transition-all duration-300"
+                        >
+                            {loadingMore ? 'Loading...' : 'Load more products'}
+                        </button>
+                    </div>
+                )}
             </div>
         </div>
     );
@@ -11,6 +11,16 @@ export interface FormSchema {
     active?: boolean;
 }
 
+// A form without its schema JSON, as returned by the summary list
+export interface FormSummary {
+    id: number;
+    title: string;
+    context?: string;
+    createdAt?: string;
+    updatedAt?: string;
+    schemaVersion?: string;
+}
+
 export interface FormSubmission {
     id?: number;
     formSchemaId: number;
@@ -54,6 +64,20 @@ export async function getAllForms(context?: string): Promise<FormSchema[]> {
     return response.json();
 }
 
+// Get all active forms without their schemas (for lists)
+export async function getFormSummaries(): Promise<FormSummary[]> {
+    const response = await fetch(`${API_BASE_URL}/api/forms/summary`, {
+        headers: {
+            // 'Authorization': `Bearer ${getToken()}`,
+        },
+    });
+
+    if (!response.ok) {
+        throw new Error('Failed to fetch forms');
+    }
+    return response.json();
+}
+
 // Get a specific form by ID
 export async function getFormById(id: number): Promise<FormSchema> {
     const response = await fetch(`${API_BASE_URL}/api/forms/${id}`, {